@@ -38,6 +38,15 @@ android {
     buildFeatures {
         viewBinding = true  // Enable view binding to easily access views without findViewById
     }
+
+    testOptions {
+        unitTests.all {
+            // Benchmarks in src/test are skipped unless run with -Pbenchmark=true (-Pbenchmark.notes=N to resize)
+            for (name in listOf("benchmark", "benchmark.notes")) {
+                project.findProperty(name)?.let { value -> it.systemProperty(name, value) }
+            }
+        }
+    }
 }
 
 dependencies {
@@ -65,6 +74,18 @@ dependencies {
     // Navigation UI helpers for navigation components (e.g., toolbar & drawer)
     implementation(libs.navigation.ui)
 
+    // Room Paging integration so DAO queries can return a PagingSource
+    implementation("androidx.room:room-paging:2.6.1")
+
+    // Paging runtime for PagingDataAdapter / Pager used by the home screen note list
+    implementation("androidx.paging:paging-runtime:3.3.2")
+
+    // LiveData so NoteRepository can expose observable queries to activities
+    implementation("androidx.lifecycle:lifecycle-livedata:2.8.7")
+
+    // ViewModel so the note editor keeps its autosave session across configuration changes
+    implementation("androidx.lifecycle:lifecycle-viewmodel:2.8.7")
+
     // Room annotation processor to generate database code
     annotationProcessor("androidx.room:room-compiler:2.6.1")
 
@@ -77,6 +98,9 @@ dependencies {
     // Firebase Storage to upload and download files to cloud storage
     implementation(libs.firebase.storage)
 
+    // Firebase Authentication: synced notes and attachments are kept under the signed-in user's uid
+    implementation(libs.firebase.auth)
+
     // JUnit for unit testing
     testImplementation(libs.junit)
 
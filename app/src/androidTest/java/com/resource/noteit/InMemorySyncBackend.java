@@ -0,0 +1,79 @@
+package com.resource.noteit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * InMemorySyncBackend 🧪☁️
+ *
+ * NoteSyncBackend kept entirely in memory, for tests and for running the sync engine without
+ * a Firebase project. Every pushed note gets the next change sequence number; the cursor is
+ * the last sequence number a client has seen. Counters record how much was transferred.
+ */
+public class InMemorySyncBackend implements NoteSyncBackend {
+
+    // 📜 Latest version of each note, ordered by the sequence number of its last change
+    private final TreeMap<Long, RemoteNote> changes = new TreeMap<>();
+    private final Map<String, Long> sequenceBySyncId = new HashMap<>();
+    private long nextSequence = 1;
+
+    // 📊 Transfer counters
+    private int pushCalls;
+    private int pushedNotes;
+    private int pullCalls;
+    private int pulledNotes;
+
+    @Override
+    public synchronized void push(List<RemoteNote> notes) {
+        pushCalls++;
+        for (RemoteNote note : notes) {
+            Long previous = sequenceBySyncId.put(note.syncId, nextSequence);
+            if (previous != null) changes.remove(previous);
+            changes.put(nextSequence++, note);
+            pushedNotes++;
+        }
+    }
+
+    @Override
+    public synchronized Page pull(String cursor, int limit) {
+        pullCalls++;
+        long after = cursor == null ? 0 : Long.parseLong(cursor);
+        List<RemoteNote> page = new ArrayList<>(Math.min(limit, changes.size()));
+        long last = after;
+        for (Map.Entry<Long, RemoteNote> entry : changes.tailMap(after, false).entrySet()) {
+            if (page.size() == limit) break;
+            page.add(entry.getValue());
+            last = entry.getKey();
+        }
+        pulledNotes += page.size();
+        return new Page(page, Long.toString(last));
+    }
+
+    /**
+     * @param syncId Global note id
+     * @return The stored version of a note (possibly a tombstone), or null
+     */
+    public synchronized RemoteNote get(String syncId) {
+        Long sequence = sequenceBySyncId.get(syncId);
+        return sequence == null ? null : changes.get(sequence);
+    }
+
+    public synchronized int getPushCalls() {
+        return pushCalls;
+    }
+
+    public synchronized int getPushedNotes() {
+        return pushedNotes;
+    }
+
+    public synchronized int getPullCalls() {
+        return pullCalls;
+    }
+
+    public synchronized int getPulledNotes() {
+        return pulledNotes;
+    }
+}
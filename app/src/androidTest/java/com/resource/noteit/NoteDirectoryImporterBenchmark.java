@@ -0,0 +1,141 @@
+package com.resource.noteit;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * End-to-end throughput of NoteDirectoryImporter.importDirectory(): listing a folder tree,
+ * parsing its files on the ForkJoinPool and writing them to an in-memory NoteDatabase in
+ * batches, as the app does. Logs files per second for a first import and for a re-import of the
+ * same unchanged folder.
+ *
+ * Skipped unless run with -Pandroid.testInstrumentationRunnerArguments.benchmark=true;
+ * add benchmarkFiles=N to change the tree size.
+ */
+@RunWith(AndroidJUnit4.class)
+public class NoteDirectoryImporterBenchmark {
+
+    private static final String TAG = "ImportBenchmark";
+    private static final int FILES_PER_FOLDER = 100;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private NoteDatabase db;
+    private NoteRepository repository;
+    private int files;
+
+    @Before
+    public void setUp() {
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        Assume.assumeTrue("Benchmarks only run with the benchmark=true runner argument",
+                Boolean.parseBoolean(arguments.getString("benchmark")));
+        files = Integer.parseInt(arguments.getString("benchmarkFiles", "5000"));
+
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, NoteDatabase.class).build();
+        SharedPreferences noLegacyTasks = context.getSharedPreferences("ImportBenchmark.tasks", Context.MODE_PRIVATE);
+        noLegacyTasks.edit().clear().commit();
+        repository = new NoteRepository(db, new TaskSearch(new TaskRepository(db, noLegacyTasks)),
+                context.getResources().getInteger(R.integer.note_body_inline_threshold), 0);
+    }
+
+    @After
+    public void tearDown() {
+        if (db != null) db.close();
+    }
+
+    @Test
+    public void importThroughput() throws Exception {
+        File root = folder.newFolder("export");
+        generate(root);
+        NoteDirectoryImporter importer = new NoteDirectoryImporter(repository, NoteDirectoryImporter.MAX_PARALLELISM);
+
+        NoteDirectoryImporter.Result first = importer.importDirectory(root, null);
+        assertNull(first.error);
+        assertEquals(files, first.filesFound);
+        assertEquals(0, first.filesFailed);
+        assertEquals(files, first.notesImported);
+        assertEquals(files, repository.getNoteCount());
+        report("first import", first);
+
+        // 🔁 Same folder again: every file is parsed and matched by syncId, nothing is written
+        NoteDirectoryImporter.Result again = importer.importDirectory(root, null);
+        assertEquals(0, again.notesImported);
+        assertEquals(files, repository.getNoteCount());
+        report("re-import, unchanged", again);
+    }
+
+    /**
+     * Writes the notes, FILES_PER_FOLDER per folder, alternating Markdown with front-matter,
+     * Markdown with a heading and plain text.
+     */
+    private void generate(File root) throws IOException {
+        List<File> folders = new ArrayList<>();
+        for (int i = 0; i < files; i++) {
+            if (i % FILES_PER_FOLDER == 0) {
+                File sub = new File(root, "folder" + folders.size() + "/nested");
+                if (!sub.mkdirs()) throw new IOException("Cannot create " + sub);
+                folders.add(sub);
+            }
+            File parent = folders.get(folders.size() - 1);
+            String text;
+            String name;
+            switch (i % 3) {
+                case 0:
+                    name = "note" + i + ".md";
+                    text = "---\ntitle: \"Note " + i + "\"\ntags: import\n---\n" + body(i);
+                    break;
+                case 1:
+                    name = "note" + i + ".markdown";
+                    text = "# Heading " + i + "\n\n" + body(i);
+                    break;
+                default:
+                    name = "note" + i + ".txt";
+                    text = "Plain note " + i + "\r\n" + body(i);
+            }
+            try (OutputStream out = new FileOutputStream(new File(parent, name))) {
+                out.write(text.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static String body(int i) {
+        StringBuilder body = new StringBuilder();
+        for (int line = 0; line < 20; line++) {
+            body.append("Line ").append(line).append(" of note ").append(i).append(": meeting agenda and follow-ups\n");
+        }
+        return body.toString();
+    }
+
+    private static void report(String stage, NoteDirectoryImporter.Result result) {
+        Log.i(TAG, String.format(Locale.US, "NoteDirectoryImporter %s: %d files in %d ms (%.0f files/s), pool of %d",
+                stage, result.filesFound, result.elapsedMs, result.filesPerSecond(), NoteDirectoryImporter.MAX_PARALLELISM));
+    }
+}
@@ -0,0 +1,155 @@
+package com.resource.noteit;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives NoteSyncEngine over an in-memory NoteDatabase against SimulatedNetworkBackend wrapping an
+ * InMemorySyncBackend, and counts the operations a scripted editing session sends.
+ */
+@RunWith(AndroidJUnit4.class)
+public class NoteSyncEngineTest {
+
+    private NoteDatabase db;
+    private NoteRepository repository;
+    private InMemorySyncBackend server;
+    private SharedPreferences prefs;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, NoteDatabase.class).build();
+        SharedPreferences noLegacyTasks = context.getSharedPreferences("NoteSyncEngineTest.tasks", Context.MODE_PRIVATE);
+        noLegacyTasks.edit().clear().commit();              // Nothing to migrate; the app's TasksPrefs stay untouched
+        repository = new NoteRepository(db, new TaskSearch(new TaskRepository(db, noLegacyTasks)), 64 * 1024, 0);
+        server = new InMemorySyncBackend();
+        prefs = context.getSharedPreferences("NoteSyncEngineTest", Context.MODE_PRIVATE);
+        prefs.edit().clear().commit();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private NoteSyncEngine engine(SimulatedNetworkBackend network) {
+        return new NoteSyncEngine(repository, network, prefs, NoteSyncEngine.DEFAULT_BATCH_SIZE);
+    }
+
+    private int save(int id, String title, String body) throws Exception {
+        return repository.saveContent(id, title, body, System.currentTimeMillis()).get();
+    }
+
+    private String syncIdOf(int id) {
+        for (DataClass note : repository.getNotesAfter(id - 1, 1)) {
+            if (note.id == id) return note.syncId;
+        }
+        return null;
+    }
+
+    @Test
+    public void editingSession_sendsOneOperationPerChangedNote() throws Exception {
+        SimulatedNetworkBackend network = new SimulatedNetworkBackend(server, 0, 0.0, 1);
+
+        // 📝 Three new notes; the first is edited five more times
+        int first = save(0, "Groceries", "milk");
+        save(0, "Ideas", "a blog post");
+        save(0, "Meeting", "agenda");
+        for (int i = 0; i < 5; i++) save(first, "Groceries", "milk, eggs x" + i);
+        // 🗑️ A scratch note created and deleted before any sync never has to leave the device
+        int scratch = save(0, "Scratch", "tmp");
+        repository.deleteById(scratch);                        // Runs on the writer before the sync below
+
+        NoteSyncEngine.Result result = engine(network).sync();
+        assertNull(result.error);
+        assertEquals(3, result.pushedNotes);
+        assertEquals(0, result.pushedDeletes);
+        assertEquals(5, result.coalescedWrites);
+        assertEquals(1, result.pushBatches);
+        assertEquals(3, network.getAttemptedOps());            // 10 local writes, 3 operations
+        assertEquals(3, network.getDeliveredOps());
+        assertEquals("milk, eggs x4", server.get(syncIdOf(first)).body);
+
+        // 🔁 Nothing changed: nothing is pushed again
+        NoteSyncEngine.Result again = engine(network).sync();
+        assertEquals(0, again.pushedNotes);
+        assertEquals(3, network.getAttemptedOps());
+        assertEquals(0, repository.getOutboxSize());
+    }
+
+    @Test
+    public void offlineInsertThenDelete_sendsNothing() throws Exception {
+        SimulatedNetworkBackend offline = new SimulatedNetworkBackend(server, 0, 1.0, 1);
+        SimulatedNetworkBackend online = new SimulatedNetworkBackend(server, 0, 0.0, 1);
+
+        int id = save(0, "Draft", "written offline");
+        String syncId = syncIdOf(id);
+        assertNotNull(syncId);
+
+        // 📵 Every attempt fails while offline; the insert stays an insert
+        for (int i = 0; i < 3; i++) {
+            NoteSyncEngine.Result failed = engine(offline).sync();
+            assertNotNull(failed.error);
+        }
+        assertEquals(3, offline.getAttemptedOps());
+        assertEquals(0, offline.getDeliveredOps());
+
+        repository.deleteById(id);                             // Cancels the never-delivered insert
+        NoteSyncEngine.Result result = engine(online).sync();
+        assertNull(result.error);
+        assertEquals(0, result.pushedNotes);
+        assertEquals(0, result.pushedDeletes);
+        assertEquals(0, online.getAttemptedOps());
+        assertNull(server.get(syncId));                        // No tombstone for a note the server never had
+    }
+
+    @Test
+    public void deleteAfterDeliveredInsert_sendsTombstone() throws Exception {
+        SimulatedNetworkBackend online = new SimulatedNetworkBackend(server, 0, 0.0, 1);
+
+        int id = save(0, "Shared", "synced once");
+        String syncId = syncIdOf(id);
+        engine(online).sync();
+        repository.deleteById(id);
+
+        NoteSyncEngine.Result result = engine(online).sync();
+        assertEquals(1, result.pushedDeletes);
+        assertTrue(server.get(syncId).deleted);
+        assertEquals(2, online.getDeliveredOps());
+    }
+
+    @Test
+    public void flakyNetwork_eventuallyDeliversEverything() throws Exception {
+        SimulatedNetworkBackend flaky = new SimulatedNetworkBackend(server, 0, 0.5, 42);
+        for (int i = 0; i < 50; i++) save(0, "Note " + i, "body " + i);
+
+        NoteSyncEngine engine = engine(flaky);
+        NoteSyncEngine.Result result = engine.sync();
+        for (int attempt = 0; attempt < 20 && (result.error != null || repository.getOutboxSize() > 0); attempt++) {
+            result = engine.sync();
+        }
+        assertEquals(0, repository.getOutboxSize());
+        assertEquals(50, flaky.getDeliveredOps());             // Failed batches are resent, delivered ones are not
+        assertTrue(flaky.getAttemptedOps() >= 50);
+
+        List<DataClass> notes = repository.getNotesAfter(0, 100);
+        for (DataClass note : notes) assertFalse(server.get(note.syncId).deleted);
+    }
+}
@@ -0,0 +1,96 @@
+package com.resource.noteit;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * SimulatedNetworkBackend 🧪📶
+ *
+ * Wraps another NoteSyncBackend (usually InMemorySyncBackend) and makes it behave like a slow,
+ * unreliable network: every call waits latencyMs and fails with probability failureRate.
+ * Counters record how many operations were attempted and how many actually got through, which
+ * shows what the outbox's coalescing and batching save over a typical editing session.
+ */
+public class SimulatedNetworkBackend implements NoteSyncBackend {
+
+    private final NoteSyncBackend delegate;
+    private final long latencyMs;
+    private final double failureRate;
+    private final Random random;
+
+    // 📊 Counters
+    private int calls;
+    private int failedCalls;
+    private int attemptedOps;
+    private int deliveredOps;
+
+    /**
+     * @param delegate    Backend that stores what gets through
+     * @param latencyMs   Delay added to every call
+     * @param failureRate Probability (0..1) that a call fails before reaching the delegate
+     * @param seed        Random seed, so a simulated session is reproducible
+     */
+    public SimulatedNetworkBackend(NoteSyncBackend delegate, long latencyMs, double failureRate, long seed) {
+        this.delegate = delegate;
+        this.latencyMs = latencyMs;
+        this.failureRate = failureRate;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public void push(List<RemoteNote> notes) throws IOException {
+        synchronized (this) {
+            attemptedOps += notes.size();
+        }
+        simulateNetwork();
+        delegate.push(notes);
+        synchronized (this) {
+            deliveredOps += notes.size();
+        }
+    }
+
+    @Override
+    public Page pull(String cursor, int limit) throws IOException {
+        simulateNetwork();
+        return delegate.pull(cursor, limit);
+    }
+
+    private void simulateNetwork() throws IOException {
+        boolean fail;
+        synchronized (this) {
+            calls++;
+            fail = random.nextDouble() < failureRate;
+            if (fail) failedCalls++;
+        }
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+        if (fail) throw new IOException("Simulated network failure");
+    }
+
+    public synchronized int getCalls() {
+        return calls;
+    }
+
+    public synchronized int getFailedCalls() {
+        return failedCalls;
+    }
+
+    /**
+     * @return Operations sent in push calls, including calls that failed
+     */
+    public synchronized int getAttemptedOps() {
+        return attemptedOps;
+    }
+
+    /**
+     * @return Operations that reached the delegate
+     */
+    public synchronized int getDeliveredOps() {
+        return deliveredOps;
+    }
+}
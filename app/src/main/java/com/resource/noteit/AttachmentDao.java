@@ -0,0 +1,84 @@
+package com.resource.noteit;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * AttachmentDao 🗃️📎
+ *
+ * Access to "note_attachments" and the resumable upload queue "attachment_uploads".
+ */
+@Dao
+public interface AttachmentDao {
+
+    /**
+     * @param attachment Attachment to add
+     * @return Generated attachment id
+     */
+    @Insert
+    long insertAttachment(NoteAttachment attachment);
+
+    /**
+     * @param noteId Note id
+     * @return Attachments of a note, oldest first
+     */
+    @Query("SELECT * FROM note_attachments WHERE noteId = :noteId ORDER BY createdAt, id")
+    List<NoteAttachment> getAttachments(int noteId);
+
+    /**
+     * @param id Attachment id
+     * @return Number of rows deleted
+     */
+    @Query("DELETE FROM note_attachments WHERE id = :id")
+    int deleteAttachment(int id);
+
+    /**
+     * @param hash Content hash
+     * @return Number of attachments (on any note) pointing at the blob
+     */
+    @Query("SELECT COUNT(*) FROM note_attachments WHERE hash = :hash")
+    int countReferences(String hash);
+
+    /**
+     * Queues a blob for upload; a blob already queued keeps its session.
+     *
+     * @param upload Upload to queue
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void queueUpload(AttachmentUpload upload);
+
+    /**
+     * @return Every blob still waiting to be uploaded
+     */
+    @Query("SELECT * FROM attachment_uploads")
+    List<AttachmentUpload> getPendingUploads();
+
+    /**
+     * @param hash Content hash
+     * @return true if the blob is still waiting to be uploaded
+     */
+    @Query("SELECT EXISTS(SELECT 1 FROM attachment_uploads WHERE hash = :hash)")
+    boolean isUploadPending(String hash);
+
+    /**
+     * Saves the resumable session and confirmed byte count of an upload in progress.
+     *
+     * @param hash       Content hash
+     * @param sessionUri Backend session
+     * @param bytesSent  Bytes confirmed so far
+     */
+    @Query("UPDATE attachment_uploads SET sessionUri = :sessionUri, bytesSent = :bytesSent WHERE hash = :hash")
+    void saveUploadProgress(String hash, String sessionUri, long bytesSent);
+
+    /**
+     * Removes a finished upload from the queue.
+     *
+     * @param hash Content hash
+     */
+    @Query("DELETE FROM attachment_uploads WHERE hash = :hash")
+    void deleteUpload(String hash);
+}
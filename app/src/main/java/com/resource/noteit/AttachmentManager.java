@@ -0,0 +1,209 @@
+package com.resource.noteit;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.OpenableColumns;      // Display name and size of picked files
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+
+/**
+ * AttachmentManager 📎☁️
+ *
+ * Adds files to notes and keeps them in cloud storage:
+ * - 📥 attach() streams the picked file into the content-addressed AttachmentStore and records it
+ *   on the note together with a pending upload, in one transaction
+ * - ⬆️ uploads run on a pool of MAX_PARALLEL_UPLOADS threads; each one is chunked and resumable,
+ *   and its session is persisted after every chunk, so resumeUploads() continues interrupted
+ *   uploads after a network drop or restart
+ * - ⬇️ fetch() streams a missing blob down from storage, verifying its hash before keeping it
+ * - 🧹 collectGarbage() deletes blobs no attachment uses any more
+ *
+ * Files are only ever streamed; none is read fully into memory.
+ */
+public class AttachmentManager {
+
+    private static final String TAG = "AttachmentManager";
+
+    // ⬆️ Uploads running at the same time
+    static final int MAX_PARALLEL_UPLOADS = 3;
+
+    // 🧹 Blobs younger than this are never collected (they may be mid-attach)
+    static final long GC_GRACE_MS = 60 * 60_000;
+
+    private static volatile AttachmentManager INSTANCE;
+
+    private final NoteRepository repository;
+    private final AttachmentStore store;
+    private final BlobStorageBackend backend;
+
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();       // Imports, downloads, GC
+    private final ExecutorService uploadExecutor = Executors.newFixedThreadPool(MAX_PARALLEL_UPLOADS);
+    private final Set<String> activeUploads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * @param repository Database access
+     * @param store      Local blob store
+     * @param backend    Cloud storage
+     */
+    public AttachmentManager(NoteRepository repository, AttachmentStore store, BlobStorageBackend backend) {
+        this.repository = repository;
+        this.store = store;
+        this.backend = backend;
+    }
+
+    /**
+     * Returns the app-wide manager backed by Firebase Storage, creating it on first use.
+     *
+     * @param context Any context
+     * @return Shared AttachmentManager
+     */
+    public static AttachmentManager getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (AttachmentManager.class) {
+                if (INSTANCE == null) {
+                    Context app = context.getApplicationContext();
+                    INSTANCE = new AttachmentManager(NoteRepository.getInstance(app),
+                            new AttachmentStore(app.getFilesDir()), FirebaseBlobBackend.createDefault());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Attaches a file (e.g. from a picker) to a note and starts uploading it.
+     *
+     * @param noteId   Note id
+     * @param resolver Content resolver used to open the file
+     * @param uri      The file
+     * @param callback Receives the new attachment, or null if the file could not be read, on the main thread
+     */
+    public void attach(int noteId, ContentResolver resolver, Uri uri, NoteRepository.Callback<NoteAttachment> callback) {
+        ioExecutor.execute(() -> {
+            NoteAttachment attachment = null;
+            try (InputStream in = resolver.openInputStream(uri)) {
+                if (in == null) throw new IOException("Cannot open " + uri);
+                AttachmentStore.Blob blob = store.put(in);
+                attachment = repository.addAttachment(new NoteAttachment(noteId, blob.hash,
+                        displayName(resolver, uri), resolver.getType(uri), blob.size, System.currentTimeMillis()));
+                upload(blob.hash);
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to attach " + uri, e);
+            }
+            NoteAttachment result = attachment;
+            if (callback != null) mainHandler.post(() -> callback.onResult(result));
+        });
+    }
+
+    /**
+     * Restarts every pending upload (after an app start or when the network comes back),
+     * clears temporary files of interrupted imports and collects unused blobs.
+     */
+    public void resumeUploads() {
+        ioExecutor.execute(() -> {
+            store.clearTemp();
+            for (AttachmentUpload pending : repository.getPendingUploads()) {
+                upload(pending.hash);
+            }
+        });
+        collectGarbage();
+    }
+
+    /**
+     * Makes sure a blob is on this device, downloading it if needed.
+     *
+     * @param hash     Content hash
+     * @param callback Receives the local file, or null if it could not be downloaded, on the main thread
+     */
+    public void fetch(String hash, NoteRepository.Callback<File> callback) {
+        ioExecutor.execute(() -> {
+            File file = null;
+            try {
+                file = store.contains(hash) ? store.file(hash) : download(hash);
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to download " + hash, e);
+            }
+            File result = file;
+            if (callback != null) mainHandler.post(() -> callback.onResult(result));
+        });
+    }
+
+    /**
+     * Deletes local blobs that no attachment uses and that are not waiting to be uploaded.
+     */
+    public void collectGarbage() {
+        ioExecutor.execute(() -> {
+            long cutoff = System.currentTimeMillis() - GC_GRACE_MS;
+            for (String hash : store.listHashes()) {
+                if (store.file(hash).lastModified() < cutoff && !repository.isBlobInUse(hash)) {
+                    store.delete(hash);
+                }
+            }
+        });
+    }
+
+    // ---------------------------------------------------------------- ⬆️ Uploads
+
+    private void upload(String hash) {
+        if (!activeUploads.add(hash)) return;            // Already running
+        uploadExecutor.execute(() -> {
+            try {
+                String session = null;
+                for (AttachmentUpload pending : repository.getPendingUploads()) {
+                    if (pending.hash.equals(hash)) session = pending.sessionUri;
+                }
+                sendIfMissing(backend, store, hash, session,
+                        (sessionUri, bytesSent) -> repository.saveUploadProgress(hash, sessionUri, bytesSent));
+                repository.finishUpload(hash);
+            } catch (IOException e) {
+                Log.w(TAG, "Upload of " + hash + " interrupted; it resumes on the next resumeUploads()", e);
+            } finally {
+                activeUploads.remove(hash);
+            }
+        });
+    }
+
+    /**
+     * Uploads a stored blob unless the backend already holds the same content.
+     *
+     * @param session Session of an interrupted upload to resume, or null
+     * @return true if bytes were sent, false if the blob was already uploaded
+     * @throws IOException If the upload stopped; progress has the session to resume with
+     */
+    static boolean sendIfMissing(BlobStorageBackend backend, AttachmentStore store, String hash, String session,
+                                 BlobStorageBackend.Progress progress) throws IOException {
+        File file = store.file(hash);
+        if (backend.exists(hash, file.length())) return false;  // Same content uploaded before: nothing to send
+        backend.upload(hash, file, session, progress);
+        return true;
+    }
+
+    // ---------------------------------------------------------------- ⬇️ Downloads
+
+    private File download(String hash) throws IOException {
+        return store.putVerified(hash, out -> backend.download(hash, out));
+    }
+
+    private static String displayName(ContentResolver resolver, Uri uri) {
+        try (Cursor cursor = resolver.query(uri, new String[]{OpenableColumns.DISPLAY_NAME}, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst()) return cursor.getString(0);
+        } catch (RuntimeException e) {
+            // Not every provider supports OpenableColumns; fall back to the path
+        }
+        return uri.getLastPathSegment();
+    }
+}
@@ -0,0 +1,220 @@
+package com.resource.noteit;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;        // Hashes the content while it is written
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+
+/**
+ * AttachmentStore 🗄️🔑
+ *
+ * Content-addressed blob store on disk. Every file is saved under the SHA-256 of its content
+ * (filesDir/attachments/ab/abcdef...), so identical files are stored exactly once.
+ *
+ * Content is always streamed: put() copies the input into a temporary file in small buffers
+ * while hashing it, then renames it into place (or drops it if the blob already exists).
+ * Nothing is ever read fully into the heap.
+ */
+public class AttachmentStore {
+
+    static final String DIR_NAME = "attachments";
+    private static final String TMP_DIR = "tmp";
+    static final int BUFFER_BYTES = 64 * 1024;
+
+    /**
+     * A stored blob.
+     */
+    public static final class Blob {
+        public final String hash; // SHA-256 (lower-case hex)
+        public final long size;   // Size in bytes
+
+        Blob(String hash, long size) {
+            this.hash = hash;
+            this.size = size;
+        }
+    }
+
+    private final File root;
+
+    /**
+     * @param filesDir Context.getFilesDir()
+     */
+    public AttachmentStore(File filesDir) {
+        this.root = new File(filesDir, DIR_NAME);
+    }
+
+    /**
+     * Streams content into the store. Blocks on disk I/O, so call it off the main thread.
+     *
+     * @param in Content; read to the end but not closed
+     * @return The stored blob (an existing one if the same content was stored before)
+     * @throws IOException If the content could not be read or written
+     */
+    public Blob put(InputStream in) throws IOException {
+        File tmp = newTempFile();
+        MessageDigest digest = newDigest();
+        long size = 0;
+        try (OutputStream out = new DigestOutputStream(new FileOutputStream(tmp), digest)) {
+            byte[] buffer = new byte[BUFFER_BYTES];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                size += read;
+            }
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+
+        String hash = toHex(digest.digest());
+        if (!moveIntoPlace(tmp, hash)) {
+            throw new IOException("Cannot store blob " + hash);
+        }
+        return new Blob(hash, size);
+    }
+
+    /**
+     * Writes content to the store, e.g. from a download.
+     */
+    interface Source {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Streams content of a known hash into the store, keeping it only if its SHA-256 matches.
+     * A blob that fails the check never becomes visible under the hash.
+     *
+     * @param hash   Expected content hash
+     * @param source Writes the content
+     * @return The stored file
+     * @throws IOException If the content could not be written or does not match the hash
+     */
+    File putVerified(String hash, Source source) throws IOException {
+        File tmp = newTempFile();
+        MessageDigest digest = newDigest();
+        try (OutputStream out = new DigestOutputStream(new FileOutputStream(tmp), digest)) {
+            source.writeTo(out);
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+        if (!toHex(digest.digest()).equals(hash)) {
+            tmp.delete();
+            throw new IOException("Content does not match " + hash);
+        }
+        if (!moveIntoPlace(tmp, hash)) throw new IOException("Cannot store blob " + hash);
+        return file(hash);
+    }
+
+    /**
+     * Moves a fully written file into the store under its hash. The caller must have verified
+     * the hash. If the blob already exists the file is simply deleted.
+     *
+     * @return true if the blob is now in the store
+     */
+    boolean moveIntoPlace(File file, String hash) {
+        File target = file(hash);
+        if (target.exists()) {
+            file.delete();                                   // Duplicate content: keep the single copy
+            return true;
+        }
+        File shard = target.getParentFile();
+        if (shard != null && !shard.isDirectory() && !shard.mkdirs()) return false;
+        return file.renameTo(target) || target.exists();
+    }
+
+    /**
+     * @param hash Content hash
+     * @return Where the blob is (or would be) stored
+     */
+    public File file(String hash) {
+        return new File(new File(root, hash.substring(0, 2)), hash);
+    }
+
+    /**
+     * @param hash Content hash
+     * @return true if the blob is on this device
+     */
+    public boolean contains(String hash) {
+        return file(hash).isFile();
+    }
+
+    /**
+     * Opens a stored blob for streaming reads.
+     *
+     * @param hash Content hash
+     * @return Stream over the blob; the caller closes it
+     * @throws IOException If the blob is not on this device
+     */
+    public InputStream open(String hash) throws IOException {
+        return new FileInputStream(file(hash));
+    }
+
+    /**
+     * @return A new empty temporary file inside the store (same filesystem, so it can be renamed in)
+     * @throws IOException If the temporary directory cannot be created
+     */
+    File newTempFile() throws IOException {
+        File tmpDir = new File(root, TMP_DIR);
+        if (!tmpDir.isDirectory() && !tmpDir.mkdirs()) throw new IOException("Cannot create " + tmpDir);
+        return new File(tmpDir, UUID.randomUUID().toString());
+    }
+
+    /**
+     * @param hash Content hash
+     * @return true if the blob was deleted
+     */
+    public boolean delete(String hash) {
+        return file(hash).delete();
+    }
+
+    /**
+     * @return Hashes of every blob on this device
+     */
+    public List<String> listHashes() {
+        List<String> hashes = new ArrayList<>();
+        File[] shards = root.listFiles();
+        if (shards == null) return hashes;
+        for (File shard : shards) {
+            if (shard.getName().equals(TMP_DIR)) continue;
+            String[] names = shard.list();
+            if (names == null) continue;
+            for (String name : names) hashes.add(name);
+        }
+        return hashes;
+    }
+
+    /**
+     * Removes temporary files left by interrupted writes.
+     */
+    public void clearTemp() {
+        File[] leftovers = new File(root, TMP_DIR).listFiles();
+        if (leftovers == null) return;
+        for (File file : leftovers) file.delete();
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is always available", e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
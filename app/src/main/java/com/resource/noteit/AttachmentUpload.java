@@ -0,0 +1,28 @@
+package com.resource.noteit;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * ⬆️ AttachmentUpload is a blob that still has to reach cloud storage.
+ * It keeps the backend's resumable session and the bytes already confirmed, so an upload
+ * interrupted by a network drop or process death continues where it stopped.
+ * The row is deleted once the blob is fully uploaded.
+ */
+@Entity(tableName = "attachment_uploads")
+public class AttachmentUpload {
+
+    @PrimaryKey
+    @NonNull
+    public String hash; // 🔑 Content hash of the blob
+
+    public String sessionUri; // 🔗 Resumable session of the backend, or null before the first chunk
+    public long bytesSent; // 📏 Bytes confirmed by the backend so far
+
+    public AttachmentUpload(@NonNull String hash, String sessionUri, long bytesSent) {
+        this.hash = hash;
+        this.sessionUri = sessionUri;
+        this.bytesSent = bytesSent;
+    }
+}
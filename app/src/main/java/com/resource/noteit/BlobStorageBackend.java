@@ -0,0 +1,56 @@
+package com.resource.noteit;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * BlobStorageBackend ☁️🗄️
+ *
+ * Cloud storage for attachment blobs, addressed by content hash. Uploads are resumable:
+ * the backend reports its session and the bytes it has confirmed after every chunk, and an
+ * interrupted upload is restarted with that session so only the missing bytes are sent.
+ *
+ * FirebaseBlobBackend uses Firebase Storage; the unit tests use LocalBlobBackend, a stand-in
+ * server on the local filesystem. Calls block, so they run on AttachmentManager's worker threads.
+ */
+public interface BlobStorageBackend {
+
+    /**
+     * Receives upload progress after every confirmed chunk.
+     */
+    interface Progress {
+        void onProgress(String sessionUri, long bytesSent);
+    }
+
+    /**
+     * Checks whether a blob is already fully stored. Its stored size (and checksum, where the
+     * backend keeps one) must match, so a partial or foreign object at the same name is not trusted.
+     *
+     * @param hash Content hash
+     * @param size Size of the local copy in bytes
+     * @return true if the blob is already stored (uploaded before, from any of the user's devices)
+     * @throws IOException If the backend could not be reached
+     */
+    boolean exists(String hash, long size) throws IOException;
+
+    /**
+     * Uploads a blob in chunks, streaming it from disk.
+     *
+     * @param hash       Content hash (the remote name)
+     * @param file       Local copy of the blob
+     * @param sessionUri Session of an interrupted upload to resume, or null to start a new one
+     * @param progress   Told the session and confirmed bytes after every chunk
+     * @throws IOException If the upload stopped; it can be resumed with the last reported session
+     */
+    void upload(String hash, File file, String sessionUri, Progress progress) throws IOException;
+
+    /**
+     * Streams a blob into an output stream.
+     *
+     * @param hash Content hash
+     * @param out  Destination; not closed
+     * @throws IOException If the blob could not be downloaded
+     */
+    void download(String hash, OutputStream out) throws IOException;
+}
@@ -1,10 +1,17 @@
 package com.resource.noteit; // 📦 Declares the package this class belongs to
 
 // 📚 Used to mark this class as a table in the Room database
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+// 🙈 Used for in-memory fields that are not table columns
+import androidx.room.Ignore;
+// 🗂️ Used to index the timestamp column for sorted / range queries
+import androidx.room.Index;
 // 🗝️ Used to specify the primary key for the Room table
 import androidx.room.PrimaryKey;
 
+import java.util.UUID; // 🌐 Random sync ids for new notes
+
 /**
  * 📋 DataClass is a model class for Room database.
  * It represents a "notes" table in the SQLite database through Room ORM.
@@ -12,11 +19,18 @@ import androidx.room.PrimaryKey;
  * - an auto-generated ID 🆔
  * - a title 📝
  * - a description 📄
- * - a timestamp 🕒
+ * - created and modified timestamps in epoch millis 🕒 (indexed on modifiedAt for recency queries)
+ *
+ * 📦 Very large bodies are stored out of row by NoteBodyStore (Deflate-compressed chunks in
+ * "note_body_chunks"). For those notes dataDesc only holds a short inline preview and
+ * bodyExternal is true; call getBody() to get the full text.
+ *
+ * 🌐 For cloud sync every note also has a global syncId (stable across devices); pending pushes
+ * are recorded per syncId in "note_outbox" (see NoteOutbox).
  *
  * 💾 This class is essential for saving and retrieving structured note data in the app.
  */
-@Entity(tableName = "notes") // 🏷️ Annotates this class as a table named "notes"
+@Entity(tableName = "notes", indices = {@Index("modifiedAt"), @Index(value = "syncId", unique = true)}) // 🏷️ Annotates this class as a table named "notes"
 public class DataClass {
 
     @PrimaryKey(autoGenerate = true) // 🗝️ Declares this field as the Primary Key, Room will auto-generate the value
@@ -24,7 +38,32 @@ public class DataClass {
 
     public String dataTitle; // 📝 Title of the note
     public String dataDesc; // 📄 Description/content of the note
-    public String dateTime; // 🕒 Date and time when the note was created or modified
+    public long createdAt; // 🕒 When the note was created (epoch millis)
+    public long modifiedAt; // 🕒 When the note was last modified (epoch millis), indexed
+
+    @ColumnInfo(defaultValue = "0")
+    public boolean bodyExternal; // 📦 True if the full body lives in note_body_chunks and dataDesc is a preview
+
+    public String syncId; // 🌐 Global id of the note in the sync backend
+
+    // 🔼 Unused since version 8 (pending pushes live in note_outbox); kept because dropping a
+    // column needs a full table rebuild on older SQLite versions
+    @ColumnInfo(defaultValue = "1")
+    public boolean syncDirty = true;
+
+    @Ignore
+    private BodySource bodySource; // 🔌 Loads the out-of-row body on demand (attached by NoteRepository)
+
+    @Ignore
+    private String fullBody; // 💾 Cached full body once loaded
+
+    /**
+     * 🔌 Loads an out-of-row note body. Implementations hit the database,
+     * so getBody() must not be called on the main thread for external bodies.
+     */
+    public interface BodySource {
+        String loadBody(int noteId);
+    }
 
     /**
      * 🧱 Default constructor
@@ -40,12 +79,14 @@ public class DataClass {
      *
      * @param dataTitle Title of the note
      * @param dataDesc Description of the note
-     * @param dateTime Timestamp for the note
+     * @param timestamp Creation time in epoch millis, also used as the modified time
      */
-    public DataClass(String dataTitle, String dataDesc, String dateTime) {
+    public DataClass(String dataTitle, String dataDesc, long timestamp) {
         this.dataTitle = dataTitle; // 💾 Save the title
         this.dataDesc = dataDesc;   // 💾 Save the description
-        this.dateTime = dateTime;   // 💾 Save the date and time
+        this.createdAt = timestamp;  // 💾 Save the creation time
+        this.modifiedAt = timestamp; // 💾 New notes are modified when created
+        this.syncId = UUID.randomUUID().toString(); // 🌐 New global id; replaced for notes pulled from the cloud
     }
 
     /**
@@ -68,21 +109,60 @@ public class DataClass {
     }
 
     /**
-     * 📤 Getter for the dateTime
+     * 📤 Getter for the last modified time
+     * Format it for display with NoteTimeFormatter.
      *
-     * @return Timestamp of the note
+     * @return Last modified time in epoch millis
      */
-    public String getDateTime() {
-        return dateTime; // 🕒 Return date and time of note
+    public long getModifiedAt() {
+        return modifiedAt; // 🕒 Return the modified time
     }
 
     /**
-     * 🛠️ Setter for the dateTime
+     * 🛠️ Setter for the last modified time
      *
-     * @param dateTime New timestamp to set
+     * @param modifiedAt New modified time in epoch millis
      */
-    public void setDateTime(String dateTime) {
-        this.dateTime = dateTime; // 🕒 Set the updated date and time
+    public void setModifiedAt(long modifiedAt) {
+        this.modifiedAt = modifiedAt; // 🕒 Set the modified time
+    }
+
+    /**
+     * 📄 Returns the full note body.
+     * Inline bodies are returned directly; out-of-row bodies are loaded once through the
+     * attached BodySource and cached. NoteRepository resolves it on a background thread
+     * before handing a note to the UI.
+     *
+     * @return The full body text
+     * @throws IllegalStateException If the body is out of row and neither loaded nor loadable;
+     *                               dataDesc is only a preview then and must never be saved as the body
+     */
+    public String getBody() {
+        if (!bodyExternal) return dataDesc;
+        if (fullBody == null) {
+            if (bodySource == null) {
+                throw new IllegalStateException("Body of note " + id + " is stored out of row and no BodySource is attached");
+            }
+            fullBody = bodySource.loadBody(id);
+        }
+        return fullBody;
+    }
+
+    /**
+     * 🔌 Attaches the loader used by getBody() for out-of-row bodies.
+     *
+     * @param bodySource Loader for the full body
+     */
+    public void setBodySource(BodySource bodySource) {
+        this.bodySource = bodySource;
     }
-}
 
+    /**
+     * 💾 Sets the cached full body without loading it (used right after the body was written).
+     *
+     * @param fullBody The full body text
+     */
+    void cacheFullBody(String fullBody) {
+        this.fullBody = fullBody;
+    }
+}
@@ -0,0 +1,60 @@
+package com.resource.noteit;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseNetworkException;  // Sign-in failed for lack of a connection: worth a retry
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+
+/**
+ * FirebaseAccount 🔑☁️
+ *
+ * The FirebaseAuth user that synced notes and attachments are stored under. The app has no login
+ * screen, so the first sync or upload signs in anonymously: the device gets its own uid, kept
+ * across app restarts by FirebaseAuth, and the Firebase backends can scope everything to it.
+ *
+ * Blocks while signing in, so only call it on a background thread.
+ */
+final class FirebaseAccount {
+
+    // ⏱️ Max wait for the anonymous sign-in round trip
+    private static final long TIMEOUT_SECONDS = 30;
+
+    private FirebaseAccount() {
+    }
+
+    /**
+     * Returns the signed-in user, signing in anonymously first if nobody is. Synchronized so the
+     * sync thread and an attachment upload starting together don't create two anonymous users.
+     *
+     * @param auth FirebaseAuth instance
+     * @return The signed-in user
+     * @throws NoteSyncBackend.NotSignedInException If Firebase refused the sign-in (e.g. anonymous
+     *                                              sign-in is disabled for the project)
+     * @throws IOException                          If the sign-in could not reach Firebase; retry later
+     */
+    static synchronized FirebaseUser signIn(FirebaseAuth auth) throws IOException {
+        FirebaseUser user = auth.getCurrentUser();
+        if (user != null) return user;
+        try {
+            user = Tasks.await(auth.signInAnonymously(), TIMEOUT_SECONDS, TimeUnit.SECONDS).getUser();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof FirebaseNetworkException) {
+                throw new IOException("Anonymous sign-in failed", e.getCause());
+            }
+            throw new NoteSyncBackend.NotSignedInException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Anonymous sign-in timed out", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while signing in", e);
+        }
+        if (user == null) throw new NoteSyncBackend.NotSignedInException(null);
+        return user;
+    }
+}
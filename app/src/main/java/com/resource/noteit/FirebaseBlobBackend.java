@@ -0,0 +1,145 @@
+package com.resource.noteit;
+
+import android.net.Uri;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;       // Blobs are stored under the signed-in user's uid
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageException;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+import com.google.firebase.storage.UploadTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutionException;
+
+
+/**
+ * FirebaseBlobBackend 🔥🗄️
+ *
+ * BlobStorageBackend on Firebase Storage. Blobs live at users/{uid}/blobs/{hash}, under the
+ * FirebaseAuth uid, so an attachment the user already uploaded from any of their devices is never
+ * sent again, and nobody else can write to their blobs. The storage rules should be:
+ *
+ *   match /users/{uid}/blobs/{hash} { allow read, write: if request.auth.uid == uid; }
+ *
+ * exists() only trusts an object whose size and "sha256" custom metadata match the local copy;
+ * anything else is uploaded again over it. If nobody is signed in, the first call signs in
+ * anonymously (FirebaseAccount); nothing is uploaded if that fails.
+ *
+ * Uploads use Firebase's resumable protocol: putFile() streams the file from disk in 256 KB
+ * chunks, and the upload session URI it reports is persisted so a restarted upload continues
+ * from the last confirmed byte. Downloads stream through getStream().
+ */
+public class FirebaseBlobBackend implements BlobStorageBackend {
+
+    // 🔑 Custom metadata key holding the SHA-256 the blob was uploaded under
+    private static final String KEY_SHA256 = "sha256";
+
+    // 🔌 HTTP codes of an upload session that expired or is unknown to the server
+    private static final int HTTP_NOT_FOUND = 404;
+    private static final int HTTP_GONE = 410;
+
+    private final FirebaseAuth auth;
+    private final StorageReference usersRef;
+
+    /**
+     * @param auth     Source of the signed-in user
+     * @param usersRef Folder holding one folder per user
+     */
+    public FirebaseBlobBackend(FirebaseAuth auth, StorageReference usersRef) {
+        this.auth = auth;
+        this.usersRef = usersRef;
+    }
+
+    /**
+     * @return Backend using the default bucket's "users" folder
+     */
+    public static FirebaseBlobBackend createDefault() {
+        return new FirebaseBlobBackend(FirebaseAuth.getInstance(), FirebaseStorage.getInstance().getReference("users"));
+    }
+
+    /**
+     * @throws IOException If signing in failed; the upload resumes on a later resumeUploads()
+     */
+    private StorageReference blobRef(String hash) throws IOException {
+        return usersRef.child(FirebaseAccount.signIn(auth).getUid()).child("blobs").child(hash);
+    }
+
+    @Override
+    public boolean exists(String hash, long size) throws IOException {
+        StorageReference ref = blobRef(hash);
+        try {
+            StorageMetadata metadata = Tasks.await(ref.getMetadata());
+            return metadata.getSizeBytes() == size && hash.equals(metadata.getCustomMetadata(KEY_SHA256));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof StorageException
+                    && ((StorageException) e.getCause()).getErrorCode() == StorageException.ERROR_OBJECT_NOT_FOUND) {
+                return false;
+            }
+            throw new IOException("Cannot check blob " + hash, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+    }
+
+    @Override
+    public void upload(String hash, File file, String sessionUri, Progress progress) throws IOException {
+        StorageReference ref = blobRef(hash);
+        try {
+            await(startUpload(ref, hash, file, sessionUri, progress));
+        } catch (IOException e) {
+            if (sessionUri == null || !isSessionGone(e.getCause())) throw e; // Network drops keep the session
+            await(startUpload(ref, hash, file, null, progress)); // Session expired: start a fresh one
+        }
+    }
+
+    /**
+     * @return true if the server no longer knows the upload session (expired or invalid)
+     */
+    private static boolean isSessionGone(Throwable error) {
+        if (!(error instanceof StorageException)) return false;
+        int http = ((StorageException) error).getHttpResultCode();
+        return http == HTTP_NOT_FOUND || http == HTTP_GONE;
+    }
+
+    private UploadTask startUpload(StorageReference ref, String hash, File file, String sessionUri, Progress progress) {
+        StorageMetadata metadata = new StorageMetadata.Builder().setCustomMetadata(KEY_SHA256, hash).build();
+        UploadTask task = ref.putFile(Uri.fromFile(file), metadata,
+                sessionUri != null ? Uri.parse(sessionUri) : null);
+        task.addOnProgressListener(Runnable::run, snapshot -> {   // Runs on Firebase's worker thread
+            Uri session = snapshot.getUploadSessionUri();
+            if (session != null) progress.onProgress(session.toString(), snapshot.getBytesTransferred());
+        });
+        return task;
+    }
+
+    @Override
+    public void download(String hash, OutputStream out) throws IOException {
+        byte[] buffer = new byte[AttachmentStore.BUFFER_BYTES];
+        await(blobRef(hash).getStream((snapshot, in) -> {
+            try (InputStream stream = in) {
+                int read;
+                while ((read = stream.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+        }));
+    }
+
+    private static <T> T await(Task<T> task) throws IOException {
+        try {
+            return Tasks.await(task);
+        } catch (ExecutionException e) {
+            throw new IOException("Firebase Storage request failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.resource.noteit;
+
+import com.google.android.gms.tasks.Task;          // Async result of every Firebase call
+import com.google.android.gms.tasks.Tasks;         // Blocks the sync thread until a Task finishes
+import com.google.firebase.auth.FirebaseAuth;      // Notes are stored under the signed-in user's uid
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;   // Server-side timestamp used as the change cursor
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+
+/**
+ * FirebaseSyncBackend 🔥☁️
+ *
+ * NoteSyncBackend on Firebase Realtime Database. Each note is one child of the signed-in user's
+ * "notes" node, keyed by syncId:
+ *
+ *   users/{uid}/notes/{syncId} = {title, body, createdAt, modifiedAt, deleted, updatedAt}
+ *
+ * The uid is the FirebaseAuth uid, so the same account sees the same notes on every device and
+ * after a reinstall. If nobody is signed in, the first call signs in anonymously (FirebaseAccount);
+ * if Firebase refuses that, every call throws NotSignedInException and nothing leaves the device.
+ * The database rules should only let a user reach their own node:
+ *
+ *   "users": { "$uid": { ".read": "auth.uid === $uid", ".write": "auth.uid === $uid" } }
+ *
+ * updatedAt is set by the server on every push, so pulling "everything after the cursor" is an
+ * orderByChild("updatedAt") range query. The cursor is "updatedAt/syncId", which keeps paging
+ * exact even when several notes share a server timestamp.
+ * The database rules should declare ".indexOn": "updatedAt" on the notes node.
+ */
+public class FirebaseSyncBackend implements NoteSyncBackend {
+
+    // ⏱️ Max wait for one Firebase round trip
+    private static final long TIMEOUT_SECONDS = 30;
+
+    private final FirebaseAuth auth;
+    private final DatabaseReference usersRef;
+
+    /**
+     * @param auth     Source of the signed-in user
+     * @param usersRef Node holding one child per user
+     */
+    public FirebaseSyncBackend(FirebaseAuth auth, DatabaseReference usersRef) {
+        this.auth = auth;
+        this.usersRef = usersRef;
+    }
+
+    /**
+     * Backend for whoever is signed in to FirebaseAuth at the time of each call.
+     *
+     * @return Backend writing under users/{uid}/notes
+     */
+    public static FirebaseSyncBackend forSignedInUser() {
+        return new FirebaseSyncBackend(FirebaseAuth.getInstance(),
+                FirebaseDatabase.getInstance().getReference("users"));
+    }
+
+    @Override
+    public String accountId() throws IOException {
+        return FirebaseAccount.signIn(auth).getUid();
+    }
+
+    /**
+     * @return The signed-in user's notes node
+     * @throws IOException If signing in failed
+     */
+    private DatabaseReference notesRef() throws IOException {
+        return usersRef.child(FirebaseAccount.signIn(auth).getUid()).child("notes");
+    }
+
+    @Override
+    public void push(List<RemoteNote> notes) throws IOException {
+        // One multi-path update per batch: all notes of the batch are written atomically
+        Map<String, Object> updates = new HashMap<>();
+        for (RemoteNote note : notes) {
+            Map<String, Object> value = new HashMap<>();
+            value.put("title", note.title);
+            value.put("body", note.body);
+            value.put("createdAt", note.createdAt);
+            value.put("modifiedAt", note.modifiedAt);
+            value.put("deleted", note.deleted);
+            value.put("updatedAt", ServerValue.TIMESTAMP);
+            updates.put(note.syncId, value);
+        }
+        await(notesRef().updateChildren(updates));
+    }
+
+    @Override
+    public Page pull(String cursor, int limit) throws IOException {
+        Query query = notesRef().orderByChild("updatedAt");
+        if (cursor != null) {
+            int split = cursor.indexOf('/');
+            query = query.startAfter(Double.parseDouble(cursor.substring(0, split)), cursor.substring(split + 1));
+        }
+        DataSnapshot snapshot = await(query.limitToFirst(limit).get());
+
+        List<RemoteNote> notes = new ArrayList<>((int) snapshot.getChildrenCount());
+        String next = cursor;
+        for (DataSnapshot child : snapshot.getChildren()) {       // Children arrive in updatedAt order
+            Boolean deleted = child.child("deleted").getValue(Boolean.class);
+            notes.add(new RemoteNote(child.getKey(),
+                    child.child("title").getValue(String.class),
+                    child.child("body").getValue(String.class),
+                    getLong(child, "createdAt"),
+                    getLong(child, "modifiedAt"),
+                    deleted != null && deleted));
+            next = getLong(child, "updatedAt") + "/" + child.getKey();
+        }
+        return new Page(notes, next);
+    }
+
+    private static long getLong(DataSnapshot snapshot, String key) {
+        Long value = snapshot.child(key).getValue(Long.class);
+        return value != null ? value : 0L;
+    }
+
+    private static <T> T await(Task<T> task) throws IOException {
+        try {
+            return Tasks.await(task, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw new IOException("Firebase request failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Firebase request timed out", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for Firebase", e);
+        }
+    }
+}
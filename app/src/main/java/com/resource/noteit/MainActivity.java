@@ -4,14 +4,20 @@ package com.resource.noteit;
 import android.content.Intent;
 // 🗃️ Used to store small persistent key-value data
 import android.content.SharedPreferences;
+import android.net.Uri;
 // 📦 Base class for activities that use the modern Android features
 import android.os.Bundle;
-// ⏳ Used to create delay before showing toast message if no results
-import android.os.Handler;
+// 🗑️ Toolbar menu for deleting selected notes
+import android.view.Menu;
+import android.view.MenuItem;
 // 🍞 Used to show short messages on screen
 import android.widget.Toast;
 
 // 🧭 Toolbar support for newer Android versions
+import android.app.AlertDialog;
+// 📂 Folder picker (Storage Access Framework) for importing notes
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.ActionBarDrawerToggle;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.app.AppCompatDelegate;
@@ -24,6 +30,9 @@ import androidx.constraintlayout.widget.ConstraintLayout;
 import androidx.core.view.GravityCompat;
 // 🗂️ To create a side drawer (navigation menu)
 import androidx.drawerlayout.widget.DrawerLayout;
+// 📄 Paging: loads notes page by page from Room
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingLiveData;
 // 🔃 Scrollable list view
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
@@ -33,7 +42,8 @@ import com.google.android.material.floatingactionbutton.FloatingActionButton;
 // 📜 View that shows navigation items in the drawer
 import com.google.android.material.navigation.NavigationView;
 
-import java.util.List;
+import java.util.Set;
+import java.util.function.Function; // Builds the toast text from an archive result
 
 /**
  * 📘 MainActivity
@@ -43,6 +53,7 @@ import java.util.List;
  * - RecyclerView to show notes
  * - FAB to add new notes
  * - Search functionality to filter notes
+ * - Importing a folder of text / Markdown files picked from shared storage
  * - Background preference loading 🔥
  */
 
@@ -58,17 +69,27 @@ public class MainActivity extends AppCompatActivity {
 
     // 📜 Note list and related objects
     RecyclerView recyclerView;
-    NoteAdapter adapter;
-    NoteDatabase db;
-    List<DataClass> notes;
+    NotePagingAdapter pagingAdapter; // 📄 Paged adapter for the normal (unfiltered) list
+    NoteAdapter adapter;             // 🔍 Adapter showing note and task search hits while a query is active
+    NoteRepository repository;       // 🗄️ All note database work goes through here, off the main thread
+    private boolean searchActive = false;     // 🔍 True while the search box has text
+    private String noMatchToastQuery;         // 🍞 Query the "not present" toast was last shown for
+
+    // 📂 Opens the system folder picker; the picked tree is imported in the background
+    private final ActivityResultLauncher<Uri> importFolderLauncher =
+            registerForActivityResult(new ActivityResultContracts.OpenDocumentTree(), this::importFolder);
+
+    // 💾 Lets the user create the backup file, then writes every note and task to it
+    private final ActivityResultLauncher<String> exportBackupLauncher =
+            registerForActivityResult(new ActivityResultContracts.CreateDocument("application/json"), this::exportBackup);
+
+    // 📥 Lets the user pick a backup file and merges it into the local notes and tasks
+    private final ActivityResultLauncher<String[]> importBackupLauncher =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::importBackup);
 
     final int CURRENT_ACTIVITY_ID = R.id.nav_header_title; // 🎯 ID to prevent reloading same page
     SearchView searchView; // 🔍 Search bar
 
-    // ⏳ Used for delaying toast if no result is found
-    private Handler handler = new Handler();
-    private Runnable searchTimeoutRunnable;
-
     /**
      * 🚀 onCreate - Initializes the activity and UI components
      */
@@ -100,7 +121,7 @@ public class MainActivity extends AppCompatActivity {
             if (!hasFocus) searchView.clearFocus(); // 🧹 Clear keyboard if lost focus
         });
 
-        // 🔁 Search logic with delayed toast
+        // 🔁 Search logic; NoteRepository debounces keystrokes and drops outdated queries
         searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
             @Override
             public boolean onQueryTextSubmit(String query) {
@@ -110,21 +131,12 @@ public class MainActivity extends AppCompatActivity {
 
             @Override
             public boolean onQueryTextChange(String newText) {
-                if (searchTimeoutRunnable != null) {
-                    handler.removeCallbacks(searchTimeoutRunnable); // ❌ Cancel previous timeout
-                }
-
-                if (adapter != null) {
-                    adapter.getFilter().filter(newText); // 🔍 Filter notes
+                if (newText == null || newText.trim().isEmpty()) {
+                    showPagedNotes(); // 📄 Back to the paged list
+                } else {
+                    searchActive = true;
+                    repository.search(newText); // 🔍 Runs once typing pauses, on the reader pool
                 }
-
-                searchTimeoutRunnable = () -> {
-                    if (adapter != null && !adapter.hasMatch()) {
-                        Toast.makeText(MainActivity.this, "Searched note is not present", Toast.LENGTH_SHORT).show(); // 🍞 Show toast
-                    }
-                };
-
-                handler.postDelayed(searchTimeoutRunnable, 1000); // ⏳ Delay toast for 1 sec
                 return true;
             }
         });
@@ -152,6 +164,12 @@ public class MainActivity extends AppCompatActivity {
                     startActivity(new Intent(this, Details.class));
                 } else if (id == R.id.nav_tasks) {
                     startActivity(new Intent(this, TasksActivity.class));
+                } else if (id == R.id.nav_import_folder) {
+                    importFolderLauncher.launch(null); // 📂 Let the user pick a folder
+                } else if (id == R.id.nav_export_backup) {
+                    exportBackupLauncher.launch("noteit-backup.json"); // 💾 Suggested file name
+                } else if (id == R.id.nav_import_backup) {
+                    importBackupLauncher.launch(new String[]{"application/json", "application/octet-stream"});
                 }
             }
             drawerLayout.closeDrawer(GravityCompat.START); // 📤 Close drawer
@@ -170,28 +188,204 @@ public class MainActivity extends AppCompatActivity {
         fab = findViewById(R.id.fab); // ➕ Add note button
         recyclerView = findViewById(R.id.recyclerView); // 🧾 Note list
 
-        db = NoteDatabase.getInstance(this); // 🗃️ Get DB instance
-        loadNotes(); // 🔄 Load saved notes
+        repository = NoteRepository.getInstance(this); // 🗄️ Get repository
+        loadNotes(); // 🔄 Start observing paged notes
+        repository.getSearchResults().observe(this, this::showSearchNotes); // 🔍 Observe search results
 
         fab.setOnClickListener(v -> startActivity(new Intent(MainActivity.this, UploadActivity.class))); // ➕ Go to Upload
     }
 
     /**
-     * 🔁 onResume - Refresh notes when coming back from other activities
+     * 🔄 onStart - Sync notes with the cloud in the background each time the home screen shows.
+     * Only notes changed since the last sync are transferred, and interrupted attachment uploads resume.
      */
     @Override
-    protected void onResume() {
-        super.onResume();
-        loadNotes(); // 🔄 Reload notes
+    protected void onStart() {
+        super.onStart();
+        NoteSyncEngine.getInstance(this).syncAsync(null);
+        AttachmentManager.getInstance(this).resumeUploads();
     }
 
     /**
-     * 📥 loadNotes - Load notes from the Room database and display them
+     * 📂 importFolder - Import the .txt / .md files of a folder the user picked.
+     * The picker grants read access to the tree, which covers this one import; nothing is kept.
+     */
+    private void importFolder(Uri tree) {
+        if (tree == null) return; // ❌ Picker cancelled
+        Toast.makeText(this, "Importing notes...", Toast.LENGTH_SHORT).show();
+        NoteDirectoryImporter.getInstance(this).importAsync(getContentResolver(), tree, new NoteDirectoryImporter.Listener() {
+            @Override
+            public void onProgress(int filesDone, int filesTotal) {
+            }
+
+            @Override
+            public void onFinished(NoteDirectoryImporter.Result result) {
+                String message = result.error != null
+                        ? "Could not read the folder"
+                        : result.notesImported + " note(s) imported";
+                Toast.makeText(MainActivity.this, message, Toast.LENGTH_SHORT).show(); // 🍞 Outcome
+            }
+        });
+    }
+
+    /**
+     * 💾 exportBackup - Write all notes and tasks to the document the user created.
+     */
+    private void exportBackup(Uri document) {
+        if (document == null) return; // ❌ Picker cancelled
+        Toast.makeText(this, "Exporting backup...", Toast.LENGTH_SHORT).show();
+        NoteArchive.getInstance(this).exportTo(getContentResolver(), document, backupListener(
+                result -> result.notes + " note(s) and " + result.tasks + " task(s) exported",
+                "Could not write the backup"));
+    }
+
+    /**
+     * 📥 importBackup - Merge a backup the user picked. Notes already here are only replaced by
+     * newer versions, so importing the same backup twice changes nothing.
+     */
+    private void importBackup(Uri document) {
+        if (document == null) return; // ❌ Picker cancelled
+        Toast.makeText(this, "Importing backup...", Toast.LENGTH_SHORT).show();
+        NoteArchive.getInstance(this).importFrom(getContentResolver(), document, backupListener(
+                result -> result.notesImported + " note(s) and " + result.tasks + " task(s) imported",
+                "Could not read the backup"));
+    }
+
+    /**
+     * Toasts the outcome of a backup export or import.
+     */
+    private NoteArchive.Listener backupListener(Function<NoteArchive.Result, String> done, String failed) {
+        return new NoteArchive.Listener() {
+            @Override
+            public void onProgress(int notesDone, int notesTotal) {
+            }
+
+            @Override
+            public void onFinished(NoteArchive.Result result) {
+                String message = result.error != null ? failed : done.apply(result);
+                Toast.makeText(MainActivity.this, message, Toast.LENGTH_SHORT).show(); // 🍞 Outcome
+            }
+        };
+    }
+
+    /**
+     * 📥 loadNotes - Attach the paged adapter and start observing notes page by page.
+     * Room invalidates the PagingSource whenever the "notes" table changes, so there is
+     * no need to reload anything in onResume after returning from UploadActivity.
      */
     private void loadNotes() {
-        notes = db.noteDao().getAllNotes(); // 📥 Fetch all notes
-        adapter = new NoteAdapter(this, notes, db.noteDao()); // 🔧 Set adapter
+        pagingAdapter = new NotePagingAdapter(this, repository); // 🔧 Paged adapter
+        adapter = new NoteAdapter(this, repository); // 🔍 Reused for every search result list
+        pagingAdapter.setOnSelectionChangedListener(count -> {
+            toolbar.setTitle(count > 0 ? count + " selected" : "NoteIt"); // 🎯 Selection count
+            invalidateOptionsMenu(); // 🗑️ Show or hide the delete action
+        });
         recyclerView.setLayoutManager(new LinearLayoutManager(this)); // 📊 Layout
-        recyclerView.setAdapter(adapter); // 📜 Attach adapter
+        recyclerView.setAdapter(pagingAdapter); // 📜 Attach adapter
+
+        PagingLiveData.cachedIn(repository.getPagedNotes(createPagingConfig()), getLifecycle())
+                .observe(this, pagingData -> pagingAdapter.submitData(getLifecycle(), pagingData));
+    }
+
+    /**
+     * 🗑️ onCreateOptionsMenu - Inflate the multi-select delete action
+     */
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.menu_notes_selection, menu);
+        return true;
+    }
+
+    /**
+     * 🗑️ onPrepareOptionsMenu - Only show delete while notes are selected
+     */
+    @Override
+    public boolean onPrepareOptionsMenu(Menu menu) {
+        MenuItem delete = menu.findItem(R.id.action_delete_selected);
+        delete.setVisible(pagingAdapter != null && !pagingAdapter.getSelectedIds().isEmpty());
+        return super.onPrepareOptionsMenu(menu);
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == R.id.action_delete_selected) {
+            confirmDeleteSelected();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    /**
+     * 🗑️ confirmDeleteSelected - Delete every selected note in a single transaction
+     */
+    private void confirmDeleteSelected() {
+        Set<Integer> ids = pagingAdapter.getSelectedIds();
+        if (ids.isEmpty()) return;
+
+        new AlertDialog.Builder(this)
+                .setTitle("Delete Notes")
+                .setMessage("Are you sure you want to delete " + ids.size() + " note(s)?")
+                .setIcon(R.drawable.ic_dialog_alert)
+                .setPositiveButton("Yes", (d, w) -> {
+                    repository.deleteByIds(ids, deleted ->
+                            Toast.makeText(this, deleted + " note(s) deleted", Toast.LENGTH_SHORT).show());
+                    pagingAdapter.clearSelection();
+                })
+                .setNegativeButton("No", null)
+                .show();
+    }
+
+    /**
+     * 📄 createPagingConfig - Paging settings for the note list.
+     * Page size, prefetch distance and placeholders are configured in res/values/integers.xml.
+     */
+    private PagingConfig createPagingConfig() {
+        return new PagingConfig(
+                getResources().getInteger(R.integer.notes_page_size),        // Rows per page
+                getResources().getInteger(R.integer.notes_prefetch_distance), // Prefetch distance
+                getResources().getBoolean(R.bool.notes_enable_placeholders)); // Placeholders
+    }
+
+    /**
+     * 📄 showPagedNotes - Swap back to the paged adapter when the search box is cleared.
+     * The search results are dropped so they do not linger after searching.
+     */
+    private void showPagedNotes() {
+        searchActive = false;
+        noMatchToastQuery = null;
+        repository.clearSearch(); // 🔕 Stop refreshing search results on table changes
+        if (recyclerView.getAdapter() != pagingAdapter) {
+            recyclerView.setAdapter(pagingAdapter);
+        }
+        adapter.submitList(null); // 🧹 Drop the old results
+    }
+
+    /**
+     * 🔍 showSearchNotes - Show ranked note and task matches delivered by NoteRepository.
+     * Matches note titles, bodies and task titles by word prefix, so "meet" finds "meeting";
+     * the matched words are highlighted.
+     * The same adapter is reused; it diffs each new result list on a background thread,
+     * so a refresh after an edit or delete only rebinds the rows that changed.
+     * Results that arrive after the search box was cleared, or for text no longer in it, are ignored.
+     * The hits and hasMatch come from the same result, so the "not present" toast always
+     * describes the list on screen; it is shown once per query, not again on every refresh.
+     *
+     * @param result Ranked matches for the latest query
+     */
+    private void showSearchNotes(UnifiedSearch.Result result) {
+        if (!searchActive || result == null) return;
+        if (!result.query.equals(searchView.getQuery().toString())) return; // ⏭️ Outdated query
+
+        adapter.submitList(result.hits); // 📥 Ranked notes and tasks
+        if (recyclerView.getAdapter() != adapter) {
+            recyclerView.setAdapter(adapter);
+        }
+
+        if (result.hasMatch) {
+            noMatchToastQuery = null;
+        } else if (!result.query.equals(noMatchToastQuery)) {
+            noMatchToastQuery = result.query;
+            Toast.makeText(this, "Searched note is not present", Toast.LENGTH_SHORT).show(); // 🍞 Show toast
+        }
     }
 }
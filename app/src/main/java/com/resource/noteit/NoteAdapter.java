@@ -2,79 +2,125 @@ package com.resource.noteit;
 
 // 📦 Android and Java imports used in this adapter class:
 // Context: Provides access to app-specific resources and classes, used here to start activities and inflate layouts.
-// Intent: Used to start UploadActivity with extra data for editing notes.
 // Color: Used to set dialog button text colors.
-// TextUtils: Utility class to handle text operations like checking if input is empty.
 // View and its sub-classes (ViewGroup, LayoutInflater, etc.): To inflate and manage views in RecyclerView items.
 // Widget classes (TextView, ImageView, AlertDialog): To display UI components and dialogs.
 // androidx.annotation.NonNull: For null safety annotations.
 // androidx.recyclerview.widget.RecyclerView: Base class for the adapter and view holder pattern.
-// java.util.List & ArrayList: To manage collections of note data.
-// android.widget.Filter & Filterable: To implement search filtering in the adapter.
+// ListAdapter: Computes the difference between result lists off the main thread.
+// java.util.List / Set: To manage collections of note data and deleted note ids.
+// ContextCompat: To read the search highlight color.
 
 import android.app.AlertDialog;                 // For creating confirmation dialog on delete
 import android.content.Context;                  // To access resources and start activities
-import android.content.Intent;                   // To start UploadActivity with data
+import android.content.Intent;                   // To open TasksActivity from a task hit
 import android.graphics.Color;                   // To set colors of dialog buttons
-import android.text.TextUtils;                   // To check if search query is empty
 import android.view.LayoutInflater;              // To inflate XML layout into View
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.Filter;                     // To filter notes based on search query
-import android.widget.Filterable;                 // Interface to add filtering capability
 import android.widget.ImageView;                  // To display delete icon button
 import android.widget.TextView;                   // To display note title, description and date/time
 
 import androidx.annotation.NonNull;               // For null safety in overridden methods
-import androidx.recyclerview.widget.RecyclerView; // RecyclerView adapter and view holder base classes
+import androidx.core.content.ContextCompat;       // Highlight color from resources
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ListAdapter;  // Diffs new result lists on a background thread
+import androidx.recyclerview.widget.RecyclerView; // RecyclerView view holder base class
 
-import java.util.ArrayList;                       // Dynamic array for full note list backup
+import java.util.ArrayList;                       // Copy of the current list for optimistic deletes
+import java.util.HashSet;                         // Ids of notes deleted from this list
 import java.util.List;                            // List interface for notes collection
+import java.util.Set;
 
 
 /**
  * NoteAdapter 📒📋
  *
- * This adapter is responsible for binding a list of DataClass note objects
- * to the RecyclerView in the UI. It displays each note's title, truncated description,
- * and timestamp. It also handles click events for editing and deleting notes.
+ * This adapter is responsible for binding a list of SearchHit objects (notes and tasks)
+ * to the RecyclerView in the UI. It displays each note's title, truncated preview,
+ * and timestamp, and each task's title. It also handles click events for editing and deleting notes.
  *
- * Additionally, it implements Filterable to allow searching notes by title.
+ * MainActivity uses it to show ranked search results from UnifiedSearch,
+ * while the normal list is shown by NotePagingAdapter.
  *
  * Used for:
- * - Displaying notes efficiently in a scrollable list
+ * - Displaying notes and tasks efficiently in a scrollable list
  * - Handling note deletion with confirmation dialog
- * - Navigating to edit screen with selected note data
- * - Filtering notes based on search queries in real-time
+ * - Navigating to edit screen with selected note data, or to the tasks screen
+ * - Highlighting the matched words with ranges computed by the search, not at bind time
+ *
+ * New result lists are handed to submitList(); ListAdapter computes the changed rows
+ * on a background thread, so a refresh after an edit rebinds only the rows that changed.
+ * Rows have stable ids (hit type and id), and deleting a note removes only its row.
+ * A search that started before the delete was saved may still list the note, so notes
+ * deleted here are dropped from every later list (Room never reuses note ids).
  */
-public class NoteAdapter extends RecyclerView.Adapter<NoteAdapter.NoteViewHolder> implements Filterable {
+public class NoteAdapter extends ListAdapter<SearchHit, NoteAdapter.NoteViewHolder> {
 
     // 🌍 Context of the calling activity or fragment for inflating views and starting intents
     Context context;
 
-    // 📝 Current list of notes displayed in the RecyclerView
-    List<DataClass> notes;
-
-    // 🔄 Full unfiltered list of notes used for restoring and filtering
-    List<DataClass> notesFull;
+    // 🗑️ Notes deleted from this list; kept out of results computed before the delete committed
+    private final Set<Integer> deletedNoteIds = new HashSet<>();
 
-    // 📋 DAO object to perform database operations like delete
-    NoteDao noteDao;
+    // 🖍️ Background color of matched words
+    private final int highlightColor;
 
-    // 🔍 Boolean flag to check if filter search has any matching notes
-    private boolean hasMatch = true;
+    // 🗄️ Repository to delete notes off the main thread
+    NoteRepository repository;
 
 
     /**
      * Constructor for NoteAdapter
-     * Initializes adapter with context, notes list and NoteDao
-     * Makes a copy of full notes list for filtering
+     * Initializes adapter with context and NoteRepository; rows arrive through submitList()
      */
-    public NoteAdapter(Context context, List<DataClass> notes, NoteDao dao) {
+    public NoteAdapter(Context context, NoteRepository repository) {
+        super(SearchHit.DIFF_CALLBACK);           // Hits are diffed on a background thread
         this.context = context;                   // Assign context from caller
-        this.notes = notes;                       // Assign the current filtered list
-        this.noteDao = dao;                       // Assign NoteDao for DB ops
-        this.notesFull = new ArrayList<>(notes); // Backup full list for search filtering
+        this.repository = repository;             // Assign repository for DB ops
+        this.highlightColor = ContextCompat.getColor(context, R.color.search_highlight);
+        setHasStableIds(true);                    // Rows keep their views across result lists
+    }
+
+
+    /**
+     * Replaces the displayed rows. The diff runs on a background thread and only the
+     * rows that were inserted, removed, moved or changed are notified.
+     *
+     * @param hits New list of hits (not modified afterwards by the caller)
+     */
+    @Override
+    public void submitList(@Nullable List<SearchHit> hits) {
+        super.submitList(withoutDeleted(hits));
+    }
+
+
+    @Override
+    public void submitList(@Nullable List<SearchHit> hits, @Nullable Runnable commitCallback) {
+        super.submitList(withoutDeleted(hits), commitCallback);
+    }
+
+
+    /**
+     * Drops notes deleted from this list. Returns hits itself when none of them is listed.
+     */
+    private List<SearchHit> withoutDeleted(List<SearchHit> hits) {
+        if (hits == null || deletedNoteIds.isEmpty()) return hits;
+        List<SearchHit> kept = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits) {
+            if (hit.type != SearchHit.TYPE_NOTE || !deletedNoteIds.contains(hit.id)) kept.add(hit);
+        }
+        return kept.size() == hits.size() ? hits : kept;
+    }
+
+
+    /**
+     * Stable row id: the hit type in the high bits, the note or task id in the low bits.
+     */
+    @Override
+    public long getItemId(int position) {
+        SearchHit hit = getItem(position);
+        return ((long) hit.type << 32) | (hit.id & 0xFFFFFFFFL);
     }
 
 
@@ -97,7 +143,7 @@ public class NoteAdapter extends RecyclerView.Adapter<NoteAdapter.NoteViewHolder
 
 
     /**
-     * Binds data from the note at the given position to the ViewHolder
+     * Binds data from the hit at the given position to the ViewHolder
      * Also sets click listeners for item click and delete button
      *
      * @param holder The ViewHolder to bind data to
@@ -105,22 +151,26 @@ public class NoteAdapter extends RecyclerView.Adapter<NoteAdapter.NoteViewHolder
      */
     @Override
     public void onBindViewHolder(@NonNull NoteViewHolder holder, int position) {
-        DataClass note = notes.get(position);      // Get the note object for this position
-
-        holder.title.setText(note.dataTitle);      // Set note title text in TextView
-        // Set truncated description (max 30 chars + ellipsis if longer)
-        holder.desc.setText(note.dataDesc.length() > 30 ? note.dataDesc.substring(0, 30) + "..." : note.dataDesc);
-        holder.dateTimeTextView.setText(note.getDateTime()); // Set the formatted date/time string
-
-        // Set click listener on whole item to open UploadActivity for editing
-        holder.itemView.setOnClickListener(v -> {
-            Intent i = new Intent(context, UploadActivity.class);  // Create intent to open UploadActivity
-            i.putExtra("edit", true);                               // Pass flag to indicate edit mode
-            i.putExtra("id", note.id);                              // Pass note ID for editing
-            i.putExtra("title", note.dataTitle);                    // Pass note title
-            i.putExtra("desc", note.dataDesc);                      // Pass note description
-            context.startActivity(i);                               // Start the edit activity
-        });
+        SearchHit note = getItem(position);        // Get the hit for this position
+
+        // 🖍️ Match ranges were found by the search; only spans are applied here
+        holder.title.setText(SearchHit.highlight(note.title, note.titleMatches, highlightColor));
+
+        if (note.type == SearchHit.TYPE_TASK) {
+            // ✅ Task hit: title only; tapping opens the tasks screen
+            holder.desc.setText(note.completed ? "✅ Completed task" : "📋 Task");
+            holder.dateTimeTextView.setText("");
+            holder.deleteBtn.setVisibility(View.GONE);
+            holder.itemView.setOnClickListener(v -> context.startActivity(new Intent(context, TasksActivity.class)));
+            return;
+        }
+
+        holder.desc.setText(SearchHit.highlight(note.preview, note.previewMatches, highlightColor)); // Preview already truncated (30 chars + ellipsis)
+        holder.dateTimeTextView.setText(NoteTimeFormatter.format(note.modifiedAt)); // Format the timestamp at bind time
+        holder.deleteBtn.setVisibility(View.VISIBLE);
+
+        // Set click listener on whole item to open UploadActivity for editing (full body loads only now)
+        holder.itemView.setOnClickListener(v -> UploadActivity.openNote(context, note.id));
 
         // Set click listener for delete button to show confirmation dialog
         holder.deleteBtn.setOnClickListener(v -> {
@@ -129,13 +179,10 @@ public class NoteAdapter extends RecyclerView.Adapter<NoteAdapter.NoteViewHolder
                     .setMessage("Are you sure you want to delete this note?") // Confirmation message
                     .setIcon(R.drawable.ic_dialog_alert)              // Warning icon
                     .setPositiveButton("Yes", (dialogInterface, which) -> {
-                        // If confirmed, delete note from database and update list & UI
-                        if (position >= 0 && position < notes.size()) {
-                            noteDao.delete(notes.get(position));       // Delete note via DAO
-                            notes.remove(position);                     // Remove note from list
-                            notifyItemRemoved(position);                // Notify adapter item removed
-                            notifyItemRangeChanged(position, notes.size()); // Notify range changed for smooth animation
-                        }
+                        // If confirmed, delete note from database and drop its row right away
+                        repository.deleteById(note.id);                 // Delete note on the writer thread
+                        deletedNoteIds.add(note.id);
+                        submitList(getCurrentList());                   // Only this row is removed by the diff
                     })
                     .setNegativeButton("No", null)                    // Cancel button does nothing
                     .create();
@@ -151,16 +198,6 @@ public class NoteAdapter extends RecyclerView.Adapter<NoteAdapter.NoteViewHolder
     }
 
 
-    /**
-     * Returns the current number of notes displayed in the RecyclerView
-     * @return Size of notes list
-     */
-    @Override
-    public int getItemCount() {
-        return notes.size();
-    }
-
-
     /**
      * Custom ViewHolder class holds references to the views for each note item
      * Improves performance by avoiding repeated findViewById calls
@@ -180,79 +217,4 @@ public class NoteAdapter extends RecyclerView.Adapter<NoteAdapter.NoteViewHolder
             deleteBtn = itemView.findViewById(R.id.deleteBtn);
         }
     }
-
-
-    /**
-     * Returns whether the current filter search query found any matching notes
-     * Useful to show "no results found" UI outside the adapter if needed
-     * @return true if filter has matches, false otherwise
-     */
-    public boolean hasMatch() {
-        return hasMatch;
-    }
-
-
-    /**
-     * Returns the Filter object used to perform search filtering on the notes list
-     * @return Filter instance for filtering notes by title
-     */
-    @Override
-    public Filter getFilter() {
-        return noteFilter;
-    }
-
-
-    /**
-     * Custom Filter implementation to search notes by their title
-     * Filters notesFull backup list and updates the displayed notes list accordingly
-     */
-    private Filter noteFilter = new Filter() {
-
-        /**
-         * Performs filtering operation on background thread
-         * @param constraint The search query string
-         * @return FilterResults containing filtered notes list
-         */
-        @Override
-        protected FilterResults performFiltering(CharSequence constraint) {
-            List<DataClass> filteredList = new ArrayList<>();
-
-            // If search query is empty or null, show full list
-            if (TextUtils.isEmpty(constraint)) {
-                filteredList.addAll(notesFull);
-                hasMatch = true;      // We have matches (all notes)
-            } else {
-                // Normalize query to lowercase and trimmed
-                String filterPattern = constraint.toString().toLowerCase().trim();
-
-                // Loop through full notes list and add matching notes to filteredList
-                for (DataClass note : notesFull) {
-                    if (note.dataTitle.toLowerCase().contains(filterPattern)) {
-                        filteredList.add(note);
-                    }
-                }
-
-                // Set hasMatch flag depending on if any notes matched
-                hasMatch = !filteredList.isEmpty();
-            }
-
-            // Wrap filtered list into FilterResults and return
-            FilterResults results = new FilterResults();
-            results.values = filteredList;
-            return results;
-        }
-
-        /**
-         * Publishes filtering results on the UI thread by updating adapter data
-         * @param constraint The search query string
-         * @param results The FilterResults returned by performFiltering
-         */
-        @Override
-        protected void publishResults(CharSequence constraint, FilterResults results) {
-            notes.clear();                             // Clear current displayed list
-            notes.addAll((List<DataClass>) results.values); // Add filtered results
-            notifyDataSetChanged();                    // Notify adapter to refresh RecyclerView
-        }
-    };
 }
-
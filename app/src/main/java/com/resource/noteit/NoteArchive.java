@@ -0,0 +1,420 @@
+package com.resource.noteit;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.gson.stream.JsonReader;   // Pull parser: reads one token at a time
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;   // Push writer: writes one token at a time
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+
+/**
+ * NoteArchive 💾📤📥
+ *
+ * Backup of all notes and tasks as a single JSON archive:
+ *
+ *   {"format": "noteit-archive", "version": 1, "exportedAt": ..., "noteCount": ...,
+ *    "notes": [{"syncId", "title", "body", "createdAt", "modifiedAt"}, ...],
+ *    "tasks": [{"id", "title", "completed", "group"}, ...]}
+ *
+ * Both directions stream through Gson's JsonWriter / JsonReader:
+ * - 📤 export walks the notes and tasks tables EXPORT_PAGE_SIZE rows at a time (keyset on id) and
+ *   writes each row as soon as it is read, so only one page is ever in memory
+ * - 📥 import parses one note at a time and commits them in transactions of at most
+ *   IMPORT_BATCH_NOTES notes / IMPORT_BATCH_CHARS characters, reporting progress after each one
+ *
+ * Neither side builds a list of all notes or the whole archive as a String, so 100k notes
+ * cost the same memory as 100. Importing the same archive twice changes nothing: notes are
+ * matched by syncId and only newer versions overwrite local ones, and tasks keep their id, so
+ * an archived task whose id is already stored is not added again.
+ */
+public class NoteArchive {
+
+    static final String FORMAT = "noteit-archive";
+    static final int VERSION = 1;
+
+    // 📤 Notes read per database page while exporting
+    static final int EXPORT_PAGE_SIZE = 50;
+
+    // 📥 Max notes, and max title + body characters, committed per import transaction
+    static final int IMPORT_BATCH_NOTES = 500;
+    static final long IMPORT_BATCH_CHARS = 1024 * 1024;
+
+    /**
+     * Receives progress and the outcome of an export or import on the main thread.
+     */
+    public interface Listener {
+        /**
+         * @param notesDone  Notes written or read so far
+         * @param notesTotal Total notes, or -1 if not known yet
+         */
+        void onProgress(int notesDone, int notesTotal);
+
+        void onFinished(Result result);
+    }
+
+    /**
+     * What one export or import did.
+     */
+    public static final class Result {
+        public int notes;         // Notes written (export) or read (import)
+        public int notesImported; // Notes inserted or updated by an import; older duplicates are skipped
+        public int tasks;         // Tasks written, or tasks added by an import
+        public IOException error; // Set if the archive could not be written or read; an import keeps the batches already committed
+    }
+
+    /**
+     * Where an archive is read from and merged into: NoteRepository and TaskRepository in the app.
+     * Calls block and are made on the archive thread.
+     */
+    interface Store {
+        int getNoteCount();
+
+        List<DataClass> getNotesAfter(int afterId, int limit);
+
+        int importNotes(List<DataClass> notes);
+
+        List<Task> getTasksAfter(int afterId, int limit);
+
+        int importTasks(List<Task> tasks);
+    }
+
+    private static volatile NoteArchive INSTANCE;
+
+    private final Store store;
+    private final ExecutorService archiveExecutor = Executors.newSingleThreadExecutor();
+    private final Executor mainExecutor;           // Runs listener callbacks
+
+    /**
+     * @param repository Notes
+     * @param tasks      Tasks
+     */
+    public NoteArchive(NoteRepository repository, TaskRepository tasks) {
+        this(new Store() {
+            @Override
+            public int getNoteCount() {
+                return repository.getNoteCount();
+            }
+
+            @Override
+            public List<DataClass> getNotesAfter(int afterId, int limit) {
+                return repository.getNotesAfter(afterId, limit);
+            }
+
+            @Override
+            public int importNotes(List<DataClass> notes) {
+                return repository.importNotes(notes);
+            }
+
+            @Override
+            public List<Task> getTasksAfter(int afterId, int limit) {
+                return tasks.getTasksAfter(afterId, limit);
+            }
+
+            @Override
+            public int importTasks(List<Task> batch) {
+                return tasks.importTasks(batch);
+            }
+        }, new Handler(Looper.getMainLooper())::post);
+    }
+
+    /**
+     * Package-private so JVM tests can round-trip archives through an in-memory store.
+     *
+     * @param store        Notes and tasks
+     * @param mainExecutor Runs listener callbacks (the main thread in the app)
+     */
+    NoteArchive(Store store, Executor mainExecutor) {
+        this.store = store;
+        this.mainExecutor = mainExecutor;
+    }
+
+    /**
+     * Returns the app-wide archive helper, creating it on first use.
+     *
+     * @param context Any context
+     * @return Shared NoteArchive
+     */
+    public static NoteArchive getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (NoteArchive.class) {
+                if (INSTANCE == null) {
+                    Context app = context.getApplicationContext();
+                    INSTANCE = new NoteArchive(NoteRepository.getInstance(app), TaskRepository.getInstance(app));
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Exports everything to a document (e.g. one created with ACTION_CREATE_DOCUMENT) in the background.
+     *
+     * @param resolver Content resolver used to open the document
+     * @param uri      Target document; overwritten
+     * @param listener Optional listener, called on the main thread
+     */
+    public void exportTo(ContentResolver resolver, Uri uri, Listener listener) {
+        archiveExecutor.execute(() -> {
+            Result result;
+            try (OutputStream out = resolver.openOutputStream(uri, "wt")) {
+                if (out == null) throw new IOException("Cannot open " + uri);
+                result = export(out, listener);
+            } catch (IOException e) {
+                result = new Result();
+                result.error = e;
+            }
+            postFinished(listener, result);
+        });
+    }
+
+    /**
+     * Imports a document (e.g. one picked with ACTION_OPEN_DOCUMENT) in the background.
+     *
+     * @param resolver Content resolver used to open the document
+     * @param uri      Archive written by exportTo()
+     * @param listener Optional listener, called on the main thread
+     */
+    public void importFrom(ContentResolver resolver, Uri uri, Listener listener) {
+        archiveExecutor.execute(() -> {
+            Result result;
+            try (InputStream in = resolver.openInputStream(uri)) {
+                if (in == null) throw new IOException("Cannot open " + uri);
+                result = importArchive(in, listener);
+            } catch (IOException e) {
+                result = new Result();
+                result.error = e;
+            }
+            postFinished(listener, result);
+        });
+    }
+
+    // ---------------------------------------------------------------- 📤 Export
+
+    /**
+     * Writes the archive to a stream. Blocks; call it off the main thread.
+     *
+     * @param out      Target; flushed but not closed
+     * @param listener Optional progress listener, called on the main thread
+     * @return What was written
+     * @throws IOException If the stream cannot be written
+     */
+    public Result export(OutputStream out, Listener listener) throws IOException {
+        Result result = new Result();
+        int total = store.getNoteCount();             // Only for progress; notes added meanwhile are still written
+
+        JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        writer.beginObject();
+        writer.name("format").value(FORMAT);
+        writer.name("version").value(VERSION);
+        writer.name("exportedAt").value(System.currentTimeMillis());
+        writer.name("noteCount").value(total);
+
+        writer.name("notes").beginArray();
+        int afterId = 0;
+        List<DataClass> page;
+        do {
+            page = store.getNotesAfter(afterId, EXPORT_PAGE_SIZE);
+            for (int i = 0; i < page.size(); i++) {
+                DataClass note = page.get(i);
+                page.set(i, null);                        // Let a large body go as soon as it is written
+                writer.beginObject();
+                writer.name("syncId").value(note.syncId);
+                writer.name("title").value(note.dataTitle);
+                writer.name("body").value(note.getBody());
+                writer.name("createdAt").value(note.createdAt);
+                writer.name("modifiedAt").value(note.modifiedAt);
+                writer.endObject();
+                afterId = note.id;
+                result.notes++;
+            }
+            postProgress(listener, result.notes, total);
+        } while (page.size() == EXPORT_PAGE_SIZE);
+        writer.endArray();
+
+        writer.name("tasks").beginArray();
+        int afterTaskId = 0;
+        List<Task> taskPage;
+        do {
+            taskPage = store.getTasksAfter(afterTaskId, EXPORT_PAGE_SIZE);
+            for (Task task : taskPage) {
+                afterTaskId = task.getId();
+                if (task.getTitle() == null) continue;
+                writer.beginObject();
+                writer.name("id").value(task.getId());
+                writer.name("title").value(task.getTitle());
+                writer.name("completed").value(task.isCompleted());
+                writer.name("group").value(task.getGroup());
+                writer.endObject();
+                result.tasks++;
+            }
+        } while (taskPage.size() == EXPORT_PAGE_SIZE);
+        writer.endArray();
+
+        writer.endObject();
+        writer.flush();
+        return result;
+    }
+
+    // ---------------------------------------------------------------- 📥 Import
+
+    /**
+     * Reads an archive from a stream and merges it into the local notes and tasks.
+     * Blocks; call it off the main thread.
+     *
+     * @param in       Archive written by export(); not closed
+     * @param listener Optional progress listener, called on the main thread
+     * @return What was imported
+     * @throws IOException If the stream cannot be read or is not an archive
+     */
+    public Result importArchive(InputStream in, Listener listener) throws IOException {
+        Result result = new Result();
+        int total = -1;
+        boolean formatSeen = false;
+
+        JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "format":
+                    if (!FORMAT.equals(reader.nextString())) throw new IOException("Not a NoteIt archive");
+                    formatSeen = true;
+                    break;
+                case "version":
+                    int version = reader.nextInt();
+                    if (version > VERSION) throw new IOException("Archive version " + version + " is not supported");
+                    break;
+                case "noteCount":
+                    total = reader.nextInt();
+                    break;
+                case "notes":
+                    if (!formatSeen) throw new IOException("Not a NoteIt archive");
+                    importNotes(reader, result, total, listener);
+                    break;
+                case "tasks":
+                    if (!formatSeen) throw new IOException("Not a NoteIt archive");
+                    result.tasks = importTasks(reader);
+                    break;
+                default:
+                    reader.skipValue();                   // Fields added by newer versions
+            }
+        }
+        reader.endObject();
+        return result;
+    }
+
+    private void importNotes(JsonReader reader, Result result, int total, Listener listener) throws IOException {
+        List<DataClass> batch = new ArrayList<>();
+        long chars = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            DataClass note = readNote(reader);
+            batch.add(note);
+            chars += (note.dataTitle != null ? note.dataTitle.length() : 0) + note.dataDesc.length();
+            result.notes++;
+            if (batch.size() >= IMPORT_BATCH_NOTES || chars >= IMPORT_BATCH_CHARS) {
+                result.notesImported += store.importNotes(batch);
+                postProgress(listener, result.notes, total);
+                batch = new ArrayList<>();
+                chars = 0;
+            }
+        }
+        reader.endArray();
+        if (!batch.isEmpty()) {
+            result.notesImported += store.importNotes(batch);
+            postProgress(listener, result.notes, total);
+        }
+    }
+
+    private static DataClass readNote(JsonReader reader) throws IOException {
+        DataClass note = new DataClass(null, "", 0);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "syncId":     note.syncId = reader.nextString(); break;
+                case "title":      note.dataTitle = reader.nextString(); break;
+                case "body":       note.dataDesc = reader.nextString(); break;
+                case "createdAt":  note.createdAt = reader.nextLong(); break;
+                case "modifiedAt": note.modifiedAt = reader.nextLong(); break;
+                default:           reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (note.syncId == null) note.syncId = UUID.randomUUID().toString();
+        return note;
+    }
+
+    /**
+     * Adds the archived tasks that are not stored yet (see TaskRepository.importTasks()),
+     * in batches of IMPORT_BATCH_NOTES rows.
+     */
+    private int importTasks(JsonReader reader) throws IOException {
+        int added = 0;
+        List<Task> batch = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            batch.add(readTask(reader));
+            if (batch.size() >= IMPORT_BATCH_NOTES) {
+                added += store.importTasks(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        reader.endArray();
+        if (!batch.isEmpty()) added += store.importTasks(batch);
+        return added;
+    }
+
+    private static Task readTask(JsonReader reader) throws IOException {
+        Task task = new Task(null);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id":        task.setId(reader.nextInt()); break;
+                case "title":     task.setTitle(reader.nextString()); break;
+                case "completed": task.setCompleted(reader.nextBoolean()); break;
+                case "group":     task.setGroup(reader.nextString()); break;
+                default:          reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return task;
+    }
+
+    // ---------------------------------------------------------------- 📣 Callbacks
+
+    private void postProgress(Listener listener, int done, int total) {
+        if (listener != null) mainExecutor.execute(() -> listener.onProgress(done, total));
+    }
+
+    private void postFinished(Listener listener, Result result) {
+        if (listener != null) mainExecutor.execute(() -> listener.onFinished(result));
+    }
+}
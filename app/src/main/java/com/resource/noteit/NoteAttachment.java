@@ -0,0 +1,45 @@
+package com.resource.noteit;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * 📎 NoteAttachment links a note to a file in the AttachmentStore.
+ * The file itself is stored once per content hash, so the same image attached to many notes
+ * (or twice to one note) takes the space of one copy. Rows are deleted with their note
+ * (ON DELETE CASCADE); unreferenced blobs are removed by AttachmentManager.collectGarbage().
+ */
+@Entity(tableName = "note_attachments",
+        indices = {@Index("noteId"), @Index("hash")},
+        foreignKeys = @ForeignKey(entity = DataClass.class,
+                parentColumns = "id",
+                childColumns = "noteId",
+                onDelete = ForeignKey.CASCADE))
+public class NoteAttachment {
+
+    @PrimaryKey(autoGenerate = true)
+    public int id; // 🆔 Attachment id
+
+    public int noteId; // 📋 Note the file is attached to
+
+    @NonNull
+    public String hash; // 🔑 SHA-256 of the content (hex), the blob's name on disk and in storage
+
+    public String fileName; // 🏷️ Original display name
+    public String mimeType; // 🖼️ Content type, e.g. image/jpeg
+    public long size; // 📏 Size in bytes
+    public long createdAt; // 🕒 When it was attached (epoch millis)
+
+    public NoteAttachment(int noteId, @NonNull String hash, String fileName, String mimeType,
+                          long size, long createdAt) {
+        this.noteId = noteId;
+        this.hash = hash;
+        this.fileName = fileName;
+        this.mimeType = mimeType;
+        this.size = size;
+        this.createdAt = createdAt;
+    }
+}
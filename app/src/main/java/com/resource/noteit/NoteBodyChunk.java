@@ -0,0 +1,32 @@
+package com.resource.noteit;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+
+/**
+ * 📦 NoteBodyChunk is one piece of an out-of-row note body.
+ * NoteBodyStore Deflate-compresses a large body and splits the compressed bytes into chunks of
+ * at most NoteBodyStore.CHUNK_BYTES, so no single row comes near the 2 MB CursorWindow limit.
+ * Chunks are deleted automatically with their note (ON DELETE CASCADE).
+ */
+@Entity(tableName = "note_body_chunks",
+        primaryKeys = {"noteId", "chunkIndex"},
+        foreignKeys = @ForeignKey(entity = DataClass.class,
+                parentColumns = "id",
+                childColumns = "noteId",
+                onDelete = ForeignKey.CASCADE))
+public class NoteBodyChunk {
+
+    public int noteId; // 🆔 Note this chunk belongs to
+    public int chunkIndex; // 🔢 Position of the chunk in the compressed stream, starting at 0
+
+    @NonNull
+    public byte[] data; // 🗜️ Deflate-compressed bytes
+
+    public NoteBodyChunk(int noteId, int chunkIndex, @NonNull byte[] data) {
+        this.noteId = noteId;
+        this.chunkIndex = chunkIndex;
+        this.data = data;
+    }
+}
@@ -0,0 +1,41 @@
+package com.resource.noteit;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+/**
+ * NoteBodyDao 🗃️📦
+ *
+ * Access to the "note_body_chunks" table used by NoteBodyStore.
+ * Chunks are read one at a time so a large body is streamed, never loaded in a single cursor row set.
+ */
+@Dao
+public interface NoteBodyDao {
+
+    /**
+     * Inserts one compressed chunk.
+     *
+     * @param chunk Chunk to insert
+     */
+    @Insert
+    void insertChunk(NoteBodyChunk chunk);
+
+    /**
+     * Reads one compressed chunk.
+     *
+     * @param noteId     Note id
+     * @param chunkIndex Chunk position, starting at 0
+     * @return The chunk bytes, or null past the last chunk
+     */
+    @Query("SELECT data FROM note_body_chunks WHERE noteId = :noteId AND chunkIndex = :chunkIndex")
+    byte[] getChunk(int noteId, int chunkIndex);
+
+    /**
+     * Deletes every chunk of a note (before rewriting its body, or when it moves back inline).
+     *
+     * @param noteId Note id
+     */
+    @Query("DELETE FROM note_body_chunks WHERE noteId = :noteId")
+    void deleteChunks(int noteId);
+}
@@ -0,0 +1,227 @@
+package com.resource.noteit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+
+/**
+ * NoteBodyStore 📦🗜️
+ *
+ * Stores very large note bodies out of the "notes" row.
+ * Bodies longer than the inline threshold are Deflate-compressed and written as a sequence of
+ * NoteBodyChunk rows; the note keeps only a short inline preview in dataDesc so the list,
+ * the row projection and the FTS index stay small.
+ *
+ * Both directions stream: writing compresses straight into chunk-sized rows, and reading
+ * inflates chunk by chunk, so neither the compressed blob nor a single huge cursor row is needed.
+ *
+ * Writes must run on the writer thread inside a transaction together with the note row.
+ */
+public class NoteBodyStore {
+
+    // 🧩 Max compressed bytes per chunk row, far below the 2 MB CursorWindow
+    static final int CHUNK_BYTES = 256 * 1024;
+
+    // 👀 Characters of an out-of-row body kept inline in dataDesc (list preview and FTS)
+    static final int INLINE_PREVIEW_CHARS = 1000;
+
+    private final NoteBodyDao bodyDao;
+    private final int inlineThreshold;
+
+    /**
+     * @param bodyDao         DAO for the chunk table
+     * @param inlineThreshold Bodies longer than this many characters are stored out of row
+     */
+    public NoteBodyStore(NoteBodyDao bodyDao, int inlineThreshold) {
+        this.bodyDao = bodyDao;
+        this.inlineThreshold = inlineThreshold;
+    }
+
+    /**
+     * @param body Full body text
+     * @return true if the body is too large to keep inline
+     */
+    public boolean isExternal(String body) {
+        return body != null && body.length() > inlineThreshold;
+    }
+
+    /**
+     * Prepares a note for writing: if its body is too large, dataDesc is replaced by the inline
+     * preview, bodyExternal is set, and the full body is returned so it can be written with
+     * write() once the note id is known.
+     *
+     * @param note Note about to be inserted or updated
+     * @return The full body to store out of row, or null if the body stays inline
+     */
+    public String prepare(DataClass note) {
+        String body = note.getBody();
+        if (!isExternal(body)) {
+            note.bodyExternal = false;
+            note.dataDesc = body;
+            return null;
+        }
+        note.bodyExternal = true;
+        note.dataDesc = preview(body);
+        note.cacheFullBody(body);
+        return body;
+    }
+
+    /**
+     * Inline preview kept in dataDesc for an out-of-row body.
+     */
+    public static String preview(String body) {
+        return body.length() <= INLINE_PREVIEW_CHARS ? body : body.substring(0, INLINE_PREVIEW_CHARS);
+    }
+
+    /**
+     * Replaces the stored chunks of a note with the compressed body.
+     * Call inside the same transaction as the note row write.
+     *
+     * @param noteId Note id
+     * @param body   Full body text
+     */
+    public void write(int noteId, String body) {
+        bodyDao.deleteChunks(noteId);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (Writer writer = new OutputStreamWriter(
+                new DeflaterOutputStream(new ChunkOutputStream(noteId), deflater), StandardCharsets.UTF_8)) {
+            writer.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store body of note " + noteId, e);
+        } finally {
+            deflater.end(); // Free native zlib memory right away
+        }
+    }
+
+    /**
+     * Removes the out-of-row body of a note (when it shrinks back under the threshold).
+     * Deleting the note itself removes its chunks through ON DELETE CASCADE.
+     *
+     * @param noteId Note id
+     */
+    public void clear(int noteId) {
+        bodyDao.deleteChunks(noteId);
+    }
+
+    /**
+     * Reads and inflates the full body of a note, one chunk at a time.
+     * Runs database queries, so call it off the main thread, and inside the same transaction
+     * as the read of the note row: a write between the two queries could otherwise replace or
+     * clear the chunks halfway through the stream.
+     *
+     * @param noteId Note id
+     * @return The full body text
+     * @throws UncheckedIOException If the chunks are missing or corrupt
+     */
+    public String read(int noteId) {
+        StringBuilder body = new StringBuilder();
+        char[] buffer = new char[8192];
+        try (Reader reader = new InputStreamReader(
+                new InflaterInputStream(new ChunkInputStream(noteId)), StandardCharsets.UTF_8)) {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                body.append(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read body of note " + noteId, e);
+        }
+        return body.toString();
+    }
+
+    /**
+     * Buffers compressed bytes and inserts a chunk row every CHUNK_BYTES.
+     */
+    private final class ChunkOutputStream extends OutputStream {
+        private final int noteId;
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream(CHUNK_BYTES);
+        private int chunkIndex = 0;
+
+        ChunkOutputStream(int noteId) {
+            this.noteId = noteId;
+        }
+
+        @Override
+        public void write(int b) {
+            pending.write(b);
+            if (pending.size() >= CHUNK_BYTES) flushChunk();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            while (len > 0) {
+                int n = Math.min(len, CHUNK_BYTES - pending.size());
+                pending.write(b, off, n);
+                off += n;
+                len -= n;
+                if (pending.size() >= CHUNK_BYTES) flushChunk();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (pending.size() > 0) flushChunk();
+        }
+
+        private void flushChunk() {
+            bodyDao.insertChunk(new NoteBodyChunk(noteId, chunkIndex++, pending.toByteArray()));
+            pending.reset();
+        }
+    }
+
+    /**
+     * Streams the compressed bytes of a note by querying its chunks in order.
+     */
+    private final class ChunkInputStream extends InputStream {
+        private final int noteId;
+        private byte[] current = new byte[0];
+        private int position = 0;
+        private int nextChunk = 0;
+        private boolean finished = false;
+
+        ChunkInputStream(int noteId) {
+            this.noteId = noteId;
+        }
+
+        @Override
+        public int read() {
+            if (!ensureData()) return -1;
+            return current[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) return 0;
+            if (!ensureData()) return -1;
+            int n = Math.min(len, current.length - position);
+            System.arraycopy(current, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        private boolean ensureData() {
+            while (position >= current.length) {
+                if (finished) return false;
+                byte[] chunk = bodyDao.getChunk(noteId, nextChunk++);
+                if (chunk == null) {
+                    finished = true;
+                    current = new byte[0];
+                    return false;
+                }
+                current = chunk;
+                position = 0;
+            }
+            return true;
+        }
+    }
+}
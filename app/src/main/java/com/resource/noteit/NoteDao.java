@@ -5,12 +5,15 @@ package com.resource.noteit;
 // @Insert, @Update, @Delete: Annotations for insert, update, and delete queries automatically handled by Room
 // @Query: Allows writing custom SQL queries to fetch data from the database
 
+import androidx.paging.PagingSource; // Paged result type for large note lists
 import androidx.room.Dao;          // Marks the interface as DAO for Room database operations
 import androidx.room.Delete;       // Used to annotate delete operations
 import androidx.room.Insert;       // Used to annotate insert operations
 import androidx.room.Query;        // Used to write custom SQL queries
+import androidx.room.Transaction;  // Runs a default method inside a single database transaction
 import androidx.room.Update;       // Used to annotate update operations
 
+import java.util.ArrayList;        // For building id chunks in bulk deletes
 import java.util.List;             // For returning a list of DataClass objects
 
 
@@ -30,11 +33,23 @@ import java.util.List;             // For returning a list of DataClass objects
  * - Insert new notes
  * - Update existing notes
  * - Delete notes
- * - Fetch all notes
+ * - Insert, update and delete many notes in a single transaction
+ * - Fetch all notes, newest first, or notes modified in a time range
+ * - Page through notes for large lists, or walk all of them in id order (backups)
+ * - Full-text search note titles and bodies
  */
 @Dao
 public interface NoteDao {
 
+    // Max ids bound per "IN (...)" statement; stays under SQLite's 999 host-parameter limit on older devices
+    int MAX_BIND_IDS = 900;
+
+    // ✂️ Columns of a NoteRow: the body is cut to NoteRow.PREVIEW_LENGTH characters inside SQLite
+    String ROW_COLUMNS = "notes.id, notes.dataTitle, notes.modifiedAt, "
+            + "CASE WHEN length(notes.dataDesc) > " + NoteRow.PREVIEW_LENGTH
+            + " THEN substr(notes.dataDesc, 1, " + NoteRow.PREVIEW_LENGTH + ") || '...' "
+            + "ELSE notes.dataDesc END AS preview";
+
     /**
      * Updates an existing note in the database.
      * The note object must have a valid primary key to identify which record to update.
@@ -50,9 +65,10 @@ public interface NoteDao {
      * If a conflict occurs (e.g., same primary key), Room will throw an error unless conflict strategy is defined.
      *
      * @param note The new DataClass note to be inserted.
+     * @return The row id generated for the new note.
      */
     @Insert
-    void insert(DataClass note);   // Automatically generates SQL INSERT statement
+    long insert(DataClass note);   // Automatically generates SQL INSERT statement
 
 
     /**
@@ -66,11 +82,182 @@ public interface NoteDao {
 
 
     /**
-     * Retrieves all notes from the "notes" table.
-     * This query returns a list of all notes currently stored in the database.
+     * Inserts many notes in one transaction (one journal commit instead of one per note).
+     *
+     * @param notes Notes to insert.
+     * @return Generated row ids, in the same order as the input.
+     */
+    @Insert
+    long[] insertAll(List<DataClass> notes);   // Single-transaction bulk INSERT
+
+
+    /**
+     * Varargs variant of insertAll(List) for a handful of notes.
+     *
+     * @param notes Notes to insert.
+     * @return Generated row ids, in the same order as the input.
+     */
+    @Insert
+    long[] insertAll(DataClass... notes);
+
+
+    /**
+     * Updates many notes in one transaction, matched by primary key.
+     *
+     * @param notes Notes with valid ids and updated fields.
+     * @return Number of rows updated.
+     */
+    @Update
+    int updateAll(List<DataClass> notes);      // Single-transaction bulk UPDATE
+
+
+    /**
+     * Deletes many notes in one transaction, matched by primary key.
+     *
+     * @param notes Notes to delete.
+     * @return Number of rows deleted.
+     */
+    @Delete
+    int deleteAll(List<DataClass> notes);      // Single-transaction bulk DELETE
+
+
+    /**
+     * Varargs variant of deleteAll(List).
+     *
+     * @param notes Notes to delete.
+     * @return Number of rows deleted.
+     */
+    @Delete
+    int deleteAll(DataClass... notes);
+
+
+    /**
+     * Deletes one chunk of notes by id. Callers should use deleteByIds(), which splits
+     * large id lists so each statement stays under the SQLite bind-parameter limit.
+     *
+     * @param ids At most MAX_BIND_IDS note ids.
+     * @return Number of rows deleted.
+     */
+    @Query("DELETE FROM notes WHERE id IN (:ids)")
+    int deleteByIdChunk(List<Integer> ids);
+
+
+    /**
+     * Deletes any number of notes by id in a single transaction.
+     * The ids are deleted in chunks of MAX_BIND_IDS, but all chunks commit together.
+     *
+     * @param ids Note ids to delete.
+     * @return Number of rows deleted.
+     */
+    @Transaction
+    default int deleteByIds(List<Integer> ids) {
+        int deleted = 0;
+        for (int start = 0; start < ids.size(); start += MAX_BIND_IDS) {
+            int end = Math.min(start + MAX_BIND_IDS, ids.size());
+            deleted += deleteByIdChunk(new ArrayList<>(ids.subList(start, end)));
+        }
+        return deleted;
+    }
+
+
+    /**
+     * Retrieves all notes from the "notes" table, most recently modified first.
      *
      * @return List<DataClass> A list of all notes.
      */
-    @Query("SELECT * FROM notes")
+    @Query("SELECT * FROM notes ORDER BY modifiedAt DESC, id DESC")
     List<DataClass> getAllNotes(); // Custom query to fetch all notes from the table
+
+
+    /**
+     * Retrieves the notes modified within a time range, most recent first.
+     * Served by the index on modifiedAt.
+     *
+     * @param fromMillis Inclusive start of the range (epoch millis)
+     * @param toMillis   Exclusive end of the range (epoch millis)
+     * @return Notes modified in [fromMillis, toMillis)
+     */
+    @Query("SELECT * FROM notes WHERE modifiedAt >= :fromMillis AND modifiedAt < :toMillis " +
+            "ORDER BY modifiedAt DESC, id DESC")
+    List<DataClass> getNotesModifiedBetween(long fromMillis, long toMillis);
+
+
+    /**
+     * Retrieves the next page of notes in id order, for walking the whole table without OFFSET.
+     * Each page continues after the last id of the previous one, so every page is an index seek.
+     *
+     * @param afterId Last id of the previous page (0 for the first page)
+     * @param limit   Max notes per page
+     * @return Up to limit notes with an id greater than afterId
+     */
+    @Query("SELECT * FROM notes WHERE id > :afterId ORDER BY id LIMIT :limit")
+    List<DataClass> getNotesAfter(int afterId, int limit);
+
+
+    /**
+     * @return Number of notes in the database
+     */
+    @Query("SELECT COUNT(*) FROM notes")
+    int getNoteCount();
+
+
+    /**
+     * Updates the title and body of a note and bumps its modified time,
+     * leaving createdAt untouched.
+     *
+     * @param id           Id of the note to update
+     * @param title        New title
+     * @param desc         New inline body (or inline preview when bodyExternal is true)
+     * @param bodyExternal True if the full body is stored out of row by NoteBodyStore
+     * @param modifiedAt   New modified time (epoch millis)
+     * @return Number of rows updated (0 if the note no longer exists)
+     */
+    @Query("UPDATE notes SET dataTitle = :title, dataDesc = :desc, bodyExternal = :bodyExternal, "
+            + "modifiedAt = :modifiedAt WHERE id = :id")
+    int updateContent(int id, String title, String desc, boolean bodyExternal, long modifiedAt);
+
+
+    /**
+     * Retrieves one full note, including its body. Used when a note is opened.
+     *
+     * @param id Note id
+     * @return The note, or null if it no longer exists
+     */
+    @Query("SELECT * FROM notes WHERE id = :id")
+    DataClass getNoteById(int id);
+
+
+    /**
+     * Deletes one note by id.
+     *
+     * @param id Note id
+     * @return Number of rows deleted
+     */
+    @Query("DELETE FROM notes WHERE id = :id")
+    int deleteById(int id);
+
+
+    /**
+     * Retrieves list rows page by page for the home screen list.
+     * Only the id, title, a SQL-side preview and the modified time are read, never the full body.
+     * Room generates a LimitOffset PagingSource that only reads the rows near the viewport
+     * and invalidates itself automatically whenever the "notes" table changes.
+     *
+     * @return PagingSource keyed by row offset, yielding rows most recently modified first.
+     */
+    @Query("SELECT " + ROW_COLUMNS + " FROM notes ORDER BY modifiedAt DESC, id DESC")
+    PagingSource<Integer, NoteRow> getNoteRowsPaged(); // Paged query used by NotePagingAdapter
+
+
+    /**
+     * Full-text search over note titles and bodies using the "notes_fts" FTS4 index.
+     * Returns list rows (no full body), each with matchinfo(notes_fts, 'pcx') so NoteSearch can rank them.
+     * Use NoteSearch.search() to build a safe prefix query and get ranked results.
+     *
+     * @param matchQuery FTS4 MATCH expression, e.g. "meet* note*"
+     * @return Unranked matching rows with their matchinfo blobs
+     */
+    @Query("SELECT " + ROW_COLUMNS + ", matchinfo(notes_fts, 'pcx') AS matchInfo FROM notes " +
+            "JOIN notes_fts ON notes.id = notes_fts.rowid WHERE notes_fts MATCH :matchQuery")
+    List<NoteSearchResult> searchNotes(String matchQuery); // Backing query for NoteSearch
 }
@@ -11,6 +11,9 @@ import androidx.room.Database;                 // Marks this class as a Room dat
 import androidx.room.Room;                     // Provides database builder to create Room database instance
 import androidx.room.RoomDatabase;             // Base class for Room database to extend
 
+import java.util.concurrent.ExecutorService;   // Background executors for database work
+import java.util.concurrent.Executors;         // Factory for the reader pool and writer thread
+
 
 /**
  * NoteDatabase 🏛️📚
@@ -23,22 +26,51 @@ import androidx.room.RoomDatabase;             // Base class for Room database t
  * - Provides a singleton instance to ensure only one database connection exists throughout the app lifecycle
  * - Provides access to DAO interfaces to perform database operations
  */
-@Database(entities = {DataClass.class}, version = 2)  // Defines entities and database version for migration
+@Database(entities = {DataClass.class, NoteFts.class, NoteBodyChunk.class, NoteRevision.class,
+        NoteOutboxEntry.class, NoteAttachment.class, AttachmentUpload.class, Task.class}, version = 10)  // Defines entities and database version for migration
 public abstract class NoteDatabase extends RoomDatabase {
 
     // Abstract method to get the DAO interface for notes
     public abstract NoteDao noteDao();  // Room generates implementation to provide DAO methods
 
+    // DAO for the compressed out-of-row note bodies (see NoteBodyStore)
+    public abstract NoteBodyDao noteBodyDao();
+
+    // DAO for the delta-encoded revision history (see NoteHistory)
+    public abstract NoteRevisionDao noteRevisionDao();
+
+    // DAO for the sync outbox and for applying remote changes (see NoteOutbox, NoteSyncEngine)
+    public abstract NoteSyncDao noteSyncDao();
+
+    // DAO for note attachments and their pending uploads (see AttachmentManager)
+    public abstract AttachmentDao attachmentDao();
+
+    // DAO for tasks, one row per task (see TaskRepository)
+    public abstract TaskDao taskDao();
+
     // Singleton instance of NoteDatabase to avoid multiple instances and resource leaks
     private static NoteDatabase INSTANCE;
 
+    // Number of threads in the reader pool used for queries and observable (LiveData/Paging) reads
+    private static final int READER_THREADS = 4;
+
+    // ✍️ Single writer thread: every insert/update/delete is serialized here, off the main thread
+    static final ExecutorService databaseWriteExecutor = Executors.newSingleThreadExecutor();
+
+    // 📖 Reader pool: Room runs LiveData and PagingSource queries here, NoteRepository runs searches here
+    static final ExecutorService databaseReadExecutor = Executors.newFixedThreadPool(READER_THREADS);
+
     /**
      * Returns the singleton instance of NoteDatabase.
      * Uses synchronized method to ensure thread-safety while creating the instance.
      * Creates the database using Room's databaseBuilder with:
      * - application context to avoid leaks
-     * - destructive migration fallback to reset DB if no migration provided
-     * - allowMainThreadQueries() for simplicity (not recommended for production)
+     * - the schema migrations in NoteMigrations, so upgrades keep existing notes
+     * - destructive fallback only from version 1, which predates any migration
+     * - the shared reader pool as the query executor for observable queries
+     *
+     * Main-thread queries are not allowed: go through NoteRepository, which runs
+     * reads on databaseReadExecutor and writes on databaseWriteExecutor.
      *
      * @param context Application context used for database creation
      * @return NoteDatabase Singleton instance of the Room database
@@ -49,8 +81,9 @@ public abstract class NoteDatabase extends RoomDatabase {
                             context.getApplicationContext(),  // Use application context to prevent leaks
                             NoteDatabase.class,               // Specify the Room database class
                             "note_db")                       // Database name
-                    .allowMainThreadQueries()        // Allows DB queries on main thread (avoid in production)
-                    .fallbackToDestructiveMigration() // Recreates DB if migration strategy not specified on version change
+                    .setQueryExecutor(databaseReadExecutor) // Observable queries run on the reader pool
+                    .addMigrations(NoteMigrations.ALL) // Real migrations from version 2 onwards
+                    .fallbackToDestructiveMigrationFrom(1) // Version 1 had no migration path
                     .build();                       // Build the Room database instance
         }
         return INSTANCE;  // Return the singleton instance
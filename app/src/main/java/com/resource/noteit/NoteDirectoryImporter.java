@@ -0,0 +1,502 @@
+package com.resource.noteit;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.DocumentsContract;  // Reads folders picked with ACTION_OPEN_DOCUMENT_TREE
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;      // Bounded pool the files are parsed on
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;     // Splits a batch of files across the pool
+
+
+/**
+ * NoteDirectoryImporter 📂📥
+ *
+ * Imports a folder of plain-text (.txt) and Markdown (.md, .markdown) files, e.g. exported
+ * from another notes app, including all subfolders:
+ * - 📂 folders the user picks are read through the Storage Access Framework (a tree Uri from
+ *   ACTION_OPEN_DOCUMENT_TREE), the only way to read shared storage on current Android; plain
+ *   File folders work for the app's own directories
+ * - 🧵 files are read and parsed in parallel on a ForkJoinPool of at most MAX_PARALLELISM threads
+ * - 📝 the title comes from Markdown front-matter ("title: ...") or else the first non-blank line
+ *   (leading '#' stripped); the rest of the file becomes the body
+ * - 📦 notes are inserted in transactions of BATCH_FILES files; the next batch is parsed while
+ *   the current one is written, so parsing and SQLite writes overlap
+ * - 🔁 each file gets a syncId derived from the imported folder and its path inside it, so
+ *   importing the same folder again only updates notes whose file changed instead of duplicating
+ *   them, while two folders that both hold e.g. "/README.md" still give two notes
+ *
+ * The result reports how long the import took and its throughput in files per second.
+ */
+public class NoteDirectoryImporter {
+
+    private static final String TAG = "NoteDirectoryImporter";
+
+    // 🧵 Parser threads; one core is left for the writer thread and the UI
+    static final int MAX_PARALLELISM = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    // 📦 Files parsed and inserted per transaction
+    static final int BATCH_FILES = 256;
+
+    // ✂️ Files per fork/join leaf task
+    private static final int FILES_PER_TASK = 16;
+
+    // 📏 Read buffer pre-sized to the reported file size, up to this much; it grows past it if needed
+    private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+
+    // 🚫 Larger files are skipped (counted as failed): nobody's note is that big, and reading it would risk an OOM
+    static final long MAX_FILE_BYTES = 16L * 1024 * 1024;
+
+    // 📋 Columns read for each document, in this order
+    private static final String[] DOCUMENT_COLUMNS = {
+            DocumentsContract.Document.COLUMN_DOCUMENT_ID,
+            DocumentsContract.Document.COLUMN_DISPLAY_NAME,
+            DocumentsContract.Document.COLUMN_MIME_TYPE,
+            DocumentsContract.Document.COLUMN_LAST_MODIFIED,
+            DocumentsContract.Document.COLUMN_SIZE,
+    };
+
+    /**
+     * Receives progress and the outcome of an import on the main thread.
+     */
+    public interface Listener {
+        /**
+         * @param filesDone  Files parsed and written so far
+         * @param filesTotal Files found in the folder
+         */
+        void onProgress(int filesDone, int filesTotal);
+
+        void onFinished(Result result);
+    }
+
+    /**
+     * What one import did, and how fast.
+     */
+    public static final class Result {
+        public int filesFound;    // .txt / .md files in the tree
+        public int filesFailed;   // Files that could not be read
+        public int notesImported; // Notes inserted or updated; unchanged files are skipped
+        public long elapsedMs;    // Wall-clock time of the whole import
+        public IOException error; // Set if the folder could not be read
+
+        /**
+         * @return Files processed per second
+         */
+        public double filesPerSecond() {
+            return elapsedMs == 0 ? 0 : filesFound * 1000.0 / elapsedMs;
+        }
+    }
+
+    private static volatile NoteDirectoryImporter INSTANCE;
+
+    private final NoteRepository repository;
+    private final ForkJoinPool parsePool;
+    private final ExecutorService importExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * @param repository  Notes
+     * @param parallelism Max parser threads
+     */
+    public NoteDirectoryImporter(NoteRepository repository, int parallelism) {
+        this.repository = repository;
+        this.parsePool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Returns the app-wide importer, creating it on first use.
+     *
+     * @param context Any context
+     * @return Shared NoteDirectoryImporter
+     */
+    public static NoteDirectoryImporter getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (NoteDirectoryImporter.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new NoteDirectoryImporter(
+                            NoteRepository.getInstance(context.getApplicationContext()), MAX_PARALLELISM);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Imports a folder picked with ACTION_OPEN_DOCUMENT_TREE in the background. Shared storage
+     * is only readable through the Storage Access Framework, so this is the entry point for
+     * folders the user picks.
+     *
+     * @param resolver Content resolver used to read the tree
+     * @param tree     Tree URI returned by the picker
+     * @param listener Optional listener, called on the main thread
+     */
+    public void importAsync(ContentResolver resolver, Uri tree, Listener listener) {
+        importExecutor.execute(() -> {
+            Result result = importTree(resolver, tree, listener);
+            if (listener != null) mainHandler.post(() -> listener.onFinished(result));
+        });
+    }
+
+    /**
+     * Imports a document tree. Blocks; call it off the main thread.
+     *
+     * @param resolver Content resolver used to read the tree
+     * @param tree     Tree URI returned by ACTION_OPEN_DOCUMENT_TREE, searched recursively
+     * @param listener Optional progress listener, called on the main thread
+     * @return What was imported, with timings
+     */
+    public Result importTree(ContentResolver resolver, Uri tree, Listener listener) {
+        long start = SystemClock.elapsedRealtime();
+        try {
+            // 🔑 "com.android.externalstorage.documents/primary:Notes": stable across grants of the same folder
+            String root = tree.getAuthority() + "/" + DocumentsContract.getTreeDocumentId(tree);
+            return importFiles(root, listDocuments(resolver, tree), listener, start);
+        } catch (IOException e) {
+            return failed(e, start);
+        } catch (SecurityException e) {                     // Grant revoked or never given
+            return failed(new IOException("No access to " + tree, e), start);
+        }
+    }
+
+    /**
+     * Imports a folder the app can read directly, e.g. one in getExternalFilesDir(). Blocks; call
+     * it off the main thread.
+     *
+     * @param root     Folder to import, searched recursively
+     * @param listener Optional progress listener, called on the main thread
+     * @return What was imported, with timings
+     */
+    public Result importDirectory(File root, Listener listener) {
+        long start = SystemClock.elapsedRealtime();
+        try {
+            return importFiles(root.getCanonicalPath(), listFiles(root), listener, start);
+        } catch (IOException e) {
+            return failed(e, start);
+        }
+    }
+
+    /**
+     * @param root Identifies the imported folder; part of every imported note's syncId
+     */
+    private Result importFiles(String root, List<SourceFile> files, Listener listener, long start) {
+        Result result = new Result();
+        result.filesFound = files.size();
+        try {
+            // 🔀 Pipeline: parse batch n + 1 on the pool while batch n is written
+            Future<List<DataClass>> next = parseBatch(root, files, 0);
+            for (int from = 0; from < files.size(); from += BATCH_FILES) {
+                List<DataClass> notes = next.get();
+                int nextFrom = from + BATCH_FILES;
+                next = nextFrom < files.size() ? parseBatch(root, files, nextFrom) : null;
+
+                List<DataClass> parsed = new ArrayList<>(notes.size());
+                for (DataClass note : notes) {
+                    if (note != null) parsed.add(note);
+                }
+                result.filesFailed += notes.size() - parsed.size();
+                if (!parsed.isEmpty()) result.notesImported += repository.importNotes(parsed);
+
+                int done = Math.min(nextFrom, files.size());
+                if (listener != null) mainHandler.post(() -> listener.onProgress(done, files.size()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.error = new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            result.error = new IOException("Import failed", e.getCause());
+        }
+        result.elapsedMs = SystemClock.elapsedRealtime() - start;
+        Log.i(TAG, String.format(Locale.US, "Imported %d of %d files in %d ms (%.1f files/s)",
+                result.notesImported, result.filesFound, result.elapsedMs, result.filesPerSecond()));
+        return result;
+    }
+
+    private static Result failed(IOException error, long start) {
+        Result result = new Result();
+        result.error = error;
+        result.elapsedMs = SystemClock.elapsedRealtime() - start;
+        Log.w(TAG, "Import failed", error);
+        return result;
+    }
+
+    private Future<List<DataClass>> parseBatch(String root, List<SourceFile> files, int from) {
+        int to = Math.min(from + BATCH_FILES, files.size());
+        return parsePool.submit(new ParseTask(root, files, from, to));
+    }
+
+    // ---------------------------------------------------------------- 📂 Listing
+
+    /**
+     * One importable file, from the filesystem or from a document tree.
+     */
+    abstract static class SourceFile implements Comparable<SourceFile> {
+        final String relativePath; // 🔁 "/sub/note.md" below the imported folder; keys the syncId with the folder
+        final long lastModified;
+        final long size;
+
+        SourceFile(String relativePath, long lastModified, long size) {
+            this.relativePath = relativePath;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        String name() {
+            return relativePath.substring(relativePath.lastIndexOf('/') + 1);
+        }
+
+        abstract InputStream open() throws IOException;
+
+        @Override
+        public int compareTo(SourceFile other) {
+            return relativePath.compareTo(other.relativePath);
+        }
+    }
+
+    /**
+     * Walks a folder iteratively (no recursion depth limit) and returns the importable files
+     * in a stable order.
+     */
+    static List<SourceFile> listFiles(File root) throws IOException {
+        if (!root.isDirectory()) throw new IOException("Not a folder: " + root);
+        List<SourceFile> files = new ArrayList<>();
+        Deque<File> pending = new ArrayDeque<>();
+        Deque<String> paths = new ArrayDeque<>();
+        pending.push(root);
+        paths.push("");
+        while (!pending.isEmpty()) {
+            File[] children = pending.pop().listFiles();
+            String path = paths.pop();
+            if (children == null) continue;               // Unreadable folder
+            for (File child : children) {
+                if (child.isHidden()) continue;
+                String childPath = path + "/" + child.getName();
+                if (child.isDirectory()) {
+                    pending.push(child);
+                    paths.push(childPath);
+                } else if (isNoteFile(child.getName())) {
+                    files.add(new SourceFile(childPath, child.lastModified(), child.length()) {
+                        @Override
+                        InputStream open() throws IOException {
+                            return new FileInputStream(child);
+                        }
+                    });
+                }
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Walks a document tree with one DocumentsContract query per folder (names, types, sizes and
+     * dates come back together) and returns the importable files in a stable order.
+     */
+    static List<SourceFile> listDocuments(ContentResolver resolver, Uri tree) throws IOException {
+        List<SourceFile> files = new ArrayList<>();
+        Deque<String> pending = new ArrayDeque<>();
+        Deque<String> paths = new ArrayDeque<>();
+        pending.push(DocumentsContract.getTreeDocumentId(tree));
+        paths.push("");
+        while (!pending.isEmpty()) {
+            Uri children = DocumentsContract.buildChildDocumentsUriUsingTree(tree, pending.pop());
+            String path = paths.pop();
+            try (Cursor cursor = resolver.query(children, DOCUMENT_COLUMNS, null, null, null)) {
+                if (cursor == null) throw new IOException("Cannot list " + children);
+                while (cursor.moveToNext()) {
+                    String documentId = cursor.getString(0);
+                    String name = cursor.getString(1);
+                    if (name == null || name.startsWith(".")) continue;    // Hidden
+                    String childPath = path + "/" + name;
+                    if (DocumentsContract.Document.MIME_TYPE_DIR.equals(cursor.getString(2))) {
+                        pending.push(documentId);
+                        paths.push(childPath);
+                    } else if (isNoteFile(name)) {
+                        Uri document = DocumentsContract.buildDocumentUriUsingTree(tree, documentId);
+                        files.add(new SourceFile(childPath, cursor.getLong(3), cursor.getLong(4)) {
+                            @Override
+                            InputStream open() throws IOException {
+                                InputStream in = resolver.openInputStream(document);
+                                if (in == null) throw new IOException("Cannot open " + document);
+                                return in;
+                            }
+                        });
+                    }
+                }
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private static boolean isNoteFile(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".txt") || lower.endsWith(".md") || lower.endsWith(".markdown");
+    }
+
+    /**
+     * Parses files[from, to) on the pool, splitting the range until a task has at most
+     * FILES_PER_TASK files. Results keep the file order; a file that cannot be read yields null.
+     */
+    private static final class ParseTask extends RecursiveTask<List<DataClass>> {
+        private final String root;
+        private final List<SourceFile> files;
+        private final int from;
+        private final int to;
+
+        ParseTask(String root, List<SourceFile> files, int from, int to) {
+            this.root = root;
+            this.files = files;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<DataClass> compute() {
+            if (to - from <= FILES_PER_TASK) {
+                List<DataClass> notes = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    notes.add(parseFile(root, files.get(i)));
+                }
+                return notes;
+            }
+            int mid = (from + to) >>> 1;
+            ParseTask left = new ParseTask(root, files, from, mid);
+            left.fork();
+            List<DataClass> right = new ParseTask(root, files, mid, to).compute();
+            List<DataClass> notes = left.join();
+            notes.addAll(right);
+            return notes;
+        }
+    }
+
+    // ---------------------------------------------------------------- 📝 Parsing
+
+    private static DataClass parseFile(String root, SourceFile file) {
+        String text;
+        try {
+            text = readText(file);
+        } catch (IOException | SecurityException e) {
+            Log.w(TAG, "Skipping unreadable file " + file.relativePath, e);
+            return null;
+        }
+        String name = file.name();
+        String fallbackTitle = name.substring(0, name.lastIndexOf('.'));
+        DataClass note = parse(text, fallbackTitle, file.lastModified);
+
+        note.syncId = syncId(root, file.relativePath);
+        return note;
+    }
+
+    /**
+     * Same folder and relative path, same note: re-importing a folder updates instead of duplicating.
+     * The folder is part of the key, so equally named files of different folders never collide,
+     * here or on other devices the notes are synced to.
+     */
+    static String syncId(String root, String relativePath) {
+        return UUID.nameUUIDFromBytes(("import:" + root + "!" + relativePath).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * @throws IOException If the file cannot be read or is larger than MAX_FILE_BYTES
+     */
+    static String readText(SourceFile file) throws IOException {
+        if (file.size > MAX_FILE_BYTES) throw new IOException("Too large: " + file.size + " bytes");
+        int expected = (int) Math.max(32, Math.min(file.size, INITIAL_BUFFER_BYTES)); // Providers may report 0
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(expected);
+        byte[] buffer = new byte[8192];
+        try (InputStream in = file.open()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+                if (bytes.size() > MAX_FILE_BYTES) throw new IOException("Too large: over " + MAX_FILE_BYTES + " bytes"); // Size was misreported
+            }
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Splits a text or Markdown file into title and body.
+     *
+     * @param text          File content
+     * @param fallbackTitle Title used if the file has none (the file name without extension)
+     * @param modifiedAt    File modification time, used as created and modified time
+     * @return Unsaved note
+     */
+    static DataClass parse(String text, String fallbackTitle, long modifiedAt) {
+        if (text.startsWith("\uFEFF")) text = text.substring(1);        // UTF-8 byte order mark
+        text = text.replace("\r\n", "\n");
+
+        String title = null;
+        String body = text;
+
+        // 📋 Markdown front-matter: "---" line, "key: value" lines, "---" line
+        if (text.startsWith("---\n")) {
+            int end = text.indexOf("\n---", 3);
+            if (end >= 0) {
+                for (String line : text.substring(Math.min(4, end), end).split("\n")) {
+                    int colon = line.indexOf(':');
+                    if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase("title")) {
+                        title = unquote(line.substring(colon + 1).trim());
+                    }
+                }
+                int bodyStart = text.indexOf('\n', end + 4);
+                body = bodyStart < 0 ? "" : text.substring(bodyStart + 1);
+            }
+        }
+
+        // 📝 Otherwise the first non-blank line is the title
+        if (title == null || title.isEmpty()) {
+            int lineStart = 0;
+            while (lineStart < body.length()) {
+                int lineEnd = body.indexOf('\n', lineStart);
+                if (lineEnd < 0) lineEnd = body.length();
+                String line = body.substring(lineStart, lineEnd).trim();
+                if (!line.isEmpty()) {
+                    title = stripHeading(line);
+                    body = lineEnd < body.length() ? body.substring(lineEnd + 1) : "";
+                    break;
+                }
+                lineStart = lineEnd + 1;
+            }
+        }
+
+        if (title == null || title.isEmpty()) title = fallbackTitle;
+        return new DataClass(title, body.trim(), modifiedAt);
+    }
+
+    private static String stripHeading(String line) {
+        int i = 0;
+        while (i < line.length() && line.charAt(i) == '#') i++;
+        return i > 0 && i < line.length() && line.charAt(i) == ' ' ? line.substring(i + 1).trim() : line;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && (value.charAt(0) == '"' || value.charAt(0) == '\'')
+                && value.charAt(value.length() - 1) == value.charAt(0)) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+}
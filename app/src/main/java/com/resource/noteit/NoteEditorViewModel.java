@@ -0,0 +1,25 @@
+package com.resource.noteit;
+
+import androidx.lifecycle.ViewModel; // Survives configuration changes of UploadActivity
+
+
+/**
+ * NoteEditorViewModel ✏️📓
+ *
+ * Keeps the editor's NoteJournal session alive while UploadActivity is recreated (e.g. on rotation),
+ * so a new note keeps journaling into the same row instead of starting a second one.
+ * The session is closed (final compaction, journal deleted) once the editor is gone for good.
+ */
+public class NoteEditorViewModel extends ViewModel {
+
+    // 📓 Autosave session of the open editor, or null until the note is ready to edit
+    NoteJournal.Session session;
+
+    @Override
+    protected void onCleared() {
+        if (session != null) {
+            session.close();
+            session = null;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.resource.noteit; // 📦 Declares the package this class belongs to
+
+// 📚 Room annotations for tables and columns
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+// 🔎 Marks this entity as an FTS4 virtual table
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+/**
+ * 🔎 NoteFts is the full-text search index for the "notes" table.
+ * It is an FTS4 virtual table named "notes_fts" that mirrors the title and body of each note.
+ *
+ * Because it is declared with contentEntity = DataClass, it is an external-content table:
+ * - the text itself is not duplicated, only the search index is stored 💾
+ * - Room creates triggers that keep it in sync on every insert, update and delete 🔄
+ * - its rowid is the id of the matching note 🆔
+ *
+ * Queries go through NoteDao.searchNotes(); see NoteSearch for query building and ranking.
+ */
+@Fts4(contentEntity = DataClass.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "notes_fts") // 🏷️ Virtual table named "notes_fts"
+public class NoteFts {
+
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    public int rowid; // 🆔 Same value as DataClass.id
+
+    public String dataTitle; // 📝 Indexed note title
+    public String dataDesc; // 📄 Indexed note body
+}
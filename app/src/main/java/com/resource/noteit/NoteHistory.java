@@ -0,0 +1,208 @@
+package com.resource.noteit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+
+/**
+ * NoteHistory 🕰️🧩
+ *
+ * Delta-encoded revision history for notes.
+ * Every content write records the new version as a NoteRevision:
+ * - ✂️ normally as a single splice against the previous version (common prefix and suffix are
+ *   dropped), so storage grows with the size of the edit, not with the size of the body
+ * - 📸 every SNAPSHOT_INTERVAL revisions as a Deflate-compressed full body, so rebuilding any
+ *   version replays at most SNAPSHOT_INTERVAL - 1 deltas
+ * - 🧹 prune() drops whole snapshot groups older than the newest MAX_REVISIONS revisions
+ *
+ * The version that existed before the first edit is stored as snapshot revision 0, so history
+ * starts with the original text. Notes that were never edited have no history rows at all.
+ *
+ * Writes must run on the writer thread inside the transaction that updates the note row.
+ */
+public class NoteHistory {
+
+    // 📸 A full snapshot is stored every this many revisions
+    static final int SNAPSHOT_INTERVAL = 20;
+
+    // 🧹 Revisions kept per note (plus whatever completes the oldest snapshot group)
+    static final int MAX_REVISIONS = 200;
+
+    private final NoteRevisionDao revisionDao;
+
+    public NoteHistory(NoteRevisionDao revisionDao) {
+        this.revisionDao = revisionDao;
+    }
+
+    /**
+     * Records a new version of a note. Call inside the transaction that writes the new content.
+     *
+     * @param noteId        Note id
+     * @param oldTitle      Title before the write
+     * @param oldBody       Full body before the write
+     * @param oldModifiedAt Modified time of the old version
+     * @param newTitle      Title being written
+     * @param newBody       Full body being written
+     * @param modifiedAt    Modified time of the new version
+     * @return The new revision number, or -1 if the content did not change
+     */
+    public int record(int noteId, String oldTitle, String oldBody, long oldModifiedAt,
+                      String newTitle, String newBody, long modifiedAt) {
+        oldBody = oldBody == null ? "" : oldBody;
+        newBody = newBody == null ? "" : newBody;
+        if (oldBody.equals(newBody) && (oldTitle == null ? newTitle == null : oldTitle.equals(newTitle))) {
+            return -1;
+        }
+
+        Integer latest = revisionDao.getLatestRevision(noteId);
+        if (latest == null) {
+            // 📸 First edit: keep the original text as the base of the history
+            revisionDao.insert(new NoteRevision(noteId, 0, oldModifiedAt, true, oldTitle, compress(oldBody)));
+            latest = 0;
+        }
+
+        int revision = latest + 1;
+        boolean snapshot = revision % SNAPSHOT_INTERVAL == 0;
+        byte[] data = snapshot ? compress(newBody) : encodeDelta(oldBody, newBody);
+        revisionDao.insert(new NoteRevision(noteId, revision, modifiedAt, snapshot, newTitle, data));
+        return revision;
+    }
+
+    /**
+     * @return true if a revision completed a snapshot group, i.e. prune() may now free something
+     */
+    static boolean shouldPrune(int revision) {
+        return revision > 0 && revision % SNAPSHOT_INTERVAL == 0;
+    }
+
+    /**
+     * Rebuilds one version of a note from its nearest snapshot and the deltas after it.
+     * Runs database queries, so call it off the main thread.
+     *
+     * @param noteId   Note id
+     * @param revision Revision number
+     * @return The version as a detached DataClass (id = noteId), or null if it was pruned or never existed
+     */
+    public DataClass read(int noteId, int revision) {
+        Integer snapshot = revisionDao.getSnapshotAtOrBefore(noteId, revision);
+        if (snapshot == null) return null;
+
+        List<NoteRevision> chain = revisionDao.getRange(noteId, snapshot, revision);
+        if (chain.isEmpty() || chain.get(chain.size() - 1).revision != revision) return null;
+
+        String body = decompress(chain.get(0).data);
+        for (int i = 1; i < chain.size(); i++) {
+            body = applyDelta(body, chain.get(i).data);
+        }
+
+        NoteRevision last = chain.get(chain.size() - 1);
+        DataClass version = new DataClass(last.dataTitle, body, last.createdAt);
+        version.setId(noteId);
+        return version;
+    }
+
+    /**
+     * Deletes revisions older than the newest MAX_REVISIONS, always cutting at a snapshot so
+     * every remaining revision can still be rebuilt. Meant to run as its own background task.
+     *
+     * @param noteId Note id
+     */
+    public void prune(int noteId) {
+        Integer latest = revisionDao.getLatestRevision(noteId);
+        if (latest == null) return;
+        int oldestWanted = latest - MAX_REVISIONS + 1;
+        if (oldestWanted <= 0) return;
+        Integer keepFrom = revisionDao.getSnapshotAtOrBefore(noteId, oldestWanted);
+        if (keepFrom != null && keepFrom > 0) {
+            revisionDao.deleteBefore(noteId, keepFrom);
+        }
+    }
+
+    // ---------------------------------------------------------------- ✂️ Delta encoding
+
+    /**
+     * Encodes newText as one splice of oldText: start offset, number of removed chars, inserted text.
+     */
+    static byte[] encodeDelta(String oldText, String newText) {
+        int prefix = 0;
+        int max = Math.min(oldText.length(), newText.length());
+        while (prefix < max && oldText.charAt(prefix) == newText.charAt(prefix)) prefix++;
+        if (prefix > 0 && Character.isHighSurrogate(oldText.charAt(prefix - 1))) prefix--; // Never split a pair
+
+        int suffix = 0;
+        while (suffix < max - prefix
+                && oldText.charAt(oldText.length() - 1 - suffix) == newText.charAt(newText.length() - 1 - suffix)) {
+            suffix++;
+        }
+        if (suffix > 0 && Character.isLowSurrogate(oldText.charAt(oldText.length() - suffix))) suffix--;
+
+        String inserted = newText.substring(prefix, newText.length() - suffix);
+        byte[] insertedBytes = inserted.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(insertedBytes.length + 12);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(prefix);
+            out.writeInt(oldText.length() - suffix - prefix);
+            out.writeInt(insertedBytes.length);
+            out.write(insertedBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // In-memory streams do not fail
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Applies a splice produced by encodeDelta() to the previous version.
+     */
+    static String applyDelta(String text, byte[] delta) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(delta))) {
+            int start = in.readInt();
+            int removed = in.readInt();
+            byte[] inserted = new byte[in.readInt()];
+            in.readFully(inserted);
+            return text.substring(0, start) + new String(inserted, StandardCharsets.UTF_8)
+                    + text.substring(start + removed);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt revision delta", e);
+        }
+    }
+
+    // ---------------------------------------------------------------- 🗜️ Snapshots
+
+    private static byte[] compress(String text) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (OutputStream out = new DeflaterOutputStream(bytes, deflater)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end(); // Free native zlib memory right away
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String decompress(byte[] data) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length * 4);
+        byte[] buffer = new byte[8192];
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(data))) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt revision snapshot", e);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
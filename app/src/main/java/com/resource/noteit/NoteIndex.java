@@ -0,0 +1,949 @@
+package com.resource.noteit;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock; // Many concurrent searches, one writer
+
+
+/**
+ * NoteIndex 🧠⚡
+ *
+ * Process-wide in-memory inverted index over note titles and bodies, answering searches
+ * without touching SQLite:
+ * - 🌳 terms live in a character trie, so a prefix ("meet") reaches every term under it
+ *   ("meet", "meeting", "meetup") by walking one subtree; that is what typeahead needs
+ * - 🔢 each term's posting list is a sorted primitive int[] of (noteId << 2 | flags), where the
+ *   flags say whether the term is in the title, the body or both; no boxed collections
+ * - 🔁 NoteRepository updates it incrementally on every insert, update and delete, in the same
+ *   writer-thread task as the database write and only after it commits, so it is never rebuilt
+ * - 📇 the row fields a result shows (title, 30-char preview, modified time) are kept per note,
+ *   so results are returned as NoteRows directly
+ *
+ * - 🔤 every term is also listed under its trigrams ("^me", "mee", "eet", ...), so a misspelled
+ *   word finds similar terms by shared trigrams; candidates are then checked with a bounded edit
+ *   distance (insert, delete, substitute, swap) and ranked below exact matches
+ * - 🧹 terms no note uses any more stay until they are a quarter of all terms, then compact()
+ *   renumbers the rest and rebuilds the trie and trigram lists, so edits and deletes never make
+ *   the index grow without bound
+ *
+ * Bodies stored out of row are indexed in full (NoteRepository passes the whole text, not the
+ * inline preview), so unlike the notes_fts fallback, words past the first 1000 characters of a
+ * large note are found. Queries AND their words and treat each one as a prefix, like NoteSearch.
+ */
+public class NoteIndex {
+
+    static final int FLAG_TITLE = 1;
+    static final int FLAG_BODY = 2;
+    private static final int ID_SHIFT = 2;
+
+    // ✂️ Longer tokens (hashes, base64, URLs) are not indexed
+    static final int MAX_TOKEN_LENGTH = 64;
+
+    // ⚖️ Score of a query word found in the title, and in the body only
+    static final int TITLE_SCORE = 2;
+    static final int BODY_SCORE = 1;
+
+    // 🔤 Typo tolerance: words shorter than 4 chars must match exactly, 4-7 chars allow 1 typo, longer 2
+    static final int MAX_EDITS = 2;
+    static final int FUZZY_MIN_LENGTH = 4;
+    private static final int TWO_EDITS_MIN_LENGTH = 8;
+
+    // 🔤 Similar terms are only looked up for words with fewer exact matches than this
+    static final int FUZZY_MIN_MATCHES = 10;
+
+    // 🔤 Trigram posting lists are kept in this many hashed buckets; a collision only adds a candidate
+    private static final int GRAM_BUCKETS = 1 << 16;
+
+    // 🧹 Unused terms are compacted away once there are this many and they are a quarter of all terms
+    static final int COMPACT_MIN_DEAD_TERMS = 1024;
+
+    // 🏁 Bit layout of a packed ranking key: score | modifiedAt (epoch millis, good until 2109) | position
+    private static final int POSITION_BITS = 16;
+    private static final int TIME_BITS = 42;
+    private static final int SCORE_BITS = 63 - TIME_BITS - POSITION_BITS;
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+    private static final int[] NO_TERMS = new int[0];
+
+    /**
+     * One trie node: children sorted by character, and the id of the term ending here (or -1).
+     */
+    private static final class Node {
+        char[] keys = NO_KEYS;
+        Node[] children = NO_NODES;
+        int childCount;
+        int term = -1;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, 0, childCount, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node addChild(char c) {
+            int i = Arrays.binarySearch(keys, 0, childCount, c);
+            if (i >= 0) return children[i];
+            i = -i - 1;
+            if (childCount == keys.length) {
+                int capacity = childCount == 0 ? 2 : childCount * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, i, keys, i + 1, childCount - i);
+            System.arraycopy(children, i, children, i + 1, childCount - i);
+            Node node = new Node();
+            keys[i] = c;
+            children[i] = node;
+            childCount++;
+            return node;
+        }
+    }
+
+    /**
+     * Size of the index, for the memory footprint report.
+     */
+    public static final class Stats {
+        public int notes;         // Indexed notes
+        public int terms;         // Distinct terms used by at least one note
+        public int deadTerms;     // Terms no note uses any more, until the next compaction
+        public int trieNodes;     // Trie nodes
+        public long postings;     // Total (term, note) pairs
+        public long bytes;        // Estimated heap footprint
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%d notes, %d terms (%d unused), %d trie nodes, %d postings, ~%.1f MB",
+                    notes, terms, deadTerms, trieNodes, postings, bytes / (1024.0 * 1024.0));
+        }
+    }
+
+    /**
+     * One search answer. The rows and hasMatch always describe the same query, so a screen can
+     * never pair the rows of one query with the match state of another.
+     */
+    public static final class Result {
+        public final String query;       // Query these rows answer
+        public final List<NoteRow> rows; // Matches, best first
+        public final boolean hasMatch;   // True if rows is not empty
+        final int[] rowScores;           // Score of each row, for merging with other ranked lists (null: unscored)
+
+        // 🔁 Kept so the next, longer query can narrow this result (words == null: cannot be narrowed)
+        final String[] words;            // Query words
+        final boolean[] fuzzy;           // Per word: similar terms were matched too
+        final int[] ids;                 // Matching note ids, ascending
+        final int[][] scores;            // [word][i]: score of that word in note ids[i]
+        final long version;              // Index version the result was computed at
+
+        Result(String query, List<NoteRow> rows, int[] rowScores, String[] words, boolean[] fuzzy, int[] ids,
+               int[][] scores, long version) {
+            this.query = query;
+            this.rows = rows;
+            this.hasMatch = !rows.isEmpty();
+            this.rowScores = rowScores;
+            this.words = words;
+            this.fuzzy = fuzzy;
+            this.ids = ids;
+            this.scores = scores;
+            this.version = version;
+        }
+
+        /**
+         * Wraps rows that did not come from the index (e.g. the SQLite fallback); never narrowed.
+         */
+        static Result of(String query, List<NoteRow> rows) {
+            return new Result(query, rows, null, null, null, null, null, -1);
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+
+    // 🔢 Per term id
+    private int termCount;
+    private int deadTerms;      // Terms with an empty posting list
+    private int[][] postings = new int[256][];
+    private int[] postingSizes = new int[256];
+    private String[] termText = new String[256];
+
+    // 🔤 Per trigram bucket: ids of the terms containing it, ascending
+    private final int[][] gramTerms = new int[GRAM_BUCKETS][];
+    private final int[] gramSizes = new int[GRAM_BUCKETS];
+
+    // 📇 Per note id (ids are dense autoincrement values, so arrays indexed by id stay compact)
+    private int[][] noteTerms = new int[1024][];
+    private String[] titles = new String[1024];
+    private String[] previews = new String[1024];
+    private long[] modifiedAts = new long[1024];
+    private int noteCount;
+    private int maxId;
+
+    // 🔁 Bumped on every put / remove, so results computed before a write are never narrowed
+    private long version;
+
+    // ✅ Set once every existing note has been added
+    private volatile boolean ready;
+
+    /**
+     * @return true once the initial load is complete and search() sees every note
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    void markReady() {
+        ready = true;
+    }
+
+    /**
+     * Adds or replaces a note. Called on the writer thread after the row was committed.
+     *
+     * @param id         Note id
+     * @param title      Title
+     * @param body       Inline body (dataDesc)
+     * @param modifiedAt Modified time, used to order equally ranked results
+     */
+    public void put(int id, String title, String body, long modifiedAt) {
+        Map<String, Integer> tokens = new HashMap<>();
+        addTokens(tokens, title, FLAG_TITLE);
+        addTokens(tokens, body, FLAG_BODY);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            ensureNoteCapacity(id);
+            int[] terms = new int[tokens.size()];
+            int n = 0;
+            for (Map.Entry<String, Integer> token : tokens.entrySet()) {
+                int term = termFor(token.getKey());
+                addPosting(term, (id << ID_SHIFT) | token.getValue());
+                terms[n++] = term;
+            }
+            noteTerms[id] = terms;
+            version++;
+            titles[id] = title;
+            previews[id] = preview(body);
+            modifiedAts[id] = modifiedAt;
+            noteCount++;
+            maxId = Math.max(maxId, id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a note. Called on the writer thread after the deletion was committed.
+     *
+     * @param id Note id
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(int id) {
+        if (id >= noteTerms.length || noteTerms[id] == null) return;
+        for (int term : noteTerms[id]) {
+            removePosting(term, id);
+        }
+        noteTerms[id] = null;
+        version++;
+        titles[id] = null;
+        previews[id] = null;
+        noteCount--;
+    }
+
+    /**
+     * Finds the notes containing every word of the query, each word matched as a prefix.
+     * A word with fewer than FUZZY_MIN_MATCHES exact matches is also matched against similar
+     * terms (up to maxEdits(word) typos), so "meetng" still finds "meeting".
+     * Results are ranked by how well each word matched: exact before one typo before two, and a
+     * title hit counts double; equally ranked notes are ordered most recently modified first.
+     *
+     * If the query only extends the last word of the previous query ("mee" -> "meet") and nothing
+     * was written since, the previous matches are narrowed through each note's own term list
+     * instead of scanning the posting lists again. That is only done when it gives exactly the
+     * answer a full search would.
+     *
+     * @param query    Text typed by the user
+     * @param previous Result of the previous query, or null
+     * @return Matches, best first (empty if the query has no searchable words)
+     */
+    public Result search(String query, Result previous) {
+        String[] words = tokenize(query).toArray(new String[0]);
+        lock.readLock().lock();
+        try {
+            return canNarrow(words, previous) ? narrow(query, words, previous) : searchAll(query, words);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Result searchAll(String query, String[] words) {
+        int wordCount = words.length;
+        int blocks = (maxId >> 6) + 1;
+        boolean[] fuzzy = new boolean[wordCount];              // Per word: similar terms were matched too
+        long[] matches = null;                                 // Notes matching every word so far
+        long[][][] any = new long[wordCount][][];              // [word][typos] notes matching with that many typos
+        long[][][] inTitle = new long[wordCount][][];          // [word][typos] ... in the title
+        for (int w = 0; w < wordCount; w++) {
+            any[w] = new long[MAX_EDITS + 1][];
+            inTitle[w] = new long[MAX_EDITS + 1][];
+            Node node = find(words[w]);
+            if (node != null) {
+                any[w][0] = new long[blocks];
+                inTitle[w][0] = new long[blocks];
+                collect(node, any[w][0], inTitle[w][0]);
+            }
+            if ((node == null || bitCount(any[w][0]) < FUZZY_MIN_MATCHES) && maxEdits(words[w].length()) > 0) {
+                fuzzy[w] = true;
+                collectFuzzy(words[w], any[w], inTitle[w], blocks);
+            }
+
+            long[] wordMatches = union(any[w], blocks);
+            if (matches == null) {
+                matches = wordMatches;
+            } else {
+                for (int i = 0; i < blocks; i++) matches[i] &= wordMatches[i];
+            }
+            if (bitCount(matches) == 0) break;
+        }
+
+        int count = matches == null ? 0 : bitCount(matches);
+        int[] ids = new int[count];
+        int[][] scores = new int[wordCount][count];
+        int n = 0;
+        for (int i = 0; i < blocks && n < count; i++) {
+            long bits = matches[i];
+            while (bits != 0) {
+                ids[n] = (i << 6) + Long.numberOfTrailingZeros(bits);
+                long bit = bits & -bits;
+                bits &= bits - 1;
+                for (int k = 0; k < wordCount; k++) {
+                    scores[k][n] = wordScore(any[k], inTitle[k], i, bit);
+                }
+                n++;
+            }
+        }
+        return finish(query, words, fuzzy, ids, scores);
+    }
+
+    /**
+     * True if narrowing the previous matches gives exactly what a full search would: the same words
+     * except a longer last word, the same typo budget for it, and typo matching already applied to
+     * it (a longer word has fewer exact matches, so it will be applied again).
+     */
+    private boolean canNarrow(String[] words, Result previous) {
+        if (previous == null || previous.words == null || previous.version != version) return false;
+        int last = words.length - 1;
+        if (last < 0 || words.length != previous.words.length) return false;
+        for (int k = 0; k < last; k++) {
+            if (!words[k].equals(previous.words[k])) return false;
+        }
+        String word = words[last];
+        String before = previous.words[last];
+        int edits = maxEdits(word.length());
+        return word.startsWith(before) && edits == maxEdits(before.length())
+                && (edits == 0 || previous.fuzzy[last]);
+    }
+
+    /**
+     * Re-checks only the last word against the terms of each previous match; the scores of the
+     * other words are carried over.
+     */
+    private Result narrow(String query, String[] words, Result previous) {
+        int last = words.length - 1;
+        String word = words[last];
+        int edits = maxEdits(word.length());
+        int[] similar = edits > 0 ? similarTerms(word, edits) : NO_TERMS;
+
+        int[] ids = new int[previous.ids.length];
+        int[][] scores = new int[words.length][ids.length];
+        int n = 0;
+        for (int i = 0; i < previous.ids.length; i++) {
+            int id = previous.ids[i];
+            int best = 0;
+            for (int term : noteTerms[id]) {
+                int typos;
+                if (termText[term].startsWith(word)) {
+                    typos = 0;
+                } else {
+                    int at = Arrays.binarySearch(similar, term << 2);
+                    if (at < 0) at = -at - 1;                    // Typo count is in the low bits
+                    if (at >= similar.length || similar[at] >>> 2 != term) continue;
+                    typos = similar[at] & 3;
+                }
+                int score = ((flagsOf(term, id) & FLAG_TITLE) != 0 ? TITLE_SCORE : BODY_SCORE) * (MAX_EDITS + 1 - typos);
+                best = Math.max(best, score);
+            }
+            if (best == 0) continue;
+            ids[n] = id;
+            for (int k = 0; k < last; k++) scores[k][n] = previous.scores[k][i];
+            scores[last][n] = best;
+            n++;
+        }
+
+        for (int k = 0; k < words.length; k++) scores[k] = Arrays.copyOf(scores[k], n);
+        return finish(query, words, previous.fuzzy, Arrays.copyOf(ids, n), scores);
+    }
+
+    /**
+     * Builds the rows of matching notes (ids ascending) and ranks them by their total score.
+     */
+    private Result finish(String query, String[] words, boolean[] fuzzy, int[] ids, int[][] scores) {
+        List<NoteRow> rows = new ArrayList<>(ids.length);
+        int[] totals = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            int id = ids[i];
+            NoteRow row = new NoteRow();
+            row.id = id;
+            row.dataTitle = titles[id];
+            row.preview = previews[id];
+            row.modifiedAt = modifiedAts[id];
+            rows.add(row);
+            for (int[] wordScores : scores) totals[i] += wordScores[i];
+        }
+        int[] rowScores = new int[ids.length];
+        return new Result(query, rank(rows, totals, rowScores), rowScores, words, fuzzy, ids, scores, version);
+    }
+
+    /**
+     * Best score of one word in one note: (TITLE_SCORE or BODY_SCORE) * (MAX_EDITS + 1 - typos).
+     */
+    private static int wordScore(long[][] any, long[][] inTitle, int block, long bit) {
+        for (int typos = 0; typos <= MAX_EDITS; typos++) {
+            if (any[typos] == null || (any[typos][block] & bit) == 0) continue;
+            // A title hit with more typos may still beat a body hit with fewer
+            int best = ((inTitle[typos][block] & bit) != 0 ? TITLE_SCORE : BODY_SCORE) * (MAX_EDITS + 1 - typos);
+            for (int more = typos + 1; more <= MAX_EDITS; more++) {
+                if (inTitle[more] != null && (inTitle[more][block] & bit) != 0) {
+                    best = Math.max(best, TITLE_SCORE * (MAX_EDITS + 1 - more));
+                }
+            }
+            return best;
+        }
+        return 0;
+    }
+
+    private static long[] union(long[][] levels, int blocks) {
+        long[] all = new long[blocks];
+        for (long[] level : levels) {
+            if (level == null) continue;
+            for (int i = 0; i < blocks; i++) all[i] |= level[i];
+        }
+        return all;
+    }
+
+    private static int bitCount(long[] bits) {
+        int count = 0;
+        for (long block : bits) count += Long.bitCount(block);
+        return count;
+    }
+
+    /**
+     * Orders rows by score, then modified time, then id, all descending. Rows arrive in ascending
+     * id order, so the position breaks ties. Each row is packed into one long
+     * (score | modifiedAt | position) and sorted as primitives; a comparator sort is only
+     * used when the values do not fit.
+     *
+     * @param rankedScores Filled with the score of each ranked row
+     */
+    private static List<NoteRow> rank(List<NoteRow> rows, int[] scores, int[] rankedScores) {
+        int count = rows.size();
+        long[] keys = new long[count];
+        boolean packed = count < (1 << POSITION_BITS);
+        for (int i = 0; i < count && packed; i++) {
+            long time = rows.get(i).modifiedAt;
+            packed = scores[i] < (1 << SCORE_BITS) && time >= 0 && time < (1L << TIME_BITS);
+            keys[i] = ((long) scores[i] << (TIME_BITS + POSITION_BITS)) | (time << POSITION_BITS) | i;
+        }
+
+        List<NoteRow> ranked = new ArrayList<>(count);
+        if (packed) {
+            Arrays.sort(keys);
+            for (int i = count - 1; i >= 0; i--) {
+                int position = (int) (keys[i] & ((1 << POSITION_BITS) - 1));
+                rankedScores[ranked.size()] = scores[position];
+                ranked.add(rows.get(position));
+            }
+            return ranked;
+        }
+
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> {
+            int byScore = Integer.compare(scores[b], scores[a]);
+            if (byScore != 0) return byScore;
+            int byTime = Long.compare(rows.get(b).modifiedAt, rows.get(a).modifiedAt);
+            return byTime != 0 ? byTime : Integer.compare(b, a);
+        });
+        for (int i : order) {
+            rankedScores[ranked.size()] = scores[i];
+            ranked.add(rows.get(i));
+        }
+        return ranked;
+    }
+
+    /**
+     * Lists indexed terms starting with a prefix, for typeahead suggestions.
+     *
+     * @param prefix Text typed so far
+     * @param limit  Max terms
+     * @return Up to limit terms in alphabetical order
+     */
+    public List<String> complete(String prefix, int limit) {
+        String key = prefix == null ? "" : prefix.toLowerCase(Locale.ROOT);
+        List<String> terms = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Node start = find(key);
+            if (start == null) return terms;
+            completeFrom(start, new StringBuilder(key), terms, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return terms;
+    }
+
+    private void completeFrom(Node node, StringBuilder term, List<String> out, int limit) {
+        if (out.size() >= limit) return;
+        if (node.term >= 0 && postingSizes[node.term] > 0) out.add(term.toString());
+        for (int i = 0; i < node.childCount && out.size() < limit; i++) {
+            term.append(node.keys[i]);
+            completeFrom(node.children[i], term, out, limit);
+            term.setLength(term.length() - 1);
+        }
+    }
+
+    /**
+     * Lists the terms the typo stage of search() would match for one query word.
+     *
+     * @param word Lower-case query word
+     * @return Terms within maxEdits(word) typos of the word (as a prefix), excluding exact prefixes
+     */
+    List<String> similarTerms(String word) {
+        List<String> terms = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int similar : similarTerms(word, maxEdits(word.length()))) terms.add(termText[similar >>> 2]);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return terms;
+    }
+
+    /**
+     * Measures the index. Walks the trie, so call it for reporting, not on every keystroke.
+     *
+     * @return Counts and an estimate of the heap used
+     */
+    public Stats getStats() {
+        Stats stats = new Stats();
+        lock.readLock().lock();
+        try {
+            stats.notes = noteCount;
+            stats.terms = termCount - deadTerms;
+            stats.deadTerms = deadTerms;
+
+            // Object header 12 + fields, array header 16, reference 4 (compressed), rounded to 8
+            long bytes = 0;
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                stats.trieNodes++;
+                bytes += 32 + align(16 + 2L * node.keys.length) + align(16 + 4L * node.children.length);
+                for (int i = 0; i < node.childCount; i++) pending.push(node.children[i]);
+            }
+
+            for (int t = 0; t < termCount; t++) {
+                stats.postings += postingSizes[t];
+                bytes += align(16 + 4L * postings[t].length);
+            }
+            bytes += align(16 + 4L * postings.length) + align(16 + 4L * postingSizes.length)
+                    + align(16 + 4L * termText.length);
+            for (int t = 0; t < termCount; t++) bytes += stringBytes(termText[t]);
+            bytes += align(16 + 4L * GRAM_BUCKETS) * 2;
+            for (int g = 0; g < GRAM_BUCKETS; g++) {
+                if (gramTerms[g] != null) bytes += align(16 + 4L * gramTerms[g].length);
+            }
+
+            bytes += align(16 + 4L * noteTerms.length) + 2 * align(16 + 4L * titles.length)
+                    + align(16 + 8L * modifiedAts.length);
+            for (int id = 0; id <= maxId && id < noteTerms.length; id++) {
+                if (noteTerms[id] == null) continue;
+                bytes += align(16 + 4L * noteTerms[id].length) + stringBytes(titles[id]) + stringBytes(previews[id]);
+            }
+            stats.bytes = bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+        return stats;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static long stringBytes(String s) {
+        return s == null ? 0 : 24 + align(16 + 2L * s.length());
+    }
+
+    // ---------------------------------------------------------------- 🌳 Trie and postings (lock held)
+
+    private Node find(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    private int termFor(String token) {
+        Node node = addPath(token);
+        if (node.term < 0) {
+            if (termCount == postings.length) {
+                postings = Arrays.copyOf(postings, termCount * 2);
+                postingSizes = Arrays.copyOf(postingSizes, termCount * 2);
+                termText = Arrays.copyOf(termText, termCount * 2);
+            }
+            postings[termCount] = NO_TERMS;
+            termText[termCount] = token;
+            addGrams(token, termCount);
+            node.term = termCount++;
+        } else if (postingSizes[node.term] == 0) {
+            deadTerms--;                                      // Used again before it was compacted away
+        }
+        return node.term;
+    }
+
+    private Node addPath(String token) {
+        Node node = root;
+        for (int i = 0; i < token.length(); i++) {
+            node = node.addChild(token.charAt(i));
+        }
+        return node;
+    }
+
+    private void addGrams(String token, int term) {
+        for (int gram : grams("^" + token + "$")) {
+            addGramTerm(gram, term);
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (deadTerms >= COMPACT_MIN_DEAD_TERMS && deadTerms * 4L >= termCount) compactLocked();
+    }
+
+    /**
+     * Drops every term no note uses: renumbers the live terms in their old order, rewrites each
+     * note's term list, and rebuilds the trie and the trigram lists. Costs one pass over the
+     * terms and notes, paid once per COMPACT_MIN_DEAD_TERMS (or a quarter of all terms) removals.
+     */
+    void compact() {
+        lock.writeLock().lock();
+        try {
+            compactLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void compactLocked() {
+        int[] renumbered = new int[termCount];
+        int live = 0;
+        for (int t = 0; t < termCount; t++) {
+            if (postingSizes[t] == 0) {
+                renumbered[t] = -1;
+                continue;
+            }
+            renumbered[t] = live;
+            postings[live] = postings[t];
+            postingSizes[live] = postingSizes[t];
+            termText[live] = termText[t];
+            live++;
+        }
+        int capacity = Math.max(256, Integer.highestOneBit(Math.max(1, live)) * 2);
+        postings = Arrays.copyOf(postings, capacity);
+        postingSizes = Arrays.copyOf(postingSizes, capacity);
+        termText = Arrays.copyOf(termText, capacity);
+        Arrays.fill(postings, live, capacity, null);
+        Arrays.fill(postingSizes, live, capacity, 0);
+        Arrays.fill(termText, live, capacity, null);
+
+        for (int id = 0; id <= maxId && id < noteTerms.length; id++) {
+            int[] terms = noteTerms[id];
+            if (terms == null) continue;
+            for (int i = 0; i < terms.length; i++) terms[i] = renumbered[terms[i]]; // A note's terms are all live
+        }
+
+        root.keys = NO_KEYS;
+        root.children = NO_NODES;
+        root.childCount = 0;
+        Arrays.fill(gramTerms, null);
+        Arrays.fill(gramSizes, 0);
+        for (int t = 0; t < live; t++) {
+            addPath(termText[t]).term = t;
+            addGrams(termText[t], t);                         // Ascending ids keep every list sorted
+        }
+
+        termCount = live;
+        deadTerms = 0;
+        version++;
+    }
+
+    /**
+     * ORs the notes of every term in a subtree into the bitsets.
+     */
+    private void collect(Node start, long[] any, long[] title) {
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(start);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            if (node.term >= 0) collectTerm(node.term, any, title);
+            for (int i = 0; i < node.childCount; i++) pending.push(node.children[i]);
+        }
+    }
+
+    /**
+     * ORs the notes of one term into the bitsets.
+     */
+    private void collectTerm(int term, long[] any, long[] title) {
+        int[] list = postings[term];
+        for (int i = 0, size = postingSizes[term]; i < size; i++) {
+            int id = list[i] >>> ID_SHIFT;
+            long bit = 1L << id;
+            any[id >> 6] |= bit;
+            if ((list[i] & FLAG_TITLE) != 0) title[id >> 6] |= bit;
+        }
+    }
+
+    /**
+     * Collects the notes of every term within maxEdits(word) typos of the word (as a prefix),
+     * into the bitsets of the matching typo count. Exact prefixes are left to the trie.
+     */
+    private void collectFuzzy(String word, long[][] any, long[][] title, int blocks) {
+        for (int similar : similarTerms(word, maxEdits(word.length()))) {
+            int typos = similar & 3;
+            if (any[typos] == null) {
+                any[typos] = new long[blocks];
+                title[typos] = new long[blocks];
+            }
+            collectTerm(similar >>> 2, any[typos], title[typos]);
+        }
+    }
+
+    /**
+     * Finds the terms within maxEdits typos of the word (as a prefix) that are not exact prefixes.
+     *
+     * @return (term << 2 | typos) for each such term, ascending
+     */
+    private int[] similarTerms(String word, int maxEdits) {
+        if (maxEdits == 0) return NO_TERMS;
+
+        // 🔤 Candidates: terms sharing enough trigrams. No end marker: the word may be a prefix.
+        // One edit changes at most 4 trigrams (a swap), so a real match keeps at least grams - 4 * edits of them.
+        int[] grams = grams("^" + word);
+        int need = Math.max(1, grams.length - 4 * maxEdits);
+        int total = 0;
+        for (int gram : grams) total += gramSizes[gram];
+        int[] candidates = new int[total];
+        int n = 0;
+        for (int gram : grams) {
+            if (gramSizes[gram] == 0) continue;
+            System.arraycopy(gramTerms[gram], 0, candidates, n, gramSizes[gram]);
+            n += gramSizes[gram];
+        }
+        Arrays.sort(candidates);
+
+        int[] similar = new int[16];
+        int found = 0;
+        for (int i = 0; i < total; ) {
+            int term = candidates[i];
+            int run = i;
+            while (i < total && candidates[i] == term) i++;
+            if (i - run < need || postingSizes[term] == 0) continue;
+
+            // ✏️ Re-rank: keep only candidates within the edit budget, by their real distance
+            int typos = prefixDistance(word, termText[term], maxEdits);
+            if (typos == 0 || typos > maxEdits) continue;
+            if (found == similar.length) similar = Arrays.copyOf(similar, found * 2);
+            similar[found++] = (term << 2) | typos;
+        }
+        return Arrays.copyOf(similar, found);
+    }
+
+    /**
+     * @return The FLAG_TITLE / FLAG_BODY bits of a note in a term's posting list
+     */
+    private int flagsOf(int term, int id) {
+        int at = Arrays.binarySearch(postings[term], 0, postingSizes[term], id << ID_SHIFT);
+        if (at < 0) at = -at - 1;
+        return at < postingSizes[term] && postings[term][at] >>> ID_SHIFT == id ? postings[term][at] & 3 : 0;
+    }
+
+    private void addGramTerm(int gram, int term) {
+        int[] list = gramTerms[gram];
+        int size = gramSizes[gram];
+        if (list == null) {
+            list = gramTerms[gram] = new int[4];
+        } else if (size == list.length) {
+            list = gramTerms[gram] = Arrays.copyOf(list, size * 2);
+        }
+        list[size] = term;                                 // Term ids only grow: the list stays sorted
+        gramSizes[gram] = size + 1;
+    }
+
+    private void addPosting(int term, int posting) {
+        int[] list = postings[term];
+        int size = postingSizes[term];
+        if (size == list.length) {
+            list = postings[term] = Arrays.copyOf(list, size == 0 ? 4 : size + (size >> 1) + 1);
+        }
+        int at = size;
+        if (size > 0 && list[size - 1] > posting) {           // Ids mostly arrive in order: append is the common case
+            at = -Arrays.binarySearch(list, 0, size, posting) - 1;
+            System.arraycopy(list, at, list, at + 1, size - at);
+        }
+        list[at] = posting;
+        postingSizes[term] = size + 1;
+    }
+
+    private void removePosting(int term, int id) {
+        int[] list = postings[term];
+        int size = postingSizes[term];
+        int at = Arrays.binarySearch(list, 0, size, id << ID_SHIFT);
+        if (at < 0) at = -at - 1;                            // Flags are in the low bits
+        if (at >= size || list[at] >>> ID_SHIFT != id) return;
+        System.arraycopy(list, at + 1, list, at, size - at - 1);
+        postingSizes[term] = size - 1;
+        if (size - 1 == 0) {
+            postings[term] = NO_TERMS;                        // Free lists of terms no note uses any more
+            deadTerms++;
+        }
+    }
+
+    private void ensureNoteCapacity(int id) {
+        if (id < noteTerms.length) return;
+        int capacity = Math.max(id + 1, noteTerms.length * 2);
+        noteTerms = Arrays.copyOf(noteTerms, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        previews = Arrays.copyOf(previews, capacity);
+        modifiedAts = Arrays.copyOf(modifiedAts, capacity);
+    }
+
+    // ---------------------------------------------------------------- 🔤 Typos
+
+    static int maxEdits(int length) {
+        if (length < FUZZY_MIN_LENGTH) return 0;
+        return length < TWO_EDITS_MIN_LENGTH ? 1 : 2;
+    }
+
+    /**
+     * Hashed trigram buckets of a (marker-padded) string, distinct and sorted.
+     */
+    static int[] grams(String text) {
+        if (text.length() < 3) return new int[0];
+        int[] grams = new int[text.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            long key = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+            grams[i] = (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - 16));     // Fibonacci hashing into 2^16 buckets
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) grams[distinct++] = grams[i];
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    /**
+     * Smallest number of single-character edits (insert, delete, substitute, or swap of two
+     * neighbours) turning word into some prefix of term. Stops early once every path costs
+     * more than max.
+     *
+     * @return The distance, or max + 1 if it is larger than max
+     */
+    static int prefixDistance(String word, String term, int max) {
+        int n = word.length();
+        int m = Math.min(term.length(), n + max);          // Longer prefixes cost more than max anyway
+        int[] before = new int[m + 1];                     // Row i - 2, for swaps
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) previous[j] = j;
+
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = i;
+            char a = word.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                char b = term.charAt(j - 1);
+                int d = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + (a == b ? 0 : 1));
+                if (i > 1 && j > 1 && a == term.charAt(j - 2) && word.charAt(i - 2) == b) {
+                    d = Math.min(d, before[j - 2] + 1);
+                }
+                current[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > max) return max + 1;
+            int[] recycled = before;
+            before = previous;
+            previous = current;
+            current = recycled;
+        }
+
+        int best = max + 1;
+        for (int j = 0; j <= m; j++) best = Math.min(best, previous[j]);
+        return best;
+    }
+
+    // ---------------------------------------------------------------- ✂️ Tokens
+
+    /**
+     * Splits text into distinct lower-case words of letters and digits, in order of appearance.
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text == null) return words;
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start <= MAX_TOKEN_LENGTH) words.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static void addTokens(Map<String, Integer> tokens, String text, int flag) {
+        for (String word : tokenize(text)) {
+            Integer flags = tokens.get(word);
+            tokens.put(word, flags == null ? flag : flags | flag);
+        }
+    }
+
+    /**
+     * Same preview as NoteDao.ROW_COLUMNS: the first NoteRow.PREVIEW_LENGTH characters, plus "..." if cut.
+     */
+    private static String preview(String body) {
+        if (body == null || body.length() <= NoteRow.PREVIEW_LENGTH) return body;
+        return body.substring(0, NoteRow.PREVIEW_LENGTH) + "...";
+    }
+}
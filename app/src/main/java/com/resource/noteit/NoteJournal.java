@@ -0,0 +1,449 @@
+package com.resource.noteit;
+
+import android.os.Handler;                       // Debounces journal flushes on the main thread
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;                      // Detects a record torn by a crash mid-write
+
+
+/**
+ * NoteJournal 📓💾
+ *
+ * Crash-safe autosave for the note editor.
+ * Every keystroke in UploadActivity becomes a small edit record (title replacement or body splice)
+ * that is appended to a per-session journal file in filesDir/note_journal, so typing never waits on SQLite:
+ * - ⌨️ edits are buffered on the main thread and flushed after FLUSH_DELAY_MS of idle time
+ * - 📝 appends run on a dedicated journal thread and are fsynced, so they survive process death
+ * - 🗜️ every COMPACT_INTERVAL_MS (or COMPACT_BYTES of journal) the current text is written to the
+ *   notes row through NoteRepository.saveContent(), and the journal restarts from that snapshot
+ * - ♻️ on startup, recover() replays every journal left behind by a crash and writes it to its note
+ * - ✂️ text is trimmed and validated like UploadActivity.saveData() before it reaches the notes row;
+ *   a draft missing its title or body is never stored
+ *
+ * Record layout: type (byte), payload length (int), payload, CRC32 of the payload (int).
+ * A torn last record fails its length or CRC check and replay stops right before it.
+ */
+public final class NoteJournal {
+
+    private static final String TAG = "NoteJournal";
+
+    // 📁 Directory under filesDir holding one journal per open editor
+    static final String DIR_NAME = "note_journal";
+
+    // ⏱️ Idle time after the last keystroke before buffered edits are appended
+    static final long FLUSH_DELAY_MS = 500;
+
+    // 🗜️ Compact into the notes row at least this often while edits keep coming...
+    static final long COMPACT_INTERVAL_MS = 15_000;
+
+    // ...or as soon as the journal grows past this many bytes
+    static final long COMPACT_BYTES = 64 * 1024;
+
+    // Record types
+    private static final byte RECORD_BASE = 1;  // noteId, title, body: full snapshot the journal starts from
+    private static final byte RECORD_TITLE = 2; // new title
+    private static final byte RECORD_EDIT = 3;  // body splice: start, removed length, inserted text
+
+    // 🧵 All journal file I/O runs here, in order, away from the main thread and the database writer
+    private static final ExecutorService journalExecutor = Executors.newSingleThreadExecutor();
+
+    // ♻️ Note ids written by recover(), by journal name; only touched on journalExecutor
+    private static final Map<String, Integer> recoveredIds = new HashMap<>();
+
+    private NoteJournal() {
+    }
+
+    /**
+     * Replays every journal left in filesDir by a crash or process death, writes the recovered text
+     * to its note and deletes the journal. Queued before any new session, so it always runs first.
+     *
+     * @param filesDir   Context.getFilesDir()
+     * @param repository Repository used to write recovered notes
+     */
+    static void recover(File filesDir, NoteRepository repository) {
+        journalExecutor.execute(() -> {
+            File[] journals = new File(filesDir, DIR_NAME).listFiles();
+            if (journals == null) return;
+            for (File file : journals) {
+                if (file.getName().endsWith(".tmp")) {         // Unfinished rewrite; the journal itself is intact
+                    file.delete();
+                    continue;
+                }
+                try {
+                    State state = replay(file);
+                    if (state != null && state.isSavable()) {   // Other drafts are dropped, as the editor would refuse them
+                        int id = repository.saveContent(state.noteId, state.title.trim(), state.body.toString().trim(),
+                                file.lastModified()).get();
+                        recoveredIds.put(file.getName(), id);
+                    }
+                    if (!file.delete()) Log.w(TAG, "Could not delete recovered journal " + file);
+                } catch (Exception e) {
+                    Log.e(TAG, "Failed to recover journal " + file, e); // Keep it for the next start
+                }
+            }
+        });
+    }
+
+    /**
+     * Starts journaling an editor session from the text currently in the editor.
+     *
+     * @param filesDir   Context.getFilesDir()
+     * @param repository Repository used for compaction
+     * @param name       Journal file name, kept across activity recreation
+     * @param noteId     Id of the edited note, or 0 for a new note
+     * @param title      Current title in the editor
+     * @param body       Current body in the editor
+     * @return The session; call close() when the editor is done
+     */
+    static Session start(File filesDir, NoteRepository repository, String name, int noteId,
+                         String title, String body) {
+        Session session = new Session(new File(new File(filesDir, DIR_NAME), name), repository);
+        journalExecutor.execute(() -> {
+            Integer recovered = recoveredIds.remove(name);     // Same editor, recreated after process death
+            session.state = new State(noteId == 0 && recovered != null ? recovered : noteId, title, body);
+            session.lastCompactAt = System.currentTimeMillis();
+            session.rewrite();
+        });
+        return session;
+    }
+
+    /**
+     * One open editor. Record methods must be called on the main thread, in the order the edits happened.
+     */
+    static final class Session {
+
+        private final File file;
+        private final NoteRepository repository;
+        private final Handler mainHandler = new Handler(Looper.getMainLooper());
+        private final Runnable flushRunnable = this::flush;
+
+        // ⌨️ Main thread: records typed since the last flush
+        private List<byte[]> pending = new ArrayList<>();
+        private String pendingTitle;                          // Only the latest title matters
+        private boolean closed;
+
+        // 🧵 Journal thread: mirror of the editor text, open journal stream and compaction bookkeeping
+        private State state;
+        private FileOutputStream out;
+        private long journalBytes;
+        private long lastCompactAt;
+
+        private Session(File file, NoteRepository repository) {
+            this.file = file;
+            this.repository = repository;
+        }
+
+        /**
+         * Records a new title.
+         */
+        void recordTitle(String title) {
+            if (closed) return;
+            pendingTitle = title;
+            scheduleFlush();
+        }
+
+        /**
+         * Records a body change as reported by TextWatcher.onTextChanged():
+         * removed characters at start replaced by inserted.
+         */
+        void recordEdit(int start, int removed, CharSequence inserted) {
+            if (closed) return;
+            pending.add(encode(RECORD_EDIT, payload -> {
+                payload.writeInt(start);
+                payload.writeInt(removed);
+                writeString(payload, inserted.toString());
+            }));
+            scheduleFlush();
+        }
+
+        /**
+         * Appends the buffered edits now and compacts the journal into the notes row.
+         * Used when the editor goes to the background.
+         */
+        void checkpoint() {
+            if (closed) return;
+            mainHandler.removeCallbacks(flushRunnable);
+            List<byte[]> records = drainPending();
+            journalExecutor.execute(() -> {
+                append(records);
+                compact();
+            });
+        }
+
+        /**
+         * Appends the buffered edits, writes the final text to the notes row and deletes the journal.
+         */
+        void close() {
+            if (closed) return;
+            closed = true;
+            mainHandler.removeCallbacks(flushRunnable);
+            List<byte[]> records = drainPending();
+            journalExecutor.execute(() -> {
+                append(records);
+                if (compact()) {
+                    closeStream();
+                    if (!file.delete()) Log.w(TAG, "Could not delete journal " + file);
+                } else {
+                    closeStream(); // Leave the journal for recover() on the next start
+                }
+            });
+        }
+
+        private void scheduleFlush() {
+            mainHandler.removeCallbacks(flushRunnable);
+            mainHandler.postDelayed(flushRunnable, FLUSH_DELAY_MS);
+        }
+
+        private void flush() {
+            List<byte[]> records = drainPending();
+            if (records.isEmpty()) return;
+            journalExecutor.execute(() -> {
+                append(records);
+                if (journalBytes >= COMPACT_BYTES
+                        || System.currentTimeMillis() - lastCompactAt >= COMPACT_INTERVAL_MS) {
+                    compact();
+                }
+            });
+        }
+
+        private List<byte[]> drainPending() {
+            if (pendingTitle != null) pending.add(titleRecord());
+            List<byte[]> records = pending;
+            pending = new ArrayList<>();
+            return records;
+        }
+
+        private byte[] titleRecord() {
+            String title = pendingTitle;
+            pendingTitle = null;
+            return encode(RECORD_TITLE, payload -> writeString(payload, title));
+        }
+
+        // ---------------------------------------------------------------- 🧵 Journal thread
+
+        private void append(List<byte[]> records) {
+            if (records.isEmpty() || state == null) return;
+            try {
+                if (out == null) out = new FileOutputStream(file, true);
+                for (byte[] record : records) {
+                    out.write(record);
+                    journalBytes += record.length;
+                    state.apply(record);
+                }
+                out.getFD().sync();
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to append to journal " + file, e);
+            }
+        }
+
+        /**
+         * Writes the mirrored text to the notes row, then restarts the journal from it.
+         *
+         * @return true if the text is safely in the database
+         */
+        private boolean compact() {
+            if (state == null) return false;
+            lastCompactAt = System.currentTimeMillis();
+            if (!state.dirty) return true;
+            if (!state.isSavable()) return true;           // Never store a note saveData() would refuse
+            try {
+                state.noteId = repository.saveContent(state.noteId, state.title.trim(), state.body.toString().trim(),
+                        lastCompactAt).get();
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to compact journal " + file, e);
+                return false;
+            }
+            state.dirty = false;
+            rewrite();
+            return true;
+        }
+
+        /**
+         * Replaces the journal with a single BASE record of the current state (temp file + rename).
+         */
+        private void rewrite() {
+            closeStream();
+            File dir = file.getParentFile();
+            if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+                Log.e(TAG, "Could not create " + dir);
+                return;
+            }
+            File tmp = new File(dir, file.getName() + ".tmp");
+            byte[] base = state.baseRecord();
+            try (FileOutputStream tmpOut = new FileOutputStream(tmp)) {
+                tmpOut.write(base);
+                tmpOut.getFD().sync();
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to write journal " + tmp, e);
+                return;
+            }
+            if (!tmp.renameTo(file)) {
+                Log.e(TAG, "Failed to replace journal " + file);
+                return;
+            }
+            journalBytes = base.length;
+        }
+
+        private void closeStream() {
+            if (out == null) return;
+            try {
+                out.close();
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to close journal " + file, e);
+            }
+            out = null;
+        }
+    }
+
+    // ---------------------------------------------------------------- 📐 Record format
+
+    /**
+     * Editor text rebuilt from journal records.
+     */
+    private static final class State {
+        int noteId;
+        String title;
+        final StringBuilder body;
+        boolean dirty;                                  // Changed since the last BASE record
+
+        State(int noteId, String title, String body) {
+            this.noteId = noteId;
+            this.title = title;
+            this.body = new StringBuilder(body);
+        }
+
+        /**
+         * Same rule as UploadActivity.saveData(): title and body must both have text once trimmed.
+         */
+        boolean isSavable() {
+            return !title.trim().isEmpty() && !body.toString().trim().isEmpty();
+        }
+
+        byte[] baseRecord() {
+            return encode(RECORD_BASE, payload -> {
+                payload.writeInt(noteId);
+                writeString(payload, title);
+                writeString(payload, body.toString());
+            });
+        }
+
+        void apply(byte[] record) throws IOException {
+            apply(record[0], new DataInputStream(new ByteArrayInputStream(record, 5, record.length - 9)));
+        }
+
+        void apply(byte type, DataInputStream payload) throws IOException {
+            if (type == RECORD_TITLE) {
+                title = readString(payload);
+            } else if (type == RECORD_EDIT) {
+                int start = payload.readInt();
+                int removed = payload.readInt();
+                String inserted = readString(payload);
+                if (start < 0 || removed < 0 || start + removed > body.length()) {
+                    throw new IOException("Edit out of range");
+                }
+                body.replace(start, start + removed, inserted);
+            } else {
+                throw new IOException("Unexpected record type " + type);
+            }
+            dirty = true;
+        }
+    }
+
+    /**
+     * Rebuilds the editor text from a journal file.
+     *
+     * @return The replayed state, or null if the journal has no valid BASE record
+     */
+    private static State replay(File file) throws IOException {
+        State state = null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                byte type;
+                byte[] payload;
+                try {
+                    type = in.readByte();
+                    int length = in.readInt();
+                    if (length < 0 || length > in.available()) break;  // Torn record
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    if (in.readInt() != crc(type, payload)) break;     // Torn or corrupt record
+                } catch (EOFException e) {
+                    break;
+                }
+                DataInputStream fields = new DataInputStream(new ByteArrayInputStream(payload));
+                if (type == RECORD_BASE) {
+                    state = new State(fields.readInt(), readString(fields), readString(fields));
+                } else if (state != null) {
+                    try {
+                        state.apply(type, fields);
+                    } catch (IOException e) {
+                        break;                                           // Stop at the first bad edit
+                    }
+                }
+            }
+        }
+        if (state != null) state.dirty = true;
+        return state;
+    }
+
+    private interface PayloadWriter {
+        void write(DataOutputStream payload) throws IOException;
+    }
+
+    private static byte[] encode(byte type, PayloadWriter writer) {
+        try {
+            ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+            writer.write(new DataOutputStream(payloadBytes));
+            byte[] payload = payloadBytes.toByteArray();
+            ByteArrayOutputStream record = new ByteArrayOutputStream(payload.length + 9);
+            DataOutputStream out = new DataOutputStream(record);
+            out.writeByte(type);
+            out.writeInt(payload.length);
+            out.write(payload);
+            out.writeInt(crc(type, payload));
+            return record.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);                          // In-memory streams do not fail
+        }
+    }
+
+    private static int crc(byte type, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    // Strings are length-prefixed UTF-8 (writeUTF is limited to 64 KB)
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) throw new IOException("Negative string length");
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
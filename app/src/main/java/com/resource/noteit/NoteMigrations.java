@@ -0,0 +1,220 @@
+package com.resource.noteit;
+
+import android.content.ContentValues;          // Row values for the timestamp back-fill
+import android.database.Cursor;                // Reads the old rows during migration
+import android.database.sqlite.SQLiteDatabase; // Conflict constants for update()
+
+import androidx.room.migration.Migration;      // Describes how to move the schema between versions
+import androidx.sqlite.db.SupportSQLiteDatabase; // Raw database handle used inside migrations
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;             // Parses the old display strings
+import java.util.Locale;
+
+
+/**
+ * NoteMigrations 🧳🏛️
+ *
+ * Schema migrations for NoteDatabase. Every version bump adds a Migration here and to ALL,
+ * so upgrading the app never throws away the user's notes.
+ */
+final class NoteMigrations {
+
+    private NoteMigrations() {
+        // Static migrations only
+    }
+
+    /**
+     * Version 2 → 3: adds the "notes_fts" full-text index over note titles and bodies.
+     * Creates the external-content FTS4 table, the sync triggers Room expects for it,
+     * and rebuilds the index from the rows already stored in "notes".
+     */
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `notes_fts` USING FTS4("
+                    + "`dataTitle` TEXT, `dataDesc` TEXT, tokenize=unicode61, content=`notes`)");
+            createFtsTriggers(db);
+            db.execSQL("INSERT INTO `notes_fts`(`notes_fts`) VALUES('rebuild')"); // Index existing notes
+        }
+    };
+
+    /**
+     * Version 3 → 4: replaces the "dateTime" display string with numeric createdAt / modifiedAt
+     * epoch-millis columns and an index on modifiedAt.
+     *
+     * SQLite cannot drop a column on older devices, so the table is rebuilt:
+     * the old strings are parsed with the pattern UploadActivity used to write them,
+     * rows are copied into the new table with the same ids, and the FTS sync triggers
+     * (dropped together with the old table) are recreated.
+     */
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `notes_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`dataTitle` TEXT, `dataDesc` TEXT, `createdAt` INTEGER NOT NULL, `modifiedAt` INTEGER NOT NULL)");
+            db.execSQL("INSERT INTO `notes_new` (`id`, `dataTitle`, `dataDesc`, `createdAt`, `modifiedAt`) "
+                    + "SELECT `id`, `dataTitle`, `dataDesc`, 0, 0 FROM `notes`");
+
+            // Back-fill the timestamps from the old display strings
+            long fallback = System.currentTimeMillis();
+            try (Cursor cursor = db.query("SELECT `id`, `dateTime` FROM `notes`")) {
+                ContentValues values = new ContentValues();
+                while (cursor.moveToNext()) {
+                    long millis = parseLegacyDateTime(cursor.getString(1), fallback);
+                    values.put("createdAt", millis);
+                    values.put("modifiedAt", millis);
+                    db.update("notes_new", SQLiteDatabase.CONFLICT_NONE, values,
+                            "id = ?", new Object[]{cursor.getInt(0)});
+                }
+            }
+
+            db.execSQL("DROP TABLE `notes`");
+            db.execSQL("ALTER TABLE `notes_new` RENAME TO `notes`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_notes_modifiedAt` ON `notes` (`modifiedAt`)");
+            createFtsTriggers(db);
+            db.execSQL("INSERT INTO `notes_fts`(`notes_fts`) VALUES('rebuild')");
+        }
+    };
+
+    /**
+     * Version 4 → 5: adds out-of-row storage for large note bodies.
+     * Existing notes stay inline (bodyExternal = 0) and move out of row the next time they are saved.
+     */
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `notes` ADD COLUMN `bodyExternal` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `note_body_chunks` (`noteId` INTEGER NOT NULL, "
+                    + "`chunkIndex` INTEGER NOT NULL, `data` BLOB NOT NULL, PRIMARY KEY(`noteId`, `chunkIndex`), "
+                    + "FOREIGN KEY(`noteId`) REFERENCES `notes`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+        }
+    };
+
+    /**
+     * Version 5 → 6: adds the "note_revisions" table holding the delta-encoded revision history.
+     * Existing notes start without history; their current text becomes revision 0 on the first edit.
+     */
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `note_revisions` (`noteId` INTEGER NOT NULL, "
+                    + "`revision` INTEGER NOT NULL, `createdAt` INTEGER NOT NULL, `snapshot` INTEGER NOT NULL, "
+                    + "`dataTitle` TEXT, `data` BLOB NOT NULL, PRIMARY KEY(`noteId`, `revision`), "
+                    + "FOREIGN KEY(`noteId`) REFERENCES `notes`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+        }
+    };
+
+    /**
+     * Version 6 → 7: prepares notes for cloud sync.
+     * Adds a unique global syncId (back-filled with random ids), the syncDirty flag (existing
+     * notes start dirty so the first sync uploads them once) and the "note_tombstones" table.
+     */
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `notes` ADD COLUMN `syncId` TEXT");
+            db.execSQL("ALTER TABLE `notes` ADD COLUMN `syncDirty` INTEGER NOT NULL DEFAULT 1");
+            db.execSQL("UPDATE `notes` SET `syncId` = lower(hex(randomblob(16))) WHERE `syncId` IS NULL");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_notes_syncId` ON `notes` (`syncId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_notes_syncDirty` ON `notes` (`syncDirty`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `note_tombstones` (`syncId` TEXT NOT NULL, "
+                    + "`deletedAt` INTEGER NOT NULL, PRIMARY KEY(`syncId`))");
+        }
+    };
+
+    /**
+     * Version 7 → 8: replaces the syncDirty flag and "note_tombstones" with the coalescing
+     * "note_outbox" table. Pending changes carry over: dirty notes become updates and tombstones
+     * become deletes. The syncDirty column stays (unused) to avoid rebuilding "notes".
+     */
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `note_outbox` (`syncId` TEXT NOT NULL, `op` INTEGER NOT NULL, "
+                    + "`version` INTEGER NOT NULL, `enqueuedAt` INTEGER NOT NULL, `updatedAt` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`syncId`))");
+            db.execSQL("INSERT OR REPLACE INTO `note_outbox` (`syncId`, `op`, `version`, `enqueuedAt`, `updatedAt`) "
+                    + "SELECT `syncId`, " + NoteOutbox.OP_UPDATE + ", 1, `modifiedAt`, `modifiedAt` FROM `notes` "
+                    + "WHERE `syncDirty` = 1 AND `syncId` IS NOT NULL");
+            db.execSQL("INSERT OR REPLACE INTO `note_outbox` (`syncId`, `op`, `version`, `enqueuedAt`, `updatedAt`) "
+                    + "SELECT `syncId`, " + NoteOutbox.OP_DELETE + ", 1, `deletedAt`, `deletedAt` FROM `note_tombstones`");
+            db.execSQL("DROP TABLE IF EXISTS `note_tombstones`");
+            db.execSQL("DROP INDEX IF EXISTS `index_notes_syncDirty`");
+        }
+    };
+
+    /**
+     * Version 8 → 9: adds note attachments ("note_attachments") and the resumable upload queue
+     * ("attachment_uploads").
+     */
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `note_attachments` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`noteId` INTEGER NOT NULL, `hash` TEXT NOT NULL, `fileName` TEXT, `mimeType` TEXT, "
+                    + "`size` INTEGER NOT NULL, `createdAt` INTEGER NOT NULL, "
+                    + "FOREIGN KEY(`noteId`) REFERENCES `notes`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_note_attachments_noteId` ON `note_attachments` (`noteId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_note_attachments_hash` ON `note_attachments` (`hash`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `attachment_uploads` (`hash` TEXT NOT NULL, `sessionUri` TEXT, "
+                    + "`bytesSent` INTEGER NOT NULL, PRIMARY KEY(`hash`))");
+        }
+    };
+
+    /**
+     * Version 9 → 10: adds the "tasks" table. Tasks used to be two JSON strings in the
+     * "TasksPrefs" SharedPreferences; TaskRepository moves them over the first time it runs.
+     */
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `tasks` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`title` TEXT, `completed` INTEGER NOT NULL, `groupName` TEXT, `completedAt` INTEGER NOT NULL)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_tasks_completed_completedAt` ON `tasks` (`completed`, `completedAt`)");
+        }
+    };
+
+    // Every migration, in order, for Room.databaseBuilder().addMigrations()
+    static final Migration[] ALL = {MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7,
+            MIGRATION_7_8, MIGRATION_8_9, MIGRATION_9_10};
+
+    /**
+     * Creates the triggers Room uses to keep the external-content "notes_fts" table in sync with "notes".
+     */
+    private static void createFtsTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_notes_fts_BEFORE_UPDATE "
+                + "BEFORE UPDATE ON `notes` BEGIN DELETE FROM `notes_fts` WHERE `docid`=OLD.`rowid`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_notes_fts_BEFORE_DELETE "
+                + "BEFORE DELETE ON `notes` BEGIN DELETE FROM `notes_fts` WHERE `docid`=OLD.`rowid`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_notes_fts_AFTER_UPDATE "
+                + "AFTER UPDATE ON `notes` BEGIN INSERT INTO `notes_fts`(`docid`, `dataTitle`, `dataDesc`) "
+                + "VALUES (NEW.`rowid`, NEW.`dataTitle`, NEW.`dataDesc`); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_notes_fts_AFTER_INSERT "
+                + "AFTER INSERT ON `notes` BEGIN INSERT INTO `notes_fts`(`docid`, `dataTitle`, `dataDesc`) "
+                + "VALUES (NEW.`rowid`, NEW.`dataTitle`, NEW.`dataDesc`); END");
+    }
+
+    /**
+     * Parses a pre-version-4 "dd MMM yyyy, hh:mm a" string. The strings were written with the
+     * device locale, so that is tried first, then English month names.
+     *
+     * @param dateTime Old display string (may be null)
+     * @param fallback Value used when the string cannot be parsed
+     * @return Epoch millis
+     */
+    static long parseLegacyDateTime(String dateTime, long fallback) {
+        if (dateTime == null || dateTime.isEmpty()) return fallback;
+
+        for (Locale locale : new Locale[]{Locale.getDefault(), Locale.ENGLISH}) {
+            try {
+                SimpleDateFormat format = new SimpleDateFormat(NoteTimeFormatter.PATTERN, locale);
+                format.setLenient(false);
+                return format.parse(dateTime).getTime();
+            } catch (ParseException ignored) {
+                // Try the next locale
+            }
+        }
+        return fallback;
+    }
+}
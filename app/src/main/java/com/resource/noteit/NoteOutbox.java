@@ -0,0 +1,111 @@
+package com.resource.noteit;
+
+import java.util.List;
+
+
+/**
+ * NoteOutbox 📤🧮
+ *
+ * Records every local insert, update and delete of a note in the persistent "note_outbox" table,
+ * coalescing them per note so the sync backend receives at most one operation per note per flush:
+ *
+ *   pending   + new write  →  result
+ *   (none)    + any        →  that write
+ *   INSERT    + UPDATE     →  INSERT   (the push sends the latest content anyway)
+ *   INSERT    + DELETE     →  (nothing: the note never has to reach the backend)
+ *   UPDATE    + UPDATE     →  UPDATE
+ *   UPDATE    + DELETE     →  DELETE
+ *   DELETE    + INSERT     →  UPDATE   (same syncId re-created)
+ *
+ * While an insert is being pushed it is recorded as an update, so a delete made during the push
+ * is still sent; if the push fails, abandon() turns it back into an insert.
+ *
+ * Must be called on the writer thread inside the transaction that performs the write.
+ */
+public class NoteOutbox {
+
+    static final int OP_INSERT = 1;
+    static final int OP_UPDATE = 2;
+    static final int OP_DELETE = 3;
+
+    // Result of merge() when two writes cancel out
+    private static final int OP_NONE = 0;
+
+    private final NoteSyncDao syncDao;
+
+    public NoteOutbox(NoteSyncDao syncDao) {
+        this.syncDao = syncDao;
+    }
+
+    /**
+     * Records one write, coalescing it with the note's pending change.
+     *
+     * @param syncId Global note id
+     * @param op     OP_INSERT, OP_UPDATE or OP_DELETE
+     * @param now    Time of the write (epoch millis)
+     */
+    public void enqueue(String syncId, int op, long now) {
+        if (syncId == null) return;
+        NoteOutboxEntry pending = syncDao.getOutboxEntry(syncId);
+        if (pending == null) {
+            syncDao.putOutboxEntry(new NoteOutboxEntry(syncId, op, 1, now, now));
+            return;
+        }
+        int merged = merge(pending.op, op);
+        if (merged == OP_NONE) {
+            syncDao.deleteOutboxEntry(syncId);               // Insert + delete: nothing left to send
+            return;
+        }
+        pending.op = merged;
+        pending.version++;
+        pending.updatedAt = now;
+        syncDao.putOutboxEntry(pending);
+    }
+
+    /**
+     * Records a write to many notes.
+     *
+     * @param syncIds Global note ids
+     * @param op      OP_INSERT, OP_UPDATE or OP_DELETE
+     * @param now     Time of the write (epoch millis)
+     */
+    public void enqueueAll(List<String> syncIds, int op, long now) {
+        for (String syncId : syncIds) {
+            enqueue(syncId, op, now);
+        }
+    }
+
+    /**
+     * Undoes what takeOutboxBatch() did to an entry whose push failed. A pending insert is
+     * marked as an update while its push is in flight; since the backend never received the note,
+     * the entry becomes an insert again, and a delete made meanwhile cancels it out as usual.
+     *
+     * @param taken Entry as it was taken, before the push
+     */
+    public void abandon(NoteOutboxEntry taken) {
+        if (taken.op != OP_INSERT) return;
+        NoteOutboxEntry current = syncDao.getOutboxEntry(taken.syncId);
+        if (current == null) return;
+        if (current.op == OP_DELETE) {
+            syncDao.deleteOutboxEntry(taken.syncId);        // Insert + delete: nothing left to send
+        } else if (current.op == OP_UPDATE) {
+            current.op = OP_INSERT;
+            syncDao.putOutboxEntry(current);
+        }
+    }
+
+    /**
+     * @param pending Operation already in the outbox
+     * @param next    New operation on the same note
+     * @return The single operation equivalent to both, or OP_NONE if they cancel out
+     */
+    static int merge(int pending, int next) {
+        if (next == OP_DELETE) {
+            return pending == OP_INSERT ? OP_NONE : OP_DELETE;
+        }
+        if (pending == OP_DELETE) {
+            return OP_UPDATE;
+        }
+        return pending; // INSERT stays INSERT, UPDATE stays UPDATE
+    }
+}
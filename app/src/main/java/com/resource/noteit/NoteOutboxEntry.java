@@ -0,0 +1,32 @@
+package com.resource.noteit;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * 📤 NoteOutboxEntry is one pending change waiting to be pushed by NoteSyncEngine.
+ * There is at most one entry per note (keyed by syncId): later writes to the same note are
+ * coalesced into it by NoteOutbox, and an insert followed by a delete removes it entirely.
+ * Only the kind of change is stored; the note's current content is read when the entry is flushed.
+ */
+@Entity(tableName = "note_outbox")
+public class NoteOutboxEntry {
+
+    @PrimaryKey
+    @NonNull
+    public String syncId; // 🌐 Global id of the changed note
+
+    public int op; // ✍️ NoteOutbox.OP_INSERT, OP_UPDATE or OP_DELETE
+    public int version; // 🔢 Bumped on every coalesced write, so a flush only removes what it pushed
+    public long enqueuedAt; // 🕒 First write still pending (flush order)
+    public long updatedAt; // 🕒 Latest write coalesced into this entry (deletion time for OP_DELETE)
+
+    public NoteOutboxEntry(@NonNull String syncId, int op, int version, long enqueuedAt, long updatedAt) {
+        this.syncId = syncId;
+        this.op = op;
+        this.version = version;
+        this.enqueuedAt = enqueuedAt;
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,243 @@
+package com.resource.noteit;
+
+import android.app.AlertDialog;                 // For creating confirmation dialog on delete
+import android.content.Context;                  // To access resources and start activities
+import android.content.res.ColorStateList;       // Card tint for selected / unselected rows
+import android.graphics.Color;                   // To set colors of dialog buttons
+import android.view.LayoutInflater;              // To inflate XML layout into View
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;                  // To display delete icon button
+import android.widget.TextView;                   // To display note title, description and date/time
+
+import androidx.annotation.NonNull;               // For null safety in overridden methods
+import androidx.core.content.ContextCompat;       // For reading colors from resources
+import androidx.paging.PagingDataAdapter;         // Adapter that consumes PagingData page by page
+import androidx.recyclerview.widget.RecyclerView; // RecyclerView view holder base class
+
+import java.util.HashSet;                         // Selected note ids, O(1) membership
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * NotePagingAdapter 📒📄
+ *
+ * Paging-aware replacement for NoteAdapter on the home screen.
+ * Instead of holding every note in memory, it receives PagingData of lightweight NoteRow
+ * projections from a Room PagingSource and only keeps the pages near the viewport loaded.
+ * Full note bodies are never read for the list; they load only when a note is opened.
+ *
+ * When placeholders are enabled, rows that are not loaded yet arrive as null and are
+ * bound as empty cards until their page is fetched.
+ *
+ * Deleting a note only touches the database: Room invalidates the PagingSource and the
+ * adapter receives a fresh page, so no manual notifyItem* calls are needed.
+ *
+ * Long-pressing a note starts multi-select; selected note ids are kept in a set so the
+ * activity can delete them all in one transaction through NoteRepository.deleteByIds().
+ */
+public class NotePagingAdapter extends PagingDataAdapter<NoteRow, NotePagingAdapter.NoteViewHolder> {
+
+    // 🌍 Context of the calling activity for inflating views and starting intents
+    private final Context context;
+
+    // 🗄️ Repository used to delete notes off the main thread
+    private final NoteRepository repository;
+
+    /**
+     * Listener notified whenever the number of selected notes changes.
+     */
+    public interface OnSelectionChangedListener {
+        void onSelectionChanged(int selectedCount);
+    }
+
+    // Payload for rebinding only the selection highlight of a row
+    private static final Object PAYLOAD_SELECTION = new Object();
+
+    // 🎯 Ids of the currently selected notes (multi-select mode is active while non-empty)
+    private final Set<Integer> selectedIds = new HashSet<>();
+
+    // 📞 Optional selection listener (MainActivity)
+    private OnSelectionChangedListener selectionListener;
+
+
+    /**
+     * Constructor for NotePagingAdapter
+     *
+     * @param context    Activity context used to inflate rows and launch the editor
+     * @param repository NoteRepository used to delete notes
+     */
+    public NotePagingAdapter(Context context, NoteRepository repository) {
+        super(NoteRow.DIFF_CALLBACK);
+        this.context = context;
+        this.repository = repository;
+    }
+
+
+    @NonNull
+    @Override
+    public NoteViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        // Inflate the same single note item layout used by NoteAdapter
+        View itemView = LayoutInflater.from(context).inflate(R.layout.item_note, parent, false);
+        return new NoteViewHolder(itemView);
+    }
+
+
+    /**
+     * Binds the note at the given position, or a blank placeholder if its page is not loaded yet.
+     *
+     * @param holder   The ViewHolder to bind data to
+     * @param position The adapter position of the row
+     */
+    @Override
+    public void onBindViewHolder(@NonNull NoteViewHolder holder, int position) {
+        NoteRow note = getItem(position);        // May be null while the page is still loading
+
+        if (note == null) {
+            bindPlaceholder(holder);
+            return;
+        }
+
+        holder.title.setText(note.dataTitle);
+        holder.desc.setText(note.preview);         // Preview already truncated (30 chars + ellipsis) in SQL
+        holder.dateTimeTextView.setText(NoteTimeFormatter.format(note.modifiedAt)); // Format at bind time
+        holder.deleteBtn.setVisibility(View.VISIBLE);
+        bindSelection(holder, note);
+
+        // Long press starts (or extends) multi-select
+        holder.itemView.setOnLongClickListener(v -> {
+            toggleSelection(note.id, holder.getBindingAdapterPosition());
+            return true;
+        });
+
+        // Open UploadActivity for editing, or toggle selection while multi-selecting
+        holder.itemView.setOnClickListener(v -> {
+            if (!selectedIds.isEmpty()) {
+                toggleSelection(note.id, holder.getBindingAdapterPosition());
+                return;
+            }
+            UploadActivity.openNote(context, note.id); // Full body loads only now
+        });
+
+        // Confirm and delete; Room invalidation refreshes the paged list on its own
+        holder.deleteBtn.setOnClickListener(v -> {
+            AlertDialog dialog = new AlertDialog.Builder(context)
+                    .setTitle("Delete Note")
+                    .setMessage("Are you sure you want to delete this note?")
+                    .setIcon(R.drawable.ic_dialog_alert)
+                    .setPositiveButton("Yes", (dialogInterface, which) -> repository.deleteById(note.id))
+                    .setNegativeButton("No", null)
+                    .create();
+
+            dialog.setOnShowListener(dialogInterface -> {
+                dialog.getButton(AlertDialog.BUTTON_POSITIVE).setTextColor(Color.RED);
+                dialog.getButton(AlertDialog.BUTTON_NEGATIVE).setTextColor(Color.RED);
+            });
+
+            dialog.show();
+        });
+    }
+
+
+    /**
+     * Partial bind: a selection payload only refreshes the row highlight.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull NoteViewHolder holder, int position, @NonNull List<Object> payloads) {
+        NoteRow note = getItem(position);
+        if (note != null && !payloads.isEmpty() && payloads.contains(PAYLOAD_SELECTION)) {
+            bindSelection(holder, note);
+            return;
+        }
+        super.onBindViewHolder(holder, position, payloads);
+    }
+
+
+    /**
+     * Clears a recycled row so it shows as an empty card until its page arrives.
+     */
+    private void bindPlaceholder(NoteViewHolder holder) {
+        holder.title.setText("");
+        holder.desc.setText("");
+        holder.dateTimeTextView.setText("");
+        holder.deleteBtn.setVisibility(View.INVISIBLE);
+        holder.itemView.setOnClickListener(null);
+        holder.itemView.setOnLongClickListener(null);
+        holder.deleteBtn.setOnClickListener(null);
+        holder.itemView.setBackgroundTintList(ColorStateList.valueOf(ContextCompat.getColor(context, R.color.note_card)));
+    }
+
+
+    /**
+     * Tints the card to show whether the note is selected.
+     */
+    private void bindSelection(NoteViewHolder holder, NoteRow note) {
+        int color = selectedIds.contains(note.id) ? R.color.selectedTask : R.color.note_card;
+        holder.itemView.setBackgroundTintList(ColorStateList.valueOf(ContextCompat.getColor(context, color)));
+    }
+
+
+    /**
+     * Adds or removes a note from the selection and rebinds only that row's highlight.
+     */
+    private void toggleSelection(int noteId, int position) {
+        if (!selectedIds.remove(noteId)) {
+            selectedIds.add(noteId);
+        }
+        if (position != RecyclerView.NO_POSITION) {
+            notifyItemChanged(position, PAYLOAD_SELECTION);
+        }
+        if (selectionListener != null) {
+            selectionListener.onSelectionChanged(selectedIds.size());
+        }
+    }
+
+
+    /**
+     * Sets the listener notified when the selection changes.
+     */
+    public void setOnSelectionChangedListener(OnSelectionChangedListener listener) {
+        this.selectionListener = listener;
+    }
+
+
+    /**
+     * Returns a copy of the selected note ids.
+     */
+    public Set<Integer> getSelectedIds() {
+        return new HashSet<>(selectedIds);
+    }
+
+
+    /**
+     * Clears the selection and removes the highlight from the visible rows.
+     */
+    public void clearSelection() {
+        if (selectedIds.isEmpty()) return;
+        selectedIds.clear();
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
+        if (selectionListener != null) {
+            selectionListener.onSelectionChanged(0);
+        }
+    }
+
+
+    /**
+     * ViewHolder for item_note.xml rows
+     */
+    static class NoteViewHolder extends RecyclerView.ViewHolder {
+
+        TextView title, desc;              // Views for note title and description
+        TextView dateTimeTextView;        // View for formatted date/time string
+        ImageView deleteBtn;              // Delete button view
+
+        NoteViewHolder(@NonNull View itemView) {
+            super(itemView);
+            title = itemView.findViewById(R.id.noteTitle);
+            desc = itemView.findViewById(R.id.noteDesc);
+            dateTimeTextView = itemView.findViewById(R.id.textViewDateTime);
+            deleteBtn = itemView.findViewById(R.id.deleteBtn);
+        }
+    }
+}
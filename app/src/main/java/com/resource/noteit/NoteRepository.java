@@ -0,0 +1,800 @@
+package com.resource.noteit;
+
+import android.content.Context;                  // Used to get the NoteDatabase instance
+import android.os.Handler;                       // Posts results back to the main thread
+import android.os.Looper;                        // Main looper for the result handler
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;              // Observable query results for activities
+import androidx.paging.Pager;                    // Builds the paged note stream
+import androidx.paging.PagingConfig;             // Page size / prefetch / placeholders
+import androidx.paging.PagingData;               // One snapshot of paged notes
+import androidx.paging.PagingLiveData;           // Exposes a Pager as LiveData
+import androidx.room.InvalidationTracker;        // Notifies when the "notes" table changes
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;             // Lets NoteJournal wait for its compaction write
+
+
+/**
+ * NoteRepository 🗄️🧵
+ *
+ * Single entry point for all note database work.
+ * Activities and adapters never touch NoteDao directly, so no database I/O runs on the main thread:
+ * - ✍️ writes (insert/update/delete) are serialized on NoteDatabase.databaseWriteExecutor
+ * - 📖 reads (searches) run on NoteDatabase.databaseReadExecutor
+ * - 👀 results are exposed as LiveData that activities observe, or delivered to a Callback on the main thread
+ * - 🔄 Room's InvalidationTracker re-runs the active search whenever "notes" changes, so screens
+ *   never need to reload on resume; adapters diff the new results on a background thread
+ * - 🌐 every local insert/update/delete is recorded in the coalescing NoteOutbox, so NoteSyncEngine only pushes what changed
+ * - 🧠 every write also updates the in-memory NoteIndex, once its transaction has committed;
+ *   the index answers searches once it is loaded
+ */
+public class NoteRepository {
+
+    /**
+     * Callback for one-shot results, always invoked on the main thread.
+     *
+     * @param <T> Type of the result
+     */
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    private static final String TAG = "NoteRepository";
+
+    // 🧠 Notes loaded into the NoteIndex per writer task at startup
+    private static final int INDEX_PAGE_SIZE = 500;
+
+    // Singleton instance shared by every screen
+    private static volatile NoteRepository INSTANCE;
+
+    private final NoteDatabase db;
+    private final NoteDao noteDao;
+    private final NoteSyncDao syncDao;
+    private final NoteOutbox outbox;       // 📤 Pending pushes, one coalesced entry per note
+    private final AttachmentDao attachmentDao;
+    private final NoteBodyStore bodyStore; // 📦 Out-of-row storage for very large bodies
+    private final NoteHistory history;     // 🕰️ Delta-encoded revisions of every content write
+    private final NoteIndex index = new NoteIndex(); // 🧠 In-memory search index, kept in step by every write
+    private final List<Runnable> pendingIndexChanges = new ArrayList<>(); // 🧠 Queued by the running transaction (writer thread only)
+    private final ExecutorService writeExecutor;
+    private final ExecutorService readExecutor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // 🔍 Debounces, cancels and narrows searches; publishes each result together with its match state
+    private final NoteSearchScheduler searchScheduler;
+
+    /**
+     * Package-private so instrumented tests can run a repository over an in-memory database.
+     */
+    NoteRepository(NoteDatabase db, TaskSearch taskSearch, int inlineBodyThreshold, int searchDebounceMs) {
+        this.db = db;
+        this.noteDao = db.noteDao();
+        this.syncDao = db.noteSyncDao();
+        this.outbox = new NoteOutbox(syncDao);
+        this.attachmentDao = db.attachmentDao();
+        this.bodyStore = new NoteBodyStore(db.noteBodyDao(), inlineBodyThreshold);
+        this.history = new NoteHistory(db.noteRevisionDao());
+        this.writeExecutor = NoteDatabase.databaseWriteExecutor;
+        this.readExecutor = NoteDatabase.databaseReadExecutor;
+        this.searchScheduler = new NoteSearchScheduler(
+                new UnifiedSearch(index, query -> NoteSearch.search(noteDao, query), taskSearch, readExecutor),
+                readExecutor, searchDebounceMs);
+
+        // 🔄 Refresh the active search after any write to "notes" or "tasks" (insert, update, delete, bulk ops)
+        db.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("notes", "tasks") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                if (tables.contains("tasks")) taskSearch.invalidate(); // Before the refresh reads them
+                searchScheduler.refresh();
+            }
+        });
+
+        loadIndex(0, SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * Returns the singleton repository, creating it on first use.
+     *
+     * @param context Any context; the application context is used for the database
+     * @return Shared NoteRepository
+     */
+    public static NoteRepository getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (NoteRepository.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new NoteRepository(NoteDatabase.getInstance(context),
+                            new TaskSearch(TaskRepository.getInstance(context)),
+                            context.getResources().getInteger(R.integer.note_body_inline_threshold),
+                            context.getResources().getInteger(R.integer.search_debounce_ms));
+                    NoteJournal.recover(context.getFilesDir(), INSTANCE); // ♻️ Replay autosaves left by a crash
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    // ---------------------------------------------------------------- 👀 Observable queries
+
+    /**
+     * Paged stream of list rows (no full bodies). Room re-queries on the reader pool whenever the table changes.
+     *
+     * @param config Page size, prefetch distance and placeholder settings
+     * @return LiveData emitting a new PagingData after every change to "notes"
+     */
+    public LiveData<PagingData<NoteRow>> getPagedNotes(PagingConfig config) {
+        return PagingLiveData.getLiveData(new Pager<>(config, noteDao::getNoteRowsPaged));
+    }
+
+    /**
+     * Ranked note and task hits for the latest query passed to search(). Each result carries its
+     * query and whether anything matched, so hits and match state always belong together.
+     *
+     * @return LiveData holding the newest result
+     */
+    public LiveData<UnifiedSearch.Result> getSearchResults() {
+        return searchScheduler.getResults();
+    }
+
+    /**
+     * Schedules a ranked search of notes and tasks on the reader pool; call it on every keystroke. It runs once typing
+     * pauses, replaces any older query, and is published to getSearchResults(). The query stays
+     * active, and is re-run whenever the "notes" table changes, until clearSearch().
+     *
+     * @param query Text typed by the user
+     */
+    public void search(String query) {
+        searchScheduler.submit(query);
+    }
+
+    /**
+     * Stops refreshing search results when the search box is cleared.
+     */
+    public void clearSearch() {
+        searchScheduler.cancel(); // Drops the pending query and any search still in flight
+    }
+
+    /**
+     * Fills the NoteIndex one page at a time, each page as its own writer task: writes made
+     * while it loads run in between and update the index themselves, so it never misses one.
+     */
+    private void loadIndex(int afterId, long startedAt) {
+        writeExecutor.execute(() -> {
+            List<DataClass> page = noteDao.getNotesAfter(afterId, INDEX_PAGE_SIZE);
+            for (DataClass note : page) {
+                // 📦 Out-of-row bodies are indexed in full, not by their preview; no write runs in between
+                String body = note.bodyExternal ? bodyStore.read(note.id) : note.dataDesc;
+                index.put(note.id, note.dataTitle, body, note.modifiedAt);
+            }
+            if (page.size() == INDEX_PAGE_SIZE) {
+                loadIndex(page.get(page.size() - 1).id, startedAt);
+            } else {
+                index.markReady();
+                Log.i(TAG, "Search index loaded in " + (SystemClock.elapsedRealtime() - startedAt)
+                        + " ms: " + index.getStats());
+            }
+        });
+    }
+
+    /**
+     * @return The in-memory search index (e.g. for typeahead suggestions or a footprint report)
+     */
+    public NoteIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Loads one full note on the reader pool. Out-of-row bodies are inflated here too,
+     * so note.getBody() returns the full text on the main thread without touching the database.
+     * The row and its chunks are read in one transaction, so an autosave can't swap them in between.
+     *
+     * @param id       Note id
+     * @param callback Receives the note, or null if it no longer exists, on the main thread
+     * @param onError  Receives the failure if the note could not be read (e.g. a corrupt body), on the main thread
+     */
+    public void loadNote(int id, Callback<DataClass> callback, Callback<RuntimeException> onError) {
+        readExecutor.execute(() -> {
+            DataClass note;
+            try {
+                note = db.runInTransaction(() -> {
+                    DataClass row = noteDao.getNoteById(id);
+                    if (row != null && row.bodyExternal) {
+                        row.cacheFullBody(bodyStore.read(id)); // Resolve a large body now, off the main thread
+                    }
+                    return row;
+                });
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to load note " + id, e);
+                postResult(onError, e);
+                return;
+            }
+            postResult(callback, note);
+        });
+    }
+
+    /**
+     * Lists the saved revisions of a note on the reader pool.
+     *
+     * @param noteId   Note id
+     * @param callback Receives revision numbers, newest first (empty if the note was never edited), on the main thread
+     */
+    public void loadRevisions(int noteId, Callback<List<Integer>> callback) {
+        readExecutor.execute(() -> postResult(callback, db.noteRevisionDao().getRevisionNumbers(noteId)));
+    }
+
+    /**
+     * Rebuilds one old version of a note on the reader pool.
+     *
+     * @param noteId   Note id
+     * @param revision Revision number from loadRevisions()
+     * @param callback Receives the version (title, full body, saved time), or null if it was pruned, on the main thread
+     */
+    public void loadRevision(int noteId, int revision, Callback<DataClass> callback) {
+        readExecutor.execute(() -> postResult(callback, history.read(noteId, revision)));
+    }
+
+    /**
+     * Lets note.getBody() lazily load an out-of-row body. Only call getBody() off the main thread.
+     *
+     * @param note Note read from NoteDao
+     * @return The same note
+     */
+    DataClass attachBodySource(DataClass note) {
+        if (note.bodyExternal) {
+            note.setBodySource(this::readBody);
+        }
+        return note;
+    }
+
+    /**
+     * Reads the current body of a note, re-reading its row in the same transaction as the chunks:
+     * if the body moved back inline since the note was loaded, the inline text is returned.
+     */
+    private String readBody(int noteId) {
+        return db.runInTransaction(() -> {
+            DataClass row = noteDao.getNoteById(noteId);
+            if (row == null) throw new IllegalStateException("Note " + noteId + " no longer exists");
+            return row.bodyExternal ? bodyStore.read(noteId) : row.dataDesc;
+        });
+    }
+
+    // ---------------------------------------------------------------- ✍️ Writes
+    // Bodies longer than the inline threshold are written out of row by NoteBodyStore
+    // in the same transaction as the note row.
+
+    /**
+     * Inserts a note on the writer thread.
+     *
+     * @param note     Note to insert
+     * @param callback Optional callback receiving the generated row id on the main thread
+     */
+    public void insert(DataClass note, Callback<Long> callback) {
+        writeExecutor.execute(() -> {
+            long id = inTransaction(() -> {
+                long rowId = insertNote(note);
+                outbox.enqueue(note.syncId, NoteOutbox.OP_INSERT, System.currentTimeMillis());
+                return rowId;
+            });
+            postResult(callback, id);
+        });
+    }
+
+    /**
+     * Updates a note on the writer thread. An out-of-row body that was never loaded is kept
+     * as stored; change a note's body with updateContent().
+     *
+     * @param note Note with a valid id and the new field values
+     */
+    public void update(DataClass note) {
+        writeExecutor.execute(() -> inTransaction(() -> updateNote(note)));
+    }
+
+    /**
+     * Updates a note's title and body and bumps its modified time on the writer thread,
+     * keeping its creation time.
+     *
+     * @param id         Id of the note to update
+     * @param title      New title
+     * @param desc       New body
+     * @param modifiedAt New modified time (epoch millis)
+     */
+    public void updateContent(int id, String title, String desc, long modifiedAt) {
+        writeExecutor.execute(() -> inTransaction(() -> {
+            if (writeContent(id, title, desc, modifiedAt)) {
+                outbox.enqueue(syncDao.getSyncId(id), NoteOutbox.OP_UPDATE, System.currentTimeMillis());
+            }
+        }));
+    }
+
+    /**
+     * Writes a note's current title and body on the writer thread, inserting it first if it has no row yet
+     * (a new note, or one deleted while it was being edited). Used by NoteJournal to compact autosaved edits.
+     *
+     * @param id         Id of the note, or 0 if it was never stored
+     * @param title      Current title
+     * @param desc       Current body
+     * @param modifiedAt Modified time (epoch millis)
+     * @return Future completing with the id of the stored note
+     */
+    public Future<Integer> saveContent(int id, String title, String desc, long modifiedAt) {
+        return writeExecutor.submit(() -> inTransaction(() -> {
+            if (id > 0 && writeContent(id, title, desc, modifiedAt)) {
+                outbox.enqueue(syncDao.getSyncId(id), NoteOutbox.OP_UPDATE, System.currentTimeMillis());
+                return id;
+            }
+            DataClass note = new DataClass(title, desc, modifiedAt);
+            int newId = (int) insertNote(note);
+            outbox.enqueue(note.syncId, NoteOutbox.OP_INSERT, System.currentTimeMillis());
+            return newId;
+        }));
+    }
+
+    /**
+     * Deletes a note on the writer thread.
+     *
+     * @param note Note to delete (only its id is used)
+     */
+    public void delete(DataClass note) {
+        writeExecutor.execute(() -> inTransaction(() -> {
+            outbox.enqueue(syncDao.getSyncId(note.id), NoteOutbox.OP_DELETE, System.currentTimeMillis());
+            noteDao.delete(note);
+            indexRemove(note.id);
+        }));
+    }
+
+    /**
+     * Deletes a note by id on the writer thread.
+     *
+     * @param id Id of the note to delete
+     */
+    public void deleteById(int id) {
+        writeExecutor.execute(() -> inTransaction(() -> {
+            outbox.enqueue(syncDao.getSyncId(id), NoteOutbox.OP_DELETE, System.currentTimeMillis());
+            noteDao.deleteById(id);
+            indexRemove(id);
+        }));
+    }
+
+    /**
+     * Inserts many notes in a single transaction on the writer thread.
+     *
+     * @param notes    Notes to insert
+     * @param callback Optional callback receiving the generated row ids on the main thread
+     */
+    public void insertAll(List<DataClass> notes, Callback<long[]> callback) {
+        writeExecutor.execute(() -> {
+            long[] ids = inTransaction(() -> {
+                long[] rowIds = insertNotes(notes);
+                long now = System.currentTimeMillis();
+                for (DataClass note : notes) {
+                    outbox.enqueue(note.syncId, NoteOutbox.OP_INSERT, now);
+                }
+                return rowIds;
+            });
+            postResult(callback, ids);
+        });
+    }
+
+    /**
+     * Updates many notes in a single transaction on the writer thread.
+     *
+     * @param notes Notes with valid ids and the new field values
+     */
+    public void updateAll(List<DataClass> notes) {
+        writeExecutor.execute(() -> inTransaction(() -> {
+            for (DataClass note : notes) {
+                updateNote(note);
+            }
+        }));
+    }
+
+    /**
+     * Deletes notes by id in a single transaction on the writer thread.
+     *
+     * @param ids      Ids of the notes to delete
+     * @param callback Optional callback receiving the number of deleted rows on the main thread
+     */
+    public void deleteByIds(Collection<Integer> ids, Callback<Integer> callback) {
+        List<Integer> snapshot = new ArrayList<>(ids); // Caller may keep mutating its selection
+        writeExecutor.execute(() -> {
+            int deleted = inTransaction(() -> {
+                long now = System.currentTimeMillis();
+                for (int start = 0; start < snapshot.size(); start += NoteDao.MAX_BIND_IDS) {
+                    int end = Math.min(start + NoteDao.MAX_BIND_IDS, snapshot.size());
+                    outbox.enqueueAll(syncDao.getSyncIds(new ArrayList<>(snapshot.subList(start, end))),
+                            NoteOutbox.OP_DELETE, now);
+                }
+                int rows = noteDao.deleteByIds(snapshot);
+                for (int id : snapshot) {
+                    indexRemove(id);
+                }
+                return rows;
+            });
+            postResult(callback, deleted);
+        });
+    }
+
+    // ---------------------------------------------------------------- 🌐 Sync (NoteSyncEngine thread only)
+    // These block until the database work is done, so never call them on the main thread.
+
+    /**
+     * One batch of pending changes taken from the outbox, ready to push.
+     */
+    static final class OutboxBatch {
+        final List<NoteOutboxEntry> entries = new ArrayList<>(); // Entries pushed by this batch
+        final List<RemoteNote> notes = new ArrayList<>();         // Their current content (or tombstones)
+        boolean more;                                             // True if entries were left for the next batch
+        int coalescedWrites;                                      // Local writes folded into these entries
+    }
+
+    /**
+     * Takes the next batch of pending changes in flush order, bounded by count and by body size.
+     * Pending inserts in the batch are turned into updates, so a delete made while the push is
+     * in flight is still pushed afterwards; abandonOutbox() undoes this if the push fails.
+     *
+     * @param afterTime   enqueuedAt of the last entry of the previous batch (Long.MIN_VALUE for the first)
+     * @param afterSyncId syncId of the last entry of the previous batch ("" for the first)
+     * @param limit       Max entries per batch
+     * @param maxChars    Max total title + body characters per batch (a single larger note still goes alone)
+     * @return The batch, empty when the outbox has nothing after the position
+     */
+    OutboxBatch takeOutboxBatch(long afterTime, String afterSyncId, int limit, long maxChars) {
+        return writeAndWait(() -> {
+            OutboxBatch batch = new OutboxBatch();
+            List<NoteOutboxEntry> entries = syncDao.getOutbox(afterTime, afterSyncId, limit);
+            batch.more = entries.size() == limit;
+            long chars = 0;
+            for (NoteOutboxEntry entry : entries) {
+                DataClass note = entry.op == NoteOutbox.OP_DELETE ? null : syncDao.getNoteBySyncId(entry.syncId);
+                RemoteNote remote;
+                if (note == null) {
+                    remote = RemoteNote.tombstone(entry.syncId, entry.updatedAt);
+                } else {
+                    String body = attachBodySource(note).getBody();
+                    long size = (note.dataTitle != null ? note.dataTitle.length() : 0)
+                            + (body != null ? body.length() : 0);
+                    if (!batch.entries.isEmpty() && chars + size > maxChars) {
+                        batch.more = true;                    // Size cap reached; the rest goes in the next batch
+                        break;
+                    }
+                    chars += size;
+                    remote = new RemoteNote(note.syncId, note.dataTitle, body, note.createdAt, note.modifiedAt, false);
+                }
+                syncDao.markInsertSent(entry.syncId);
+                batch.entries.add(entry);
+                batch.notes.add(remote);
+                batch.coalescedWrites += entry.version - 1;
+            }
+            return batch;
+        });
+    }
+
+    /**
+     * Removes pushed entries from the outbox; entries written again during the push stay pending.
+     *
+     * @param entries Entries as they were taken
+     */
+    void completeOutbox(List<NoteOutboxEntry> entries) {
+        writeAndWait(() -> {
+            for (NoteOutboxEntry entry : entries) {
+                syncDao.completeOutboxEntry(entry.syncId, entry.version);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Restores entries whose push failed: inserts the backend never received become inserts again.
+     *
+     * @param entries Entries as they were taken
+     */
+    void abandonOutbox(List<NoteOutboxEntry> entries) {
+        writeAndWait(() -> {
+            for (NoteOutboxEntry entry : entries) {
+                outbox.abandon(entry);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Drops every pending change (the account they were made under is gone).
+     *
+     * @return Number of entries dropped
+     */
+    int clearOutbox() {
+        return writeAndWait(syncDao::clearOutbox);
+    }
+
+    /**
+     * @return Number of notes with a pending change
+     */
+    int getOutboxSize() {
+        return syncDao.getOutboxSize();
+    }
+
+    /**
+     * Applies a batch of pulled notes in one transaction, last writer wins by modifiedAt.
+     * A local note that was edited, or deleted, after the remote version is kept (and pushed on the
+     * next sync); otherwise the remote version replaces it and any pending local change of it is dropped.
+     *
+     * @param notes Pulled notes and tombstones
+     * @return Number of notes inserted, updated or deleted locally
+     */
+    int applyRemote(List<RemoteNote> notes) {
+        return writeAndWait(() -> {
+            int applied = 0;
+            for (RemoteNote remote : notes) {
+                DataClass local = syncDao.getNoteBySyncId(remote.syncId);
+                if (local != null && local.modifiedAt >= remote.modifiedAt) {
+                    continue;                                  // Same version (our own push) or newer local edit
+                }
+                if (remote.deleted) {
+                    if (local == null) continue;               // Never seen here, nothing to delete
+                    noteDao.deleteById(local.id);
+                    indexRemove(local.id);
+                } else if (local == null) {
+                    NoteOutboxEntry pending = syncDao.getOutboxEntry(remote.syncId);
+                    if (pending != null && pending.op == NoteOutbox.OP_DELETE && pending.updatedAt >= remote.modifiedAt) {
+                        continue;                              // Deleted here after that version; the delete is still pushed
+                    }
+                    DataClass note = new DataClass(remote.title, remote.body, remote.modifiedAt);
+                    note.createdAt = remote.createdAt;
+                    note.syncId = remote.syncId;
+                    insertNote(note);
+                } else {
+                    writeContent(local.id, remote.title, remote.body, remote.modifiedAt);
+                }
+                syncDao.deleteOutboxEntry(remote.syncId);     // Remote version wins, nothing to push back
+                applied++;
+            }
+            return applied;
+        });
+    }
+
+    // ---------------------------------------------------------------- 💾 Backup (NoteArchive thread only)
+    // These block until the database work is done, so never call them on the main thread.
+
+    /**
+     * Reads the next page of notes in id order; large bodies are resolved lazily on getBody().
+     *
+     * @param afterId Last id of the previous page (0 for the first page)
+     * @param limit   Max notes per page
+     * @return Up to limit notes
+     */
+    List<DataClass> getNotesAfter(int afterId, int limit) {
+        List<DataClass> notes = noteDao.getNotesAfter(afterId, limit);
+        for (DataClass note : notes) {
+            attachBodySource(note);
+        }
+        return notes;
+    }
+
+    /**
+     * @return Number of notes in the database
+     */
+    int getNoteCount() {
+        return noteDao.getNoteCount();
+    }
+
+    /**
+     * Imports a batch of notes in one transaction. Notes are matched by syncId: unknown ones are
+     * inserted, known ones are only overwritten if the imported version is newer (last writer wins).
+     * Every imported note is queued in the outbox so it is pushed on the next sync.
+     *
+     * @param notes Notes read from an archive, with syncId, createdAt and modifiedAt set
+     * @return Number of notes inserted or updated
+     */
+    int importNotes(List<DataClass> notes) {
+        return writeAndWait(() -> {
+            int imported = 0;
+            long now = System.currentTimeMillis();
+            for (DataClass note : notes) {
+                DataClass local = syncDao.getNoteBySyncId(note.syncId);
+                if (local == null) {
+                    insertNote(note);
+                    outbox.enqueue(note.syncId, NoteOutbox.OP_INSERT, now);
+                    imported++;
+                } else if (local.modifiedAt < note.modifiedAt
+                        && writeContent(local.id, note.dataTitle, note.getBody(), note.modifiedAt)) {
+                    outbox.enqueue(note.syncId, NoteOutbox.OP_UPDATE, now);
+                    imported++;
+                }
+            }
+            return imported;
+        });
+    }
+
+    // ---------------------------------------------------------------- 📎 Attachments
+
+    /**
+     * Loads the attachments of a note on the reader pool.
+     *
+     * @param noteId   Note id
+     * @param callback Receives the attachments, oldest first, on the main thread
+     */
+    public void loadAttachments(int noteId, Callback<List<NoteAttachment>> callback) {
+        readExecutor.execute(() -> postResult(callback, attachmentDao.getAttachments(noteId)));
+    }
+
+    /**
+     * Deletes an attachment on the writer thread. Its blob is removed later by garbage collection
+     * if no other attachment uses it.
+     *
+     * @param id Attachment id
+     */
+    public void deleteAttachment(int id) {
+        writeExecutor.execute(() -> attachmentDao.deleteAttachment(id));
+    }
+
+    /**
+     * Adds an attachment row and queues its blob for upload, in one transaction.
+     * Blocks until written (AttachmentManager worker threads only).
+     *
+     * @param attachment Attachment whose blob is already in the AttachmentStore
+     * @return The attachment with its generated id
+     */
+    NoteAttachment addAttachment(NoteAttachment attachment) {
+        return writeAndWait(() -> {
+            attachment.id = (int) attachmentDao.insertAttachment(attachment);
+            attachmentDao.queueUpload(new AttachmentUpload(attachment.hash, null, 0));
+            return attachment;
+        });
+    }
+
+    /**
+     * @return Blobs still waiting to be uploaded (AttachmentManager worker threads only)
+     */
+    List<AttachmentUpload> getPendingUploads() {
+        return attachmentDao.getPendingUploads();
+    }
+
+    /**
+     * Saves the resumable session of an upload in progress, without waiting for the write.
+     */
+    void saveUploadProgress(String hash, String sessionUri, long bytesSent) {
+        writeExecutor.execute(() -> attachmentDao.saveUploadProgress(hash, sessionUri, bytesSent));
+    }
+
+    /**
+     * Removes a fully uploaded blob from the upload queue.
+     */
+    void finishUpload(String hash) {
+        writeExecutor.execute(() -> attachmentDao.deleteUpload(hash));
+    }
+
+    /**
+     * @param hash Content hash
+     * @return true if any attachment uses the blob or it is still queued for upload
+     */
+    boolean isBlobInUse(String hash) {
+        return attachmentDao.countReferences(hash) > 0 || attachmentDao.isUploadPending(hash);
+    }
+
+    private <T> T writeAndWait(Callable<T> work) {
+        try {
+            return writeExecutor.submit(() -> inTransaction(work)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the writer thread", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Database write failed", e.getCause());
+        }
+    }
+
+    // ---------------------------------------------------------------- 🔒 Transaction bodies (writer thread)
+
+    /**
+     * Runs a write transaction, then applies the NoteIndex changes it queued. They are applied
+     * only once the transaction has committed, so a rolled-back write never reaches searches.
+     */
+    private <T> T inTransaction(Callable<T> work) {
+        try {
+            T result = db.runInTransaction(work);
+            for (Runnable change : pendingIndexChanges) change.run();
+            return result;
+        } finally {
+            pendingIndexChanges.clear();
+        }
+    }
+
+    private void inTransaction(Runnable work) {
+        inTransaction(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private void indexPut(int id, String title, String body, long modifiedAt) {
+        pendingIndexChanges.add(() -> index.put(id, title, body, modifiedAt));
+    }
+
+    private void indexRemove(int id) {
+        pendingIndexChanges.add(() -> index.remove(id));
+    }
+
+    private long insertNote(DataClass note) {
+        if (note.syncId == null) note.syncId = UUID.randomUUID().toString();
+        String external = bodyStore.prepare(note);
+        long id = noteDao.insert(note);
+        if (external != null) bodyStore.write((int) id, external);
+        indexPut((int) id, note.dataTitle, external != null ? external : note.dataDesc, note.modifiedAt);
+        return id;
+    }
+
+    private long[] insertNotes(List<DataClass> notes) {
+        String[] external = new String[notes.size()];
+        for (int i = 0; i < external.length; i++) {
+            if (notes.get(i).syncId == null) notes.get(i).syncId = UUID.randomUUID().toString();
+            external[i] = bodyStore.prepare(notes.get(i));
+        }
+        long[] ids = noteDao.insertAll(notes);
+        for (int i = 0; i < ids.length; i++) {
+            if (external[i] != null) bodyStore.write((int) ids[i], external[i]);
+            DataClass note = notes.get(i);
+            indexPut((int) ids[i], note.dataTitle, external[i] != null ? external[i] : note.dataDesc, note.modifiedAt);
+        }
+        return ids;
+    }
+
+    private boolean writeContent(int id, String title, String desc, long modifiedAt) {
+        DataClass old = noteDao.getNoteById(id);
+        if (old == null) return false;
+        recordRevision(old, title, desc, modifiedAt);
+        if (bodyStore.isExternal(desc)) {
+            String preview = NoteBodyStore.preview(desc);
+            if (noteDao.updateContent(id, title, preview, true, modifiedAt) == 0) return false;
+            bodyStore.write(id, desc);
+            indexPut(id, title, desc, modifiedAt);
+        } else {
+            if (noteDao.updateContent(id, title, desc, false, modifiedAt) == 0) return false;
+            bodyStore.clear(id);
+            indexPut(id, title, desc, modifiedAt);
+        }
+        return true;
+    }
+
+    private void updateNote(DataClass note) {
+        attachBodySource(note); // A note loaded without its out-of-row body keeps the stored one, not the preview
+        DataClass old = noteDao.getNoteById(note.id);
+        if (old != null) {
+            recordRevision(old, note.dataTitle, note.getBody(), note.modifiedAt);
+            note.syncId = old.syncId;                     // The global id never changes
+            outbox.enqueue(note.syncId, NoteOutbox.OP_UPDATE, System.currentTimeMillis()); // 🌐 Push on the next sync
+        }
+        String external = bodyStore.prepare(note);
+        noteDao.update(note);
+        if (old != null) indexPut(note.id, note.dataTitle, external != null ? external : note.dataDesc, note.modifiedAt);
+        if (external != null) bodyStore.write(note.id, external);
+        else bodyStore.clear(note.id);
+    }
+
+    /**
+     * Records the version being written in the history, before the row is overwritten,
+     * and queues a pruning pass once a snapshot group is complete.
+     */
+    private void recordRevision(DataClass old, String title, String body, long modifiedAt) {
+        attachBodySource(old);
+        int revision = history.record(old.id, old.dataTitle, old.getBody(), old.modifiedAt, title, body, modifiedAt);
+        if (NoteHistory.shouldPrune(revision)) {
+            int noteId = old.id;
+            writeExecutor.execute(() -> history.prune(noteId)); // 🧹 Runs after this transaction, as its own task
+        }
+    }
+
+    private <T> void postResult(Callback<T> callback, T result) {
+        if (callback != null) {
+            mainHandler.post(() -> callback.onResult(result));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.resource.noteit;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+
+/**
+ * 🕰️ NoteRevision is one saved version of a note.
+ * Most revisions store only a text splice against the previous revision; every
+ * NoteHistory.SNAPSHOT_INTERVAL revisions a Deflate-compressed full snapshot is stored instead,
+ * so rebuilding any version never replays more than SNAPSHOT_INTERVAL deltas.
+ * Revisions are deleted automatically with their note (ON DELETE CASCADE).
+ */
+@Entity(tableName = "note_revisions",
+        primaryKeys = {"noteId", "revision"},
+        foreignKeys = @ForeignKey(entity = DataClass.class,
+                parentColumns = "id",
+                childColumns = "noteId",
+                onDelete = ForeignKey.CASCADE))
+public class NoteRevision {
+
+    public int noteId; // 🆔 Note this revision belongs to
+    public int revision; // 🔢 Revision number, increasing from 0
+    public long createdAt; // 🕒 When this version was saved (epoch millis)
+    public boolean snapshot; // 📸 True if data is a full compressed body, false if it is a delta
+    public String dataTitle; // 🏷️ Title of this version (titles are short, so always stored whole)
+
+    @NonNull
+    public byte[] data; // 🧩 Compressed body (snapshot) or encoded splice (delta)
+
+    public NoteRevision(int noteId, int revision, long createdAt, boolean snapshot, String dataTitle,
+                        @NonNull byte[] data) {
+        this.noteId = noteId;
+        this.revision = revision;
+        this.createdAt = createdAt;
+        this.snapshot = snapshot;
+        this.dataTitle = dataTitle;
+        this.data = data;
+    }
+}
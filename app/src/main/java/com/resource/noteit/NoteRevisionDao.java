@@ -0,0 +1,70 @@
+package com.resource.noteit;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * NoteRevisionDao 🗃️🕰️
+ *
+ * Access to the "note_revisions" table used by NoteHistory.
+ * Reads are bounded: a version is rebuilt from its nearest snapshot plus the deltas after it.
+ */
+@Dao
+public interface NoteRevisionDao {
+
+    /**
+     * Inserts one revision.
+     *
+     * @param revision Revision to insert
+     */
+    @Insert
+    void insert(NoteRevision revision);
+
+    /**
+     * @param noteId Note id
+     * @return The newest revision number, or null if the note has no history yet
+     */
+    @Query("SELECT MAX(revision) FROM note_revisions WHERE noteId = :noteId")
+    Integer getLatestRevision(int noteId);
+
+    /**
+     * @param noteId   Note id
+     * @param revision Revision to rebuild
+     * @return Number of the nearest snapshot at or before the revision, or null if there is none
+     */
+    @Query("SELECT MAX(revision) FROM note_revisions WHERE noteId = :noteId AND snapshot = 1 "
+            + "AND revision <= :revision")
+    Integer getSnapshotAtOrBefore(int noteId, int revision);
+
+    /**
+     * Reads the revisions needed to rebuild a version: its snapshot and the deltas after it.
+     *
+     * @param noteId Note id
+     * @param from   First revision (a snapshot)
+     * @param to     Last revision, inclusive
+     * @return Revisions in ascending order
+     */
+    @Query("SELECT * FROM note_revisions WHERE noteId = :noteId AND revision BETWEEN :from AND :to "
+            + "ORDER BY revision")
+    List<NoteRevision> getRange(int noteId, int from, int to);
+
+    /**
+     * @param noteId Note id
+     * @return Revision numbers of a note, newest first (for listing versions)
+     */
+    @Query("SELECT revision FROM note_revisions WHERE noteId = :noteId ORDER BY revision DESC")
+    List<Integer> getRevisionNumbers(int noteId);
+
+    /**
+     * Deletes every revision older than the given one.
+     *
+     * @param noteId   Note id
+     * @param revision Oldest revision to keep (must be a snapshot)
+     * @return Number of revisions deleted
+     */
+    @Query("DELETE FROM note_revisions WHERE noteId = :noteId AND revision < :revision")
+    int deleteBefore(int noteId, int revision);
+}
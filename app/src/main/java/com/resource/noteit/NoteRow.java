@@ -0,0 +1,49 @@
+package com.resource.noteit;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;     // Row comparison for background list diffing
+
+/**
+ * 📇 NoteRow is the lightweight projection of a note used by the list and search results.
+ * It holds only what a row shows: the id, the title, a short preview cut in SQL with substr(),
+ * and the modified time. The full body is never read for the list; it is loaded by id
+ * only when a note is opened.
+ */
+public class NoteRow {
+
+    // ✂️ Number of body characters kept in the preview (must match NoteDao.ROW_COLUMNS)
+    static final int PREVIEW_LENGTH = 30;
+
+    public int id; // 🆔 Note id
+    public String dataTitle; // 📝 Note title
+    public String preview; // 📄 First PREVIEW_LENGTH characters of the body, with "..." if longer
+    public long modifiedAt; // 🕒 Last modified time (epoch millis)
+
+    /**
+     * Row equality used by DiffUtil: same id and same visible content.
+     *
+     * @param other Row to compare with
+     * @return true if the row would render identically
+     */
+    public boolean sameContentAs(NoteRow other) {
+        return modifiedAt == other.modifiedAt
+                && (dataTitle == null ? other.dataTitle == null : dataTitle.equals(other.dataTitle))
+                && (preview == null ? other.preview == null : preview.equals(other.preview));
+    }
+
+    /**
+     * DiffUtil callback shared by NotePagingAdapter and NoteAdapter.
+     * Rows are the same item when their ids match, and unchanged when every shown field matches.
+     */
+    static final DiffUtil.ItemCallback<NoteRow> DIFF_CALLBACK = new DiffUtil.ItemCallback<NoteRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull NoteRow oldItem, @NonNull NoteRow newItem) {
+            return oldItem.id == newItem.id;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull NoteRow oldItem, @NonNull NoteRow newItem) {
+            return oldItem.sameContentAs(newItem);
+        }
+    };
+}
@@ -0,0 +1,104 @@
+package com.resource.noteit;
+
+import java.nio.ByteBuffer;            // To read the matchinfo() blob as integers
+import java.nio.ByteOrder;             // matchinfo() is written in native byte order
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * NoteSearch 🔎📚
+ *
+ * Helper around the "notes_fts" full-text index.
+ * - toMatchQuery() turns what the user typed into a safe FTS4 prefix query
+ * - rank() scores results from the matchinfo() blob, weighting title hits above body hits
+ * - search() runs both steps against NoteDao
+ */
+public final class NoteSearch {
+
+    // ⚖️ Column weights in notes_fts column order: dataTitle, dataDesc
+    private static final double[] COLUMN_WEIGHTS = {2.0, 1.0};
+
+    private NoteSearch() {
+        // Static helpers only
+    }
+
+    /**
+     * Runs a ranked full-text search over note titles and bodies.
+     *
+     * @param dao      NoteDao to query
+     * @param rawQuery Text typed by the user
+     * @return Matching note rows, best match first (empty if the query has no searchable words)
+     */
+    public static List<NoteRow> search(NoteDao dao, String rawQuery) {
+        String match = toMatchQuery(rawQuery);
+        if (match == null) {
+            return new ArrayList<>();
+        }
+        List<NoteSearchResult> results = rank(dao.searchNotes(match));
+        List<NoteRow> rows = new ArrayList<>(results.size());
+        for (NoteSearchResult result : results) {
+            rows.add(result.row);
+        }
+        return rows;
+    }
+
+    /**
+     * Converts user input into an FTS4 MATCH expression.
+     * Every word becomes a prefix term ("meet" -> meet*) and terms are implicitly ANDed.
+     * Punctuation and FTS operators are dropped so user input can never break the query.
+     *
+     * @param rawQuery Text typed by the user
+     * @return MATCH expression, or null if nothing searchable is left
+     */
+    public static String toMatchQuery(String rawQuery) {
+        if (rawQuery == null) return null;
+
+        StringBuilder match = new StringBuilder();
+        for (String token : rawQuery.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.isEmpty()) continue;
+            if (match.length() > 0) match.append(' ');
+            match.append(token).append('*');
+        }
+        return match.length() == 0 ? null : match.toString();
+    }
+
+    /**
+     * Scores each result from its matchinfo(notes_fts, 'pcx') blob and sorts best first.
+     * For each phrase and column the score adds weight * (hits in this row / hits in all rows),
+     * so rare terms and title matches count the most.
+     *
+     * @param results Rows returned by NoteDao.searchNotes()
+     * @return The same list, sorted by descending rank
+     */
+    public static List<NoteSearchResult> rank(List<NoteSearchResult> results) {
+        for (NoteSearchResult result : results) {
+            result.rank = score(result.matchInfo);
+        }
+        Collections.sort(results, (a, b) -> Double.compare(b.rank, a.rank));
+        return results;
+    }
+
+    private static double score(byte[] matchInfo) {
+        if (matchInfo == null || matchInfo.length < 8) return 0;
+
+        ByteBuffer buffer = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int phrases = buffer.getInt(0);
+        int columns = buffer.getInt(4);
+
+        double score = 0;
+        for (int p = 0; p < phrases; p++) {
+            for (int c = 0; c < columns; c++) {
+                int base = 8 + 12 * (p * columns + c);           // 3 ints per phrase/column pair
+                int hitsThisRow = buffer.getInt(base);
+                int hitsAllRows = buffer.getInt(base + 4);
+                if (hitsThisRow > 0 && hitsAllRows > 0) {
+                    double weight = c < COLUMN_WEIGHTS.length ? COLUMN_WEIGHTS[c] : 1.0;
+                    score += weight * hitsThisRow / hitsAllRows;
+                }
+            }
+        }
+        return score;
+    }
+}
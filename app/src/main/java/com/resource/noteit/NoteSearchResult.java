@@ -0,0 +1,22 @@
+package com.resource.noteit;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Embedded;
+import androidx.room.Ignore;   // Not a column: computed after the query
+
+/**
+ * 🔎 NoteSearchResult is one row returned by NoteDao.searchNotes().
+ * It carries the matching note's list row (no full body) together with the raw FTS matchinfo() blob,
+ * which NoteSearch uses to compute a relevance score.
+ */
+public class NoteSearchResult {
+
+    @Embedded
+    public NoteRow row; // 📇 The matching note's list row
+
+    @ColumnInfo(name = "matchInfo")
+    public byte[] matchInfo; // 📊 matchinfo(notes_fts, 'pcx') as 32-bit native-order integers
+
+    @Ignore
+    public double rank; // 🏅 Relevance score filled in by NoteSearch.rank(), higher is better
+}
@@ -0,0 +1,122 @@
+package com.resource.noteit;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+
+/**
+ * NoteSearchScheduler ⏱️🔍
+ *
+ * Turns keystrokes into as few searches as possible:
+ * - ⏳ debounce: a query only runs once the user stopped typing for debounceMs
+ * - ✂️ cancel: a newer query cancels the one waiting to run, and a search that is already running
+ *   for an older query is dropped instead of published
+ * - 🔁 narrow: a query extending the previous one ("mee" -> "meet") is answered by NoteIndex from
+ *   the previous matches instead of searching every note again
+ * - 📦 one result object: hits and hasMatch come together in a UnifiedSearch.Result tagged with its
+ *   query, so the screen never pairs the hits of one query with the match state of another
+ *
+ * Each query searches notes and tasks through UnifiedSearch.
+ */
+public class NoteSearchScheduler {
+
+    private final UnifiedSearch search;
+    private final ExecutorService executor;
+    private final long debounceMs;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final MutableLiveData<UnifiedSearch.Result> results = new MutableLiveData<>();
+
+    // 🔒 Guarded by this: the query to show, its generation, and the search waiting or running for it
+    private String activeQuery;
+    private int generation;
+    private Runnable pendingRun;
+    private Future<?> running;
+
+    /**
+     * @param search     Notes and tasks search answering the queries
+     * @param executor   Thread pool the searches run on
+     * @param debounceMs Quiet time after the last keystroke before a query runs
+     */
+    NoteSearchScheduler(UnifiedSearch search, ExecutorService executor, long debounceMs) {
+        this.search = search;
+        this.executor = executor;
+        this.debounceMs = debounceMs;
+    }
+
+    /**
+     * @return LiveData holding the newest result; a result is only published if its query is still active
+     */
+    public LiveData<UnifiedSearch.Result> getResults() {
+        return results;
+    }
+
+    /**
+     * Schedules a query after the debounce delay, replacing any query not yet shown.
+     *
+     * @param query Text typed by the user
+     */
+    public synchronized void submit(String query) {
+        activeQuery = query;
+        int scheduled = cancelPending();
+        pendingRun = () -> start(query, scheduled);
+        mainHandler.postDelayed(pendingRun, debounceMs);
+    }
+
+    /**
+     * Re-runs the active query right away, e.g. after the notes changed. Does nothing without one.
+     */
+    public synchronized void refresh() {
+        if (activeQuery == null) return;
+        String query = activeQuery;
+        int scheduled = cancelPending();
+        start(query, scheduled);
+    }
+
+    /**
+     * Stops searching: cancels the pending query and drops any result still in flight.
+     */
+    public synchronized void cancel() {
+        activeQuery = null;
+        cancelPending();
+    }
+
+    /**
+     * Invalidates whatever is waiting or running and returns the generation of the next search.
+     */
+    private int cancelPending() {
+        generation++;
+        if (pendingRun != null) {
+            mainHandler.removeCallbacks(pendingRun);
+            pendingRun = null;
+        }
+        if (running != null) {
+            running.cancel(false);   // Drops it if still queued; a running search is discarded by its generation
+            running = null;
+        }
+        return generation;
+    }
+
+    private synchronized void start(String query, int scheduled) {
+        if (scheduled != generation) return;
+        pendingRun = null;
+        running = executor.submit(() -> run(query, scheduled));
+    }
+
+    private void run(String query, int scheduled) {
+        if (!isCurrent(scheduled)) return;
+        UnifiedSearch.Result result = search.search(query);   // Never under this, which the main thread takes
+        synchronized (this) {
+            if (scheduled == generation) results.postValue(result); // Checked and posted under one lock
+        }
+    }
+
+    private synchronized boolean isCurrent(int scheduled) {
+        return scheduled == generation;
+    }
+}
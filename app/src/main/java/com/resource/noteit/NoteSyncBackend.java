@@ -0,0 +1,71 @@
+package com.resource.noteit;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * NoteSyncBackend ☁️🔌
+ *
+ * Remote store used by NoteSyncEngine. Implementations only need two operations:
+ * - push a batch of changed notes (or tombstones), keyed by syncId
+ * - pull the notes changed after an opaque cursor, in order, one batch at a time
+ *
+ * FirebaseSyncBackend talks to Firebase Realtime Database; the instrumented tests use
+ * InMemorySyncBackend, which keeps everything in memory. Backends are called on
+ * NoteSyncEngine's background thread, so implementations may block.
+ */
+public interface NoteSyncBackend {
+
+    /**
+     * Thrown by backends that need a signed-in user when signing in was refused. NoteSyncEngine
+     * does not retry it; the next sync after the app starts goes through.
+     */
+    final class NotSignedInException extends IOException {
+        public NotSignedInException(Throwable cause) {
+            super("Sync needs a signed-in user", cause);
+        }
+    }
+
+    /**
+     * One batch of pulled changes.
+     */
+    final class Page {
+        public final List<RemoteNote> notes; // Changed notes, oldest change first
+        public final String cursor;          // Cursor to pass to the next pull (unchanged if notes is empty)
+
+        public Page(List<RemoteNote> notes, String cursor) {
+            this.notes = notes;
+            this.cursor = cursor;
+        }
+    }
+
+    /**
+     * Identifies the remote account, signing in first if the backend needs it. Pull cursors are
+     * kept per account, so switching accounts pulls the new account's notes from the beginning,
+     * and pending local changes are never pushed to an account other than the one they were made under.
+     *
+     * @return Account id, or "" for a backend with a single account
+     * @throws IOException If signing in failed
+     */
+    default String accountId() throws IOException {
+        return "";
+    }
+
+    /**
+     * Stores a batch of notes, replacing any remote version with the same syncId.
+     *
+     * @param notes Changed notes and tombstones
+     * @throws IOException If the batch could not be stored; the caller retries the whole batch later
+     */
+    void push(List<RemoteNote> notes) throws IOException;
+
+    /**
+     * Reads the notes changed after a cursor.
+     *
+     * @param cursor Cursor from the previous page, or null to start from the beginning
+     * @param limit  Max notes to return
+     * @return The next batch of changes
+     * @throws IOException If the backend could not be reached
+     */
+    Page pull(String cursor, int limit) throws IOException;
+}
@@ -0,0 +1,109 @@
+package com.resource.noteit;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * NoteSyncDao 🗃️🌐
+ *
+ * Queries used by NoteOutbox and NoteSyncEngine to record local changes and apply remote ones.
+ * Local changes live in the small "note_outbox" table, so a sync only ever reads the notes that
+ * changed, never the whole table.
+ */
+@Dao
+public interface NoteSyncDao {
+
+    /**
+     * @param syncId Global note id
+     * @return The local note, or null if it does not exist on this device
+     */
+    @Query("SELECT * FROM notes WHERE syncId = :syncId")
+    DataClass getNoteBySyncId(String syncId);
+
+    /**
+     * @param id Note id
+     * @return Global id of the note, or null if it does not exist
+     */
+    @Query("SELECT syncId FROM notes WHERE id = :id")
+    String getSyncId(int id);
+
+    /**
+     * @param ids At most NoteDao.MAX_BIND_IDS note ids
+     * @return Global ids of the notes that exist
+     */
+    @Query("SELECT syncId FROM notes WHERE id IN (:ids) AND syncId IS NOT NULL")
+    List<String> getSyncIds(List<Integer> ids);
+
+    /**
+     * @param syncId Global note id
+     * @return The pending change of a note, or null if it has none
+     */
+    @Query("SELECT * FROM note_outbox WHERE syncId = :syncId")
+    NoteOutboxEntry getOutboxEntry(String syncId);
+
+    /**
+     * Inserts or replaces the pending change of a note.
+     *
+     * @param entry Coalesced change
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void putOutboxEntry(NoteOutboxEntry entry);
+
+    /**
+     * Drops the pending change of a note (cancelled insert, or superseded by a remote version).
+     *
+     * @param syncId Global note id
+     */
+    @Query("DELETE FROM note_outbox WHERE syncId = :syncId")
+    void deleteOutboxEntry(String syncId);
+
+    /**
+     * Reads one batch of pending changes in flush order, after a keyset position.
+     *
+     * @param afterTime   enqueuedAt of the last entry of the previous batch
+     * @param afterSyncId syncId of the last entry of the previous batch ("" for the first)
+     * @param limit       Max entries
+     * @return Pending changes ordered by enqueuedAt, then syncId
+     */
+    @Query("SELECT * FROM note_outbox WHERE enqueuedAt > :afterTime "
+            + "OR (enqueuedAt = :afterTime AND syncId > :afterSyncId) ORDER BY enqueuedAt, syncId LIMIT :limit")
+    List<NoteOutboxEntry> getOutbox(long afterTime, String afterSyncId, int limit);
+
+    /**
+     * Turns a pending insert that is being pushed into an update, so a delete arriving while
+     * the push is in flight is still sent instead of cancelling the insert.
+     *
+     * @param syncId Global note id
+     */
+    @Query("UPDATE note_outbox SET op = " + NoteOutbox.OP_UPDATE + " WHERE syncId = :syncId "
+            + "AND op = " + NoteOutbox.OP_INSERT)
+    void markInsertSent(String syncId);
+
+    /**
+     * Removes a pushed change, unless the note was written again while it was being pushed.
+     *
+     * @param syncId  Global note id
+     * @param version Version of the entry that was pushed
+     * @return 1 if the entry was removed
+     */
+    @Query("DELETE FROM note_outbox WHERE syncId = :syncId AND version = :version")
+    int completeOutboxEntry(String syncId, int version);
+
+    /**
+     * Drops every pending change.
+     *
+     * @return Number of entries removed
+     */
+    @Query("DELETE FROM note_outbox")
+    int clearOutbox();
+
+    /**
+     * @return Number of notes with a pending change
+     */
+    @Query("SELECT COUNT(*) FROM note_outbox")
+    int getOutboxSize();
+}
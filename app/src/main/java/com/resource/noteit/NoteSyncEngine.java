@@ -0,0 +1,245 @@
+package com.resource.noteit;
+
+import android.content.Context;
+import android.content.SharedPreferences;        // Stores the pull cursor between syncs
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService; // Runs syncs and delayed retries
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;        // Backoff jitter
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * NoteSyncEngine 🔄☁️
+ *
+ * Two-way delta sync between the local notes and a NoteSyncBackend:
+ * - 🔼 push: the NoteOutbox is flushed in batches bounded by batchSize and MAX_BATCH_CHARS;
+ *   it holds at most one coalesced operation per changed note
+ * - ⏳ a failed flush is retried automatically with exponential backoff (BASE_BACKOFF_MS doubling
+ *   up to MAX_BACKOFF_MS, with jitter); pushed batches stay pushed, and an explicit syncAsync()
+ *   does not wait for the retry
+ * - 🔽 pull: only notes changed after the stored cursor are fetched, in batches, and applied
+ *   with last-writer-wins on modifiedAt; the cursor is saved after every applied batch,
+ *   so an interrupted sync resumes where it stopped
+ * - 🔑 the remote account is checked before every sync: when it changed, the pending changes made
+ *   under the previous account are dropped instead of being pushed to the new one
+ *
+ * Nothing is ever uploaded or downloaded in full: each sync costs work proportional to what changed.
+ * All network and database work runs on a dedicated sync thread.
+ */
+public class NoteSyncEngine {
+
+    private static final String TAG = "NoteSyncEngine";
+
+    // 📦 Default number of notes per push or pull batch
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    // 📏 Max title + body characters pushed in one batch
+    static final long MAX_BATCH_CHARS = 512 * 1024;
+
+    // ⏳ Retry delays after a failed sync: 2 s, 4 s, 8 s ... capped at 5 minutes
+    static final long BASE_BACKOFF_MS = 2_000;
+    static final long MAX_BACKOFF_MS = 5 * 60_000;
+
+    // 🗝️ SharedPreferences file and key of the pull cursor (suffixed with the account id, if any)
+    static final String PREFS_NAME = "SyncPrefs";
+    static final String KEY_PULL_CURSOR = "pull_cursor";
+
+    // 🔑 Account the outbox was last synced with
+    static final String KEY_ACCOUNT = "account";
+
+    // App-wide engine syncing with Firebase
+    private static volatile NoteSyncEngine INSTANCE;
+
+    /**
+     * What one sync transferred.
+     */
+    public static final class Result {
+        public int pushedNotes;     // Changed notes sent
+        public int pushedDeletes;   // Tombstones sent
+        public int pushBatches;     // Push calls made
+        public int coalescedWrites; // Local writes that did not need an operation of their own
+        public int pulledNotes;     // Remote changes received
+        public int appliedNotes;    // Remote changes that actually changed a local note
+        public IOException error;   // Set if the sync stopped early; everything before it was kept
+    }
+
+    private final NoteRepository repository;
+    private final NoteSyncBackend backend;
+    private final SharedPreferences prefs;
+    private final int batchSize;
+
+    private final ScheduledExecutorService syncExecutor = Executors.newSingleThreadScheduledExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean syncQueued = new AtomicBoolean();
+
+    // ⏳ Consecutive failed syncs (sync thread only); 0 after a successful one
+    private int failures;
+
+    // ⏳ Guarded by this: the retry waiting for its backoff delay, if any
+    private ScheduledFuture<?> pendingRetry;
+
+    /**
+     * @param repository Local notes
+     * @param backend    Remote store
+     * @param prefs      Where the pull cursor is kept (one cursor per backend)
+     * @param batchSize  Notes per push or pull batch
+     */
+    public NoteSyncEngine(NoteRepository repository, NoteSyncBackend backend, SharedPreferences prefs, int batchSize) {
+        this.repository = repository;
+        this.backend = backend;
+        this.prefs = prefs;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns the app-wide engine syncing the signed-in user's notes with Firebase, creating it on first use.
+     *
+     * @param context Any context
+     * @return Shared NoteSyncEngine
+     */
+    public static NoteSyncEngine getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (NoteSyncEngine.class) {
+                if (INSTANCE == null) {
+                    Context app = context.getApplicationContext();
+                    INSTANCE = new NoteSyncEngine(NoteRepository.getInstance(app),
+                            FirebaseSyncBackend.forSignedInUser(),
+                            app.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE),
+                            DEFAULT_BATCH_SIZE);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Runs a sync on the sync thread now. A retry waiting for its backoff delay is cancelled and
+     * replaced by this sync; requests made while one is already queued are merged into it.
+     *
+     * @param callback Optional callback receiving the result on the main thread
+     */
+    public void syncAsync(NoteRepository.Callback<Result> callback) {
+        synchronized (this) {
+            if (pendingRetry != null && pendingRetry.cancel(false)) {
+                syncQueued.set(false);                    // The retry never ran; run now instead
+            }
+            pendingRetry = null;
+            if (!syncQueued.compareAndSet(false, true)) return;
+        }
+        syncExecutor.execute(() -> runQueuedSync(callback));
+    }
+
+    private void runQueuedSync(NoteRepository.Callback<Result> callback) {
+        syncQueued.set(false);
+        Result result = sync();
+        if (result.error == null) {
+            failures = 0;
+        } else if (result.error instanceof NoteSyncBackend.NotSignedInException) {
+            failures = 0;                                 // Sign-in was refused; retrying won't change that
+        } else {
+            scheduleRetry(result.error);
+        }
+        if (callback != null) mainHandler.post(() -> callback.onResult(result));
+    }
+
+    /**
+     * Schedules another sync after an exponentially growing, jittered delay.
+     */
+    private void scheduleRetry(IOException error) {
+        long delay = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(failures, 20));
+        delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1); // Jitter: 50-100 %
+        failures++;
+        Log.w(TAG, "Sync failed, retrying in " + delay + " ms", error);
+        synchronized (this) {
+            if (syncQueued.compareAndSet(false, true)) {
+                pendingRetry = syncExecutor.schedule(() -> runQueuedSync(null), delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Pushes local changes, then pulls remote ones. Blocks; call it off the main thread.
+     *
+     * @return What was transferred
+     */
+    public Result sync() {
+        Result result = new Result();
+        try {
+            String account = backend.accountId();
+            switchAccount(account);
+            flushOutbox(result);
+            pull(result, account);
+        } catch (IOException e) {
+            result.error = e;
+        }
+        return result;
+    }
+
+    private void flushOutbox(Result result) throws IOException {
+        long afterTime = Long.MIN_VALUE;
+        String afterSyncId = "";
+        while (true) {
+            NoteRepository.OutboxBatch batch =
+                    repository.takeOutboxBatch(afterTime, afterSyncId, batchSize, MAX_BATCH_CHARS);
+            if (batch.entries.isEmpty()) return;
+
+            try {
+                backend.push(batch.notes);
+            } catch (IOException e) {
+                repository.abandonOutbox(batch.entries); // Unsent inserts must still cancel with a later delete
+                throw e;
+            }
+            repository.completeOutbox(batch.entries);   // Entries written again meanwhile stay pending
+            result.pushBatches++;
+            result.coalescedWrites += batch.coalescedWrites;
+            for (RemoteNote note : batch.notes) {
+                if (note.deleted) result.pushedDeletes++;
+                else result.pushedNotes++;
+            }
+
+            if (!batch.more) return;
+            NoteOutboxEntry last = batch.entries.get(batch.entries.size() - 1);
+            afterTime = last.enqueuedAt;
+            afterSyncId = last.syncId;
+        }
+    }
+
+    /**
+     * Drops the outbox when the account changed since the last sync: its changes were made
+     * under the previous account and must not reach the new one. The notes themselves stay.
+     */
+    private void switchAccount(String account) {
+        String previous = prefs.getString(KEY_ACCOUNT, null);
+        if (account.equals(previous)) return;
+        if (previous != null) {
+            int dropped = repository.clearOutbox();
+            Log.i(TAG, "Account changed, dropped " + dropped + " pending changes of the previous one");
+        }
+        prefs.edit().putString(KEY_ACCOUNT, account).apply();
+    }
+
+    private void pull(Result result, String account) throws IOException {
+        String cursorKey = account.isEmpty() ? KEY_PULL_CURSOR : KEY_PULL_CURSOR + ":" + account;
+        String cursor = prefs.getString(cursorKey, null);
+        while (true) {
+            NoteSyncBackend.Page page = backend.pull(cursor, batchSize);
+            if (page.notes.isEmpty()) return;
+
+            result.appliedNotes += repository.applyRemote(page.notes);
+            result.pulledNotes += page.notes.size();
+            cursor = page.cursor;
+            prefs.edit().putString(cursorKey, cursor).apply(); // Resume from here if interrupted
+
+            if (page.notes.size() < batchSize) return;
+        }
+    }
+}
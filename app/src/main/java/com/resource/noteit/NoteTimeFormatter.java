@@ -0,0 +1,51 @@
+package com.resource.noteit;
+
+import java.text.SimpleDateFormat;               // Formats epoch millis for display
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * NoteTimeFormatter 🕒
+ *
+ * Formats note timestamps (epoch millis) for display at bind time, e.g. "09 Jun 2025, 05:30 PM".
+ * SimpleDateFormat is expensive to build and not thread-safe, so one instance is cached per thread
+ * and only rebuilt when the device locale changes.
+ */
+public final class NoteTimeFormatter {
+
+    // 🗓️ Display pattern shared with the pre-timestamp "dateTime" strings
+    static final String PATTERN = "dd MMM yyyy, hh:mm a";
+
+    private static final ThreadLocal<CachedFormat> CACHE = new ThreadLocal<>();
+
+    private NoteTimeFormatter() {
+        // Static helpers only
+    }
+
+    /**
+     * Formats a timestamp for display.
+     *
+     * @param epochMillis Time in epoch millis
+     * @return Formatted date and time
+     */
+    public static String format(long epochMillis) {
+        Locale locale = Locale.getDefault();
+        CachedFormat cached = CACHE.get();
+        if (cached == null || !cached.locale.equals(locale)) {
+            cached = new CachedFormat(locale);
+            CACHE.set(cached);
+        }
+        return cached.format.format(new Date(epochMillis));
+    }
+
+    // One formatter bound to the locale it was built for
+    private static final class CachedFormat {
+        final Locale locale;
+        final SimpleDateFormat format;
+
+        CachedFormat(Locale locale) {
+            this.locale = locale;
+            this.format = new SimpleDateFormat(PATTERN, locale);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.resource.noteit;
+
+/**
+ * ☁️ RemoteNote is the sync representation of one note, exchanged with a NoteSyncBackend.
+ * Notes are identified by their global syncId; a deletion is sent as a tombstone
+ * (deleted = true, no title or body).
+ */
+public final class RemoteNote {
+
+    public final String syncId; // 🌐 Global note id
+    public final String title; // 📝 Title (null for a tombstone)
+    public final String body; // 📄 Full body (null for a tombstone)
+    public final long createdAt; // 🕒 Creation time (epoch millis)
+    public final long modifiedAt; // 🕒 Last modification time, used for last-writer-wins
+    public final boolean deleted; // 🪦 True if the note was deleted
+
+    public RemoteNote(String syncId, String title, String body, long createdAt, long modifiedAt, boolean deleted) {
+        this.syncId = syncId;
+        this.title = title;
+        this.body = body;
+        this.createdAt = createdAt;
+        this.modifiedAt = modifiedAt;
+        this.deleted = deleted;
+    }
+
+    /**
+     * @param syncId    Global id of the deleted note
+     * @param deletedAt Deletion time, compared like a modification time
+     * @return A tombstone for the note
+     */
+    public static RemoteNote tombstone(String syncId, long deletedAt) {
+        return new RemoteNote(syncId, null, null, 0, deletedAt, true);
+    }
+}
@@ -0,0 +1,158 @@
+package com.resource.noteit;
+
+import android.text.SpannableString;              // Text with highlight spans
+import android.text.Spanned;
+import android.text.TextUtils;
+import android.text.style.BackgroundColorSpan;    // Marks a matched range
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;     // Row comparison for background list diffing
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * 🔎 SearchHit is one row of a UnifiedSearch result: a note or a task.
+ * Besides what the row shows, it carries the ranges of its title and preview that matched the
+ * query. They are computed once on the search thread, so binding a row only applies spans.
+ */
+public class SearchHit {
+
+    static final int TYPE_NOTE = 0;
+    static final int TYPE_TASK = 1;
+
+    private static final int[] NO_MATCHES = new int[0];
+
+    public final int type;            // 🏷️ TYPE_NOTE or TYPE_TASK
+    public final int id;              // 🆔 Note or task id
+    public final String title;        // 📝 Note or task title
+    public final String preview;      // 📄 Note preview (null for tasks)
+    public final long modifiedAt;     // 🕒 Note modified time (0 for tasks)
+    public final boolean completed;   // ✅ Task is done (false for notes)
+    final int score;                  // 🏁 NoteIndex-compatible score; higher ranks first
+
+    // 🖍️ Matched ranges as [start, end) pairs
+    final int[] titleMatches;
+    final int[] previewMatches;
+
+    private SearchHit(int type, int id, String title, String preview, long modifiedAt, boolean completed,
+                      int score, int[] titleMatches, int[] previewMatches) {
+        this.type = type;
+        this.id = id;
+        this.title = title;
+        this.preview = preview;
+        this.modifiedAt = modifiedAt;
+        this.completed = completed;
+        this.score = score;
+        this.titleMatches = titleMatches;
+        this.previewMatches = previewMatches;
+    }
+
+    /**
+     * @param row    Matching note
+     * @param score  Its score
+     * @param words  Query words
+     * @param fuzzy  Per word: also highlight terms within its typo budget (null: exact prefixes only)
+     */
+    static SearchHit note(NoteRow row, int score, String[] words, boolean[] fuzzy) {
+        return new SearchHit(TYPE_NOTE, row.id, row.dataTitle, row.preview, row.modifiedAt, false, score,
+                matches(row.dataTitle, words, fuzzy), matches(row.preview, words, fuzzy));
+    }
+
+    /**
+     * @param task  Matching task
+     * @param score Its score
+     * @param words Query words
+     * @param fuzzy Per word: also highlight terms within its typo budget
+     */
+    static SearchHit task(Task task, int score, String[] words, boolean[] fuzzy) {
+        return new SearchHit(TYPE_TASK, task.getId(), task.getTitle(), null, 0, task.isCompleted(), score,
+                matches(task.getTitle(), words, fuzzy), NO_MATCHES);
+    }
+
+    /**
+     * Finds the words of text matched by the query, the same way NoteIndex matches them: a word
+     * starting with a query word is matched up to its length, and a word within the typo budget of
+     * a fuzzy query word is matched whole.
+     *
+     * @return Ranges as [start, end) pairs, in order
+     */
+    static int[] matches(String text, String[] words, boolean[] fuzzy) {
+        if (text == null || text.isEmpty() || words.length == 0) return NO_MATCHES;
+        String lower = text.toLowerCase(Locale.ROOT);
+        if (lower.length() != text.length()) return NO_MATCHES;   // Offsets would not line up
+
+        int[] ranges = NO_MATCHES;
+        int count = 0;
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                int end = matchEnd(lower.substring(start, i), words, fuzzy);
+                if (end > 0) {
+                    if (count + 2 > ranges.length) ranges = Arrays.copyOf(ranges, Math.max(4, count * 2));
+                    ranges[count++] = start;
+                    ranges[count++] = start + end;
+                }
+                start = -1;
+            }
+        }
+        return count == ranges.length ? ranges : Arrays.copyOf(ranges, count);
+    }
+
+    /**
+     * @return Length of the matched part of token, or 0 if no query word matches it
+     */
+    private static int matchEnd(String token, String[] words, boolean[] fuzzy) {
+        int end = 0;
+        for (int w = 0; w < words.length; w++) {
+            String word = words[w];
+            if (token.startsWith(word)) {
+                end = Math.max(end, word.length());
+            } else if (fuzzy != null && fuzzy[w]) {
+                int edits = NoteIndex.maxEdits(word.length());
+                if (edits > 0 && NoteIndex.prefixDistance(word, token, edits) <= edits) end = token.length();
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Applies the cached ranges to text as background spans; nothing is searched here.
+     *
+     * @param text    Text the ranges were computed for
+     * @param matches Ranges as [start, end) pairs
+     * @param color   Highlight color
+     * @return text itself if nothing matched, else a spanned copy
+     */
+    static CharSequence highlight(String text, int[] matches, int color) {
+        if (text == null || matches.length == 0) return text;
+        SpannableString spanned = new SpannableString(text);
+        for (int i = 0; i < matches.length; i += 2) {
+            spanned.setSpan(new BackgroundColorSpan(color), matches[i], matches[i + 1], Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        }
+        return spanned;
+    }
+
+    /**
+     * DiffUtil callback for NoteAdapter. Hits are the same item when their type and id match.
+     */
+    static final DiffUtil.ItemCallback<SearchHit> DIFF_CALLBACK = new DiffUtil.ItemCallback<SearchHit>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull SearchHit oldItem, @NonNull SearchHit newItem) {
+            return oldItem.type == newItem.type && oldItem.id == newItem.id;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull SearchHit oldItem, @NonNull SearchHit newItem) {
+            return oldItem.modifiedAt == newItem.modifiedAt
+                    && oldItem.completed == newItem.completed
+                    && TextUtils.equals(oldItem.title, newItem.title)
+                    && TextUtils.equals(oldItem.preview, newItem.preview)
+                    && Arrays.equals(oldItem.titleMatches, newItem.titleMatches)
+                    && Arrays.equals(oldItem.previewMatches, newItem.previewMatches);
+        }
+    };
+}
@@ -1,22 +1,34 @@
 package com.resource.noteit;
 
+import androidx.room.ColumnInfo;   // Renames the "group" column (an SQL keyword)
+import androidx.room.Entity;       // Stores tasks as rows of the "tasks" table
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
 /**
  * Task 📋🔥
  *
  * This class represents a Task item used to manage individual tasks in a task list.
  * Each Task has a title, a completion status, and an optional group/category it belongs to.
+ * Tasks are rows of the "tasks" table in NoteDatabase, written one row at a time by TaskRepository.
  *
  * Why use this Task class?
  * - Encapsulates task data and behavior (title, completed status, group)
  * - Provides getter/setter methods to access and modify task properties safely
- * - Overrides equals() and hashCode() so tasks can be compared by title, enabling
- *   correct behavior when using collections like List.contains() or List.remove()
+ * - Overrides equals() and hashCode() so tasks are compared by their stable id, enabling
+ *   correct behavior when using collections like List.contains() or List.remove(), even
+ *   for two tasks with the same title
  */
+@Entity(tableName = "tasks", indices = {@Index({"completed", "completedAt"})})
 public class Task {
 
+    @PrimaryKey(autoGenerate = true)
+    private int id;              // Row id, assigned when the task is first saved (0 until then)
     private String title;        // Title or name of the task
     private boolean completed = false; // Status indicating if task is completed, defaults to false
+    @ColumnInfo(name = "groupName")
     private String group = null; // Optional group/category the task belongs to (null if none)
+    private long completedAt;    // When the task was completed (epoch millis, 0 while open); orders the completed list
 
     /**
      * Constructor to create a Task with a title.
@@ -27,6 +39,24 @@ public class Task {
         this.title = title; // Initialize the task title with the provided value
     }
 
+    /**
+     * Gets the row id.
+     *
+     * @return int The id, or 0 if the task was not saved yet.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the row id; called by Room and by TaskRepository after an insert.
+     *
+     * @param id The row id.
+     */
+    public void setId(int id) {
+        this.id = id;
+    }
+
     /**
      * Gets the task title.
      *
@@ -82,28 +112,48 @@ public class Task {
     }
 
     /**
-     * Override equals() method to compare Task objects by their title.
+     * Gets when the task was completed.
+     *
+     * @return long Epoch millis, or 0 if the task is open.
+     */
+    public long getCompletedAt() {
+        return completedAt;
+    }
+
+    /**
+     * Sets when the task was completed.
+     *
+     * @param completedAt Epoch millis, or 0 if the task is open.
+     */
+    public void setCompletedAt(long completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    /**
+     * Override equals() method to compare Task objects by their id.
      * This helps in determining equality when adding/removing tasks from collections.
+     * A task not saved yet (id 0) is only equal to itself; screens add tasks to their lists
+     * only once TaskRepository has saved them, so the id never changes inside a collection.
      *
      * @param o Object to compare against.
-     * @return boolean True if titles match, false otherwise.
+     * @return boolean True if ids match, false otherwise.
      */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;                // If same object reference, return true
         if (!(o instanceof Task)) return false;    // If not a Task instance, return false
         Task task = (Task) o;                       // Cast the object to Task
-        return title.equals(task.title);            // Compare tasks by title equality
+        return id != 0 && id == task.id;            // Compare saved tasks by id
     }
 
     /**
-     * Override hashCode() method to generate hash based on the title.
+     * Override hashCode() method to generate hash based on the id.
      * Required whenever equals() is overridden for consistent hashing behavior.
      *
-     * @return int Hash code derived from the task's title.
+     * @return int Hash code derived from the task's id.
      */
     @Override
     public int hashCode() {
-        return title.hashCode();                     // Return hash code of the title string
+        return id;                                   // Ids are unique, so the id is its own hash
     }
 }
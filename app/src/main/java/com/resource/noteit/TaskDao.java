@@ -0,0 +1,154 @@
+package com.resource.noteit;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Transaction;  // Runs a default method inside a single database transaction
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TaskDao 🗃️✅
+ *
+ * Access to the "tasks" table used by TaskRepository.
+ * Every change touches only the rows it is about: adding, completing, grouping or deleting a task
+ * never rewrites the other tasks.
+ */
+@Dao
+public interface TaskDao {
+
+    /**
+     * Inserts one task.
+     *
+     * @param task Task to insert
+     * @return Row id of the new task
+     */
+    @Insert
+    long insert(Task task);
+
+    /**
+     * Inserts many tasks (migration, backup import).
+     *
+     * @param tasks Tasks to insert
+     */
+    @Insert
+    void insertAll(List<Task> tasks);
+
+    /**
+     * @param completed true for the completed list, false for the open one
+     * @return Open tasks in the order they were added, or completed tasks in the order they were completed
+     */
+    @Query("SELECT * FROM tasks WHERE completed = :completed ORDER BY completedAt, id")
+    List<Task> getTasks(boolean completed);
+
+    /**
+     * @return Every task: open ones first, then completed ones (same order as getTasks())
+     */
+    @Query("SELECT * FROM tasks ORDER BY completed, completedAt, id")
+    List<Task> getAllTasks();
+
+    /**
+     * Reads the next page of tasks in id order, for streaming them into a backup.
+     *
+     * @param afterId Last id of the previous page (0 for the first page)
+     * @param limit   Max tasks to return
+     * @return Tasks with id > afterId, ascending
+     */
+    @Query("SELECT * FROM tasks WHERE id > :afterId ORDER BY id LIMIT :limit")
+    List<Task> getTasksAfter(int afterId, int limit);
+
+    /**
+     * @return Ids of every task, for skipping tasks a backup import already restored
+     */
+    @Query("SELECT id FROM tasks")
+    List<Integer> getIds();
+
+    /**
+     * @return Titles of every task, for skipping duplicates when importing backups without task ids
+     */
+    @Query("SELECT title FROM tasks")
+    List<String> getTitles();
+
+    /**
+     * Marks one chunk of tasks completed. Callers should use complete(), which splits large id lists.
+     *
+     * @param ids         At most NoteDao.MAX_BIND_IDS task ids
+     * @param completedAt Completion time
+     */
+    @Query("UPDATE tasks SET completed = 1, completedAt = :completedAt WHERE id IN (:ids)")
+    int completeChunk(List<Integer> ids, long completedAt);
+
+    /**
+     * Moves one chunk of tasks to a group. Callers should use setGroup(), which splits large id lists.
+     *
+     * @param ids   At most NoteDao.MAX_BIND_IDS task ids
+     * @param group Group name, or null for no group
+     */
+    @Query("UPDATE tasks SET groupName = :group WHERE id IN (:ids)")
+    int setGroupChunk(List<Integer> ids, String group);
+
+    /**
+     * Deletes one chunk of tasks. Callers should use deleteByIds(), which splits large id lists.
+     *
+     * @param ids At most NoteDao.MAX_BIND_IDS task ids
+     */
+    @Query("DELETE FROM tasks WHERE id IN (:ids)")
+    int deleteByIdChunk(List<Integer> ids);
+
+    /**
+     * Marks any number of tasks completed in a single transaction.
+     *
+     * @param ids         Task ids
+     * @param completedAt Completion time
+     * @return Number of rows updated
+     */
+    @Transaction
+    default int complete(List<Integer> ids, long completedAt) {
+        int updated = 0;
+        for (int start = 0; start < ids.size(); start += NoteDao.MAX_BIND_IDS) {
+            int end = Math.min(start + NoteDao.MAX_BIND_IDS, ids.size());
+            updated += completeChunk(new ArrayList<>(ids.subList(start, end)), completedAt);
+        }
+        return updated;
+    }
+
+    /**
+     * Moves any number of tasks to a group in a single transaction.
+     *
+     * @param ids   Task ids
+     * @param group Group name, or null for no group
+     * @return Number of rows updated
+     */
+    @Transaction
+    default int setGroup(List<Integer> ids, String group) {
+        int updated = 0;
+        for (int start = 0; start < ids.size(); start += NoteDao.MAX_BIND_IDS) {
+            int end = Math.min(start + NoteDao.MAX_BIND_IDS, ids.size());
+            updated += setGroupChunk(new ArrayList<>(ids.subList(start, end)), group);
+        }
+        return updated;
+    }
+
+    /**
+     * Deletes any number of tasks by id in a single transaction.
+     *
+     * @param ids Task ids
+     * @return Number of rows deleted
+     */
+    @Transaction
+    default int deleteByIds(List<Integer> ids) {
+        int deleted = 0;
+        for (int start = 0; start < ids.size(); start += NoteDao.MAX_BIND_IDS) {
+            int end = Math.min(start + NoteDao.MAX_BIND_IDS, ids.size());
+            deleted += deleteByIdChunk(new ArrayList<>(ids.subList(start, end)));
+        }
+        return deleted;
+    }
+
+    /**
+     * @return Number of tasks
+     */
+    @Query("SELECT COUNT(*) FROM tasks")
+    int getTaskCount();
+}
@@ -0,0 +1,192 @@
+package com.resource.noteit;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;   // Members of a group by id: O(1) add/remove, kept in list order
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;         // Named groups, sorted by name
+
+
+/**
+ * TaskGroups 📁✅
+ *
+ * The groups shown on the tasks screen, kept up to date one task at a time:
+ * - 🔢 each group holds its open and its completed tasks in maps keyed by task id, so its counts
+ *   are the sizes of those maps and every add, complete, delete or regroup changes them in O(1)
+ * - 🗂️ named groups are kept sorted by name; tasks without a group are listed first, without a header
+ * - 📕 a collapsed group adds only its header to rows(), so its tasks never reach the adapter
+ *   and are never bound
+ *
+ * Only reset() walks every task, once per load. Building the rows costs one step per group plus
+ * one per visible task. Used on the main thread only.
+ */
+public class TaskGroups {
+
+    // 🔤 Case-insensitive order; names differing only in case still get their own group
+    private static final Comparator<String> ORDER =
+            String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.<String>naturalOrder());
+
+    /**
+     * Header row of a named group. It is an immutable snapshot, so the adapter's background
+     * diff sees when a count or the collapsed state changed.
+     */
+    public static final class Header {
+        final int id;                  // 🆔 Negative and unique per group, never a task id
+        public final String name;      // 📁 Group name
+        public final int open;         // 📋 Open tasks in the group
+        public final int completed;    // ✅ Completed tasks in the group
+        public final boolean collapsed;
+
+        Header(int id, String name, int open, int completed, boolean collapsed) {
+            this.id = id;
+            this.name = name;
+            this.open = open;
+            this.completed = completed;
+            this.collapsed = collapsed;
+        }
+
+        boolean sameContents(Header other) {
+            return open == other.open && completed == other.completed
+                    && collapsed == other.collapsed && name.equals(other.name);
+        }
+    }
+
+    /**
+     * One group and its members, open and completed.
+     */
+    private static final class Group {
+        final int id;
+        final String name;
+        final Map<Integer, Task> open = new LinkedHashMap<>();
+        final Map<Integer, Task> completed = new LinkedHashMap<>();
+
+        Group(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        Map<Integer, Task> members(boolean completedTasks) {
+            return completedTasks ? completed : open;
+        }
+
+        boolean isEmpty() {
+            return open.isEmpty() && completed.isEmpty();
+        }
+    }
+
+    private final Group ungrouped = new Group(0, null);
+    private final TreeMap<String, Group> named = new TreeMap<>(ORDER);
+    private final Set<String> collapsedNames = new HashSet<>(); // Kept across reloads
+    private int lastGroupId;
+
+    /**
+     * Trims a group name typed by the user or read from the table.
+     *
+     * @return The trimmed name, or null for no group
+     */
+    static String normalize(String group) {
+        if (group == null) return null;
+        String trimmed = group.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /**
+     * Rebuilds every group from freshly loaded lists. The only full scan.
+     *
+     * @param open      Open tasks, in list order
+     * @param completed Completed tasks, in list order
+     */
+    public void reset(List<Task> open, List<Task> completed) {
+        ungrouped.open.clear();
+        ungrouped.completed.clear();
+        named.clear();
+        for (Task task : open) add(task);
+        for (Task task : completed) add(task);
+    }
+
+    /**
+     * Adds a task at the end of its group.
+     */
+    public void add(Task task) {
+        groupFor(task.getGroup(), true).members(task.isCompleted()).put(task.getId(), task);
+    }
+
+    /**
+     * Moves a task from its group's open tasks to its completed ones.
+     */
+    public void complete(Task task) {
+        Group group = groupFor(task.getGroup(), false);
+        if (group != null && group.open.remove(task.getId()) != null) {
+            group.completed.put(task.getId(), task);
+        }
+    }
+
+    /**
+     * Removes a deleted task; a group left empty is dropped.
+     */
+    public void remove(Task task) {
+        Group group = groupFor(task.getGroup(), false);
+        if (group == null) return;
+        group.open.remove(task.getId());
+        group.completed.remove(task.getId());
+        if (group != ungrouped && group.isEmpty()) named.remove(group.name);
+    }
+
+    /**
+     * Moves a task to another group and sets its group field.
+     *
+     * @param name New group name; null or blank for no group
+     */
+    public void move(Task task, String name) {
+        remove(task);
+        task.setGroup(normalize(name));
+        add(task);
+    }
+
+    /**
+     * Collapses an expanded group or expands a collapsed one.
+     */
+    public void toggleCollapsed(String name) {
+        if (!collapsedNames.remove(name)) collapsedNames.add(name);
+    }
+
+    /**
+     * @return Names of the groups, sorted
+     */
+    public List<String> names() {
+        return new ArrayList<>(named.keySet());
+    }
+
+    /**
+     * Rows for one list: tasks without a group first, then each named group that has tasks in
+     * this list as a Header followed by its tasks, unless it is collapsed.
+     *
+     * @param completedTasks true for the completed list, false for the open one
+     * @return Task and Header rows
+     */
+    public List<Object> rows(boolean completedTasks) {
+        List<Object> rows = new ArrayList<>(ungrouped.members(completedTasks).values());
+        for (Group group : named.values()) {
+            Map<Integer, Task> members = group.members(completedTasks);
+            if (members.isEmpty()) continue;
+            boolean collapsed = collapsedNames.contains(group.name);
+            rows.add(new Header(-group.id, group.name, group.open.size(), group.completed.size(), collapsed));
+            if (!collapsed) rows.addAll(members.values());
+        }
+        return rows;
+    }
+
+    private Group groupFor(String name, boolean create) {
+        String key = normalize(name);
+        if (key == null) return ungrouped;
+        Group group = named.get(key);
+        if (group == null && create) {
+            group = new Group(++lastGroupId, key);
+            named.put(key, group);
+        }
+        return group;
+    }
+}
@@ -0,0 +1,306 @@
+package com.resource.noteit;
+
+import android.content.Context;
+import android.content.SharedPreferences;        // Where tasks were kept before the "tasks" table
+import android.os.Handler;                       // Posts results back to the main thread
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.gson.Gson;                     // Parses the old JSON task lists, once
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+
+/**
+ * TaskRepository 🗄️✅
+ *
+ * Single entry point for task storage, backed by the "tasks" table in NoteDatabase:
+ * - ✍️ every add, complete, regroup and delete writes only the rows it changes, on
+ *   NoteDatabase.databaseWriteExecutor, so its cost does not grow with the number of tasks
+ * - 📖 lists are read with one indexed query on NoteDatabase.databaseReadExecutor and delivered
+ *   on the main thread
+ * - 🧳 tasks saved by older versions as two JSON strings in the "TasksPrefs" SharedPreferences
+ *   are moved into the table once, as the first write task; reads wait for it
+ */
+public class TaskRepository {
+
+    private static final String TAG = "TaskRepository";
+
+    // 🧳 Where older versions kept the task lists, as Gson JSON arrays
+    private static final String LEGACY_PREFS_NAME = "TasksPrefs";
+    private static final String LEGACY_KEY_TASKS = "Tasks";
+    private static final String LEGACY_KEY_COMPLETED = "CompletedTasks";
+
+    /**
+     * The open and the completed task lists.
+     */
+    public static final class TaskLists {
+        public final List<Task> open;      // In the order they were added
+        public final List<Task> completed; // In the order they were completed
+
+        TaskLists(List<Task> open, List<Task> completed) {
+            this.open = open;
+            this.completed = completed;
+        }
+    }
+
+    private static volatile TaskRepository INSTANCE;
+
+    private final NoteDatabase db;
+    private final TaskDao taskDao;
+    private final ExecutorService writeExecutor;
+    private final ExecutorService readExecutor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Future<?> migration; // 🧳 One-time move out of SharedPreferences; reads wait for it
+
+    /**
+     * Package-private so instrumented tests can run a repository over an in-memory database.
+     */
+    TaskRepository(NoteDatabase db, SharedPreferences legacyPrefs) {
+        this.db = db;
+        this.taskDao = db.taskDao();
+        this.writeExecutor = NoteDatabase.databaseWriteExecutor;
+        this.readExecutor = NoteDatabase.databaseReadExecutor;
+        this.migration = writeExecutor.submit(() -> migrateFromPrefs(legacyPrefs));
+    }
+
+    /**
+     * Returns the singleton repository, creating it on first use.
+     *
+     * @param context Any context; the application context is used
+     * @return Shared TaskRepository
+     */
+    public static TaskRepository getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (TaskRepository.class) {
+                if (INSTANCE == null) {
+                    Context app = context.getApplicationContext();
+                    INSTANCE = new TaskRepository(NoteDatabase.getInstance(app),
+                            app.getSharedPreferences(LEGACY_PREFS_NAME, Context.MODE_PRIVATE));
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    // ---------------------------------------------------------------- 📖 Reads
+
+    /**
+     * Loads the open and completed lists on the reader pool.
+     *
+     * @param callback Receives both lists on the main thread
+     */
+    public void loadTasks(NoteRepository.Callback<TaskLists> callback) {
+        readExecutor.execute(() -> {
+            awaitMigration();
+            TaskLists lists = db.runInTransaction(() ->
+                    new TaskLists(taskDao.getTasks(false), taskDao.getTasks(true)));
+            postResult(callback, lists);
+        });
+    }
+
+    /**
+     * Reads every task, open first. Blocks; call it off the main thread (TaskSearch).
+     *
+     * @return Fresh Task objects, not shared with any screen
+     */
+    List<Task> getAllTasks() {
+        awaitMigration();
+        return taskDao.getAllTasks();
+    }
+
+    /**
+     * Reads the next page of tasks in id order. Blocks; call it off the main thread (NoteArchive).
+     *
+     * @param afterId Last id of the previous page (0 for the first page)
+     * @param limit   Max tasks to return
+     * @return Tasks with id > afterId, ascending
+     */
+    List<Task> getTasksAfter(int afterId, int limit) {
+        awaitMigration();
+        return taskDao.getTasksAfter(afterId, limit);
+    }
+
+    // ---------------------------------------------------------------- ✍️ Writes
+
+    /**
+     * Saves a new task as one row. Its id is set on the writer thread before the callback runs;
+     * screens add the task to their lists in the callback, so every listed task has its final id.
+     *
+     * @param task     New task
+     * @param callback Optional; receives the saved task on the main thread
+     */
+    public void insert(Task task, NoteRepository.Callback<Task> callback) {
+        writeExecutor.execute(() -> {
+            task.setId((int) taskDao.insert(task));
+            postResult(callback, task);
+        });
+    }
+
+    /**
+     * Marks tasks completed, now. Only their rows are updated.
+     *
+     * @param tasks Tasks to complete; their completed flag and time are set right away
+     */
+    public void complete(Collection<Task> tasks) {
+        long now = System.currentTimeMillis();
+        List<Task> snapshot = new ArrayList<>(tasks); // Caller may keep mutating its list
+        for (Task task : snapshot) {
+            task.setCompleted(true);
+            task.setCompletedAt(now);
+        }
+        writeExecutor.execute(() -> taskDao.complete(idsOf(snapshot), now));
+    }
+
+    /**
+     * Moves tasks to a group. Only their rows are updated.
+     *
+     * @param tasks Tasks to move; their group is set right away
+     * @param group Group name, or null for no group
+     */
+    public void setGroup(Collection<Task> tasks, String group) {
+        List<Task> snapshot = new ArrayList<>(tasks);
+        for (Task task : snapshot) task.setGroup(group);
+        writeExecutor.execute(() -> taskDao.setGroup(idsOf(snapshot), group));
+    }
+
+    /**
+     * Deletes tasks. Only their rows are touched.
+     *
+     * @param tasks Tasks to delete
+     */
+    public void delete(Collection<Task> tasks) {
+        List<Task> snapshot = new ArrayList<>(tasks);
+        writeExecutor.execute(() -> taskDao.deleteByIds(idsOf(snapshot)));
+    }
+
+    /**
+     * Adds the tasks of a backup that are not stored yet. Tasks keep their archived id, so a task
+     * whose id is already taken was restored before (or is this app's own) and is skipped; two
+     * tasks with the same title are both kept. Backups written before task ids were exported
+     * fall back to skipping titles that are already stored.
+     * Blocks until committed; call it off the main thread (NoteArchive).
+     *
+     * @param tasks Tasks read from a backup
+     * @return Number of tasks added
+     */
+    int importTasks(List<Task> tasks) {
+        return writeAndWait(() -> {
+            Set<Integer> ids = new HashSet<>(taskDao.getIds());
+            Set<String> titles = null;                // Only read for backups without ids
+            List<Task> added = new ArrayList<>();
+            long now = System.currentTimeMillis();
+            for (Task task : tasks) {
+                if (task.getTitle() == null) continue;
+                if (task.getId() != 0) {
+                    if (!ids.add(task.getId())) continue;
+                } else {
+                    if (titles == null) titles = new HashSet<>(taskDao.getTitles());
+                    if (!titles.add(task.getTitle())) continue;
+                }
+                if (task.isCompleted()) task.setCompletedAt(now + added.size()); // Keeps the archive order
+                added.add(task);
+            }
+            taskDao.insertAll(added);
+            return added.size();
+        });
+    }
+
+    /**
+     * Ids are read on the writer thread, after any pending insert of the same tasks has set them.
+     */
+    private static List<Integer> idsOf(List<Task> tasks) {
+        List<Integer> ids = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (task.getId() != 0) ids.add(task.getId());
+        }
+        return ids;
+    }
+
+    // ---------------------------------------------------------------- 🧳 One-time migration (writer thread)
+
+    /**
+     * Moves the JSON task lists of older versions into the table, keeping their order, then
+     * removes them. If the app died after the rows were committed but before the prefs were
+     * cleared, the table is not empty and the prefs are only cleared.
+     */
+    private void migrateFromPrefs(SharedPreferences prefs) {
+        String openJson = prefs.getString(LEGACY_KEY_TASKS, null);
+        String completedJson = prefs.getString(LEGACY_KEY_COMPLETED, null);
+        if (openJson == null && completedJson == null) return;
+
+        Type type = new TypeToken<List<Task>>() {}.getType();
+        Gson gson = new Gson();
+        try {
+            db.runInTransaction(() -> {
+                if (taskDao.getTaskCount() > 0) return;
+                List<Task> tasks = new ArrayList<>();
+                List<Task> open = openJson == null ? null : gson.<List<Task>>fromJson(openJson, type);
+                List<Task> completed = completedJson == null ? null : gson.<List<Task>>fromJson(completedJson, type);
+                if (open != null) {
+                    for (Task task : open) {
+                        if (task == null || task.getTitle() == null) continue;
+                        task.setId(0);
+                        task.setCompleted(false);
+                        tasks.add(task);
+                    }
+                }
+                if (completed != null) {
+                    for (int i = 0; i < completed.size(); i++) {
+                        Task task = completed.get(i);
+                        if (task == null || task.getTitle() == null) continue;
+                        task.setId(0);
+                        task.setCompleted(true);
+                        task.setCompletedAt(i + 1);          // Completion times were not stored; keep the list order
+                        tasks.add(task);
+                    }
+                }
+                taskDao.insertAll(tasks);
+                Log.i(TAG, "Moved " + tasks.size() + " tasks out of SharedPreferences");
+            });
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Could not migrate tasks; keeping them in SharedPreferences", e);
+            return;
+        }
+        prefs.edit().remove(LEGACY_KEY_TASKS).remove(LEGACY_KEY_COMPLETED).commit();
+    }
+
+    private void awaitMigration() {
+        try {
+            migration.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Task migration failed", e.getCause());
+        }
+    }
+
+    // ---------------------------------------------------------------- 🧵 Threads
+
+    private <T> T writeAndWait(Callable<T> work) {
+        try {
+            return writeExecutor.submit(() -> db.runInTransaction(work)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the writer thread", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Database write failed", e.getCause());
+        }
+    }
+
+    private <T> void postResult(NoteRepository.Callback<T> callback, T result) {
+        if (callback != null) {
+            mainHandler.post(() -> callback.onResult(result));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.resource.noteit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * TaskSearch ✅🔍
+ *
+ * Searches task titles with the same rules and scores as NoteIndex, so task hits can be merged
+ * with note hits into one ranked list:
+ * - 🔤 every query word must start a word of the title; words of 4+ characters may also match
+ *   with typos, scoring lower
+ * - 🏁 a word scores NoteIndex.TITLE_SCORE * (MAX_EDITS + 1 - typos), like a title hit in a note
+ * - 📋 open tasks rank above completed ones with the same score
+ *
+ * Used by UnifiedSearch for the main search box and by TasksActivity to filter its list.
+ * Tasks are read from TaskRepository and kept until invalidate() reports a change to the table.
+ */
+public class TaskSearch {
+
+    private final TaskRepository repository;
+
+    // 🗃️ Bumped by invalidate() (only from the InvalidationTracker thread); older caches are reloaded
+    private volatile long version;
+
+    // 🗃️ Guarded by this: the cached tasks and the version they were read at
+    private long loadedVersion = -1;
+    private List<Task> tasks = Collections.emptyList();
+
+    /**
+     * @param repository Where the tasks are stored
+     */
+    TaskSearch(TaskRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Drops the cached tasks; called when the "tasks" table changed.
+     */
+    void invalidate() {
+        version++;
+    }
+
+    /**
+     * Searches every task, open and completed. Safe to call from any thread.
+     *
+     * @param query Text typed by the user
+     * @return Matches, best first, with their highlight ranges
+     */
+    List<SearchHit> search(String query) {
+        String[] words = NoteIndex.tokenize(query).toArray(new String[0]);
+        List<Task> all = load();
+        List<SearchHit> hits = new ArrayList<>();
+        if (words.length == 0) return hits;
+
+        boolean[] fuzzy = fuzzyWords(words);
+        for (Task task : all) {
+            int score = score(task.getTitle(), words);
+            if (score > 0) hits.add(SearchHit.task(task, score, words, fuzzy));
+        }
+        Collections.sort(hits, (a, b) -> {           // Stable: ties keep the list order
+            if (a.score != b.score) return Integer.compare(b.score, a.score);
+            return Boolean.compare(a.completed, b.completed);
+        });
+        return hits;
+    }
+
+    /**
+     * Filters a task list for TasksActivity's search box.
+     *
+     * @param tasks Tasks shown
+     * @param query Text typed by the user
+     * @return Matching tasks, best first; all tasks if the query has no words
+     */
+    static List<Task> filter(List<Task> tasks, String query) {
+        String[] words = NoteIndex.tokenize(query).toArray(new String[0]);
+        if (words.length == 0) return new ArrayList<>(tasks);
+
+        List<Task> matches = new ArrayList<>();
+        int[] scores = new int[tasks.size()];
+        for (Task task : tasks) {
+            int score = score(task.getTitle(), words);
+            if (score > 0) {
+                scores[matches.size()] = score;
+                matches.add(task);
+            }
+        }
+        Integer[] order = new Integer[matches.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(scores[b], scores[a]));   // Stable: ties keep the list order
+
+        List<Task> ranked = new ArrayList<>(order.length);
+        for (int i : order) ranked.add(matches.get(i));
+        return ranked;
+    }
+
+    /**
+     * Score of a title for the query words: the sum of each word's best score, or 0 if any
+     * word matches nothing.
+     */
+    static int score(String title, String[] words) {
+        if (title == null) return 0;
+        String[] terms = NoteIndex.tokenize(title).toArray(new String[0]);
+        int total = 0;
+        for (String word : words) {
+            int edits = NoteIndex.maxEdits(word.length());
+            int typos = edits + 1;
+            for (String term : terms) {
+                if (term.startsWith(word)) {
+                    typos = 0;
+                    break;
+                }
+                if (edits > 0) typos = Math.min(typos, NoteIndex.prefixDistance(word, term, edits));
+            }
+            if (typos > edits) return 0;
+            total += NoteIndex.TITLE_SCORE * (NoteIndex.MAX_EDITS + 1 - typos);
+        }
+        return total;
+    }
+
+    /**
+     * Per word: typo matches are allowed, so they are highlighted too.
+     */
+    static boolean[] fuzzyWords(String[] words) {
+        boolean[] fuzzy = new boolean[words.length];
+        for (int w = 0; w < words.length; w++) fuzzy[w] = NoteIndex.maxEdits(words[w].length()) > 0;
+        return fuzzy;
+    }
+
+    /**
+     * Returns open then completed tasks, reading the table only if it changed since the last read.
+     */
+    private synchronized List<Task> load() {
+        long current = version;
+        if (current != loadedVersion) {
+            tasks = repository.getAllTasks();
+            loadedVersion = current;
+        }
+        return tasks;
+    }
+}
@@ -5,6 +5,7 @@ import android.content.Intent;
 import android.content.SharedPreferences;
 import android.net.Uri;
 import android.os.Bundle;
+import android.text.TextUtils;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
@@ -26,15 +27,14 @@ import androidx.drawerlayout.widget.DrawerLayout;
 import com.google.android.material.navigation.NavigationView;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
-
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class TasksActivity extends AppCompatActivity implements TasksAdapter.OnTaskActionListener, NavigationView.OnNavigationItemSelectedListener {
 
@@ -45,7 +45,7 @@ public class TasksActivity extends AppCompatActivity implements TasksAdapter.OnT
     private SearchView searchView;
     private View completedLabel;
     private View selectionActions;
-    private ImageView btnDelete, btnComplete;
+    private ImageView btnDelete, btnComplete, btnGroup;
 
     private RecyclerView recyclerViewTasks;
     private RecyclerView recyclerViewCompleted;
@@ -54,13 +54,11 @@ public class TasksActivity extends AppCompatActivity implements TasksAdapter.OnT
 
     private List<Task> taskList = new ArrayList<>();
     private List<Task> completedList = new ArrayList<>();
+    private TaskRepository repository; // Each change writes only its own rows, off the main thread
+    private final TaskGroups groups = new TaskGroups(); // Sections and counts, updated per change
 
     private boolean selectionActive = false;
 
-    private static final String PREFS_NAME = "TasksPrefs";
-    private static final String KEY_TASKS = "Tasks";
-    private static final String KEY_COMPLETED = "CompletedTasks";
-
     private final int CURRENT_ACTIVITY_ID = R.id.nav_header_title;
     private boolean isUpdatingSelection;
 
@@ -113,7 +111,10 @@ public class TasksActivity extends AppCompatActivity implements TasksAdapter.OnT
         btnComplete = findViewById(R.id.btnComplete);
         btnDelete.setOnClickListener(v -> showDeleteConfirmationDialog(getSelectedTasks()));
         btnComplete.setOnClickListener(v -> showCompletionConfirmationDialog(tasksAdapter.getSelectedTasks()));
+        btnGroup = findViewById(R.id.btnGroup);
+        btnGroup.setOnClickListener(v -> onGroupTasks(getSelectedTasks()));
 
+        repository = TaskRepository.getInstance(this);
         loadTasks();
         updateCompletedSectionVisibility();
 
@@ -137,23 +138,13 @@ public class TasksActivity extends AppCompatActivity implements TasksAdapter.OnT
     }
 
     private void loadTasks() {
-        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
-        Gson gson = new Gson();
-        Type type = new TypeToken<List<Task>>() {}.getType();
-        String tasksJson = prefs.getString(KEY_TASKS, "[]");
-        String completedJson = prefs.getString(KEY_COMPLETED, "[]");
-        taskList = gson.fromJson(tasksJson, type);
-        completedList = gson.fromJson(completedJson, type);
-        tasksAdapter.updateTasks(taskList);
-        completedAdapter.updateTasks(completedList);
-    }
-
-    private void saveTasks() {
-        SharedPreferences.Editor editor = getSharedPreferences(PREFS_NAME, MODE_PRIVATE).edit();
-        Gson gson = new Gson();
-        editor.putString(KEY_TASKS, gson.toJson(taskList));
-        editor.putString(KEY_COMPLETED, gson.toJson(completedList));
-        editor.apply();
+        repository.loadTasks(lists -> {
+            if (isFinishing() || isDestroyed()) return;
+            taskList = lists.open;
+            completedList = lists.completed;
+            groups.reset(taskList, completedList);
+            showTasks(); // Also applies a query typed before the lists arrived
+        });
     }
 
     private void showAddTaskDialog() {
@@ -166,11 +157,13 @@ public class TasksActivity extends AppCompatActivity implements TasksAdapter.OnT
         builder.setPositiveButton("Add", (dialog, which) -> {
             String title = input.getText().toString().trim();
             if (!title.isEmpty()) {
-                Task newTask = new Task(title);
-                taskList.add(newTask);
-                tasksAdapter.updateTasks(taskList);
-                saveTasks();
-                Toast.makeText(this, "Task added", Toast.LENGTH_SHORT).show();
+                repository.insert(new Task(title), saved -> {  // Listed once saved, with its id
+                    if (isFinishing() || isDestroyed()) return;
+                    taskList.add(saved);
+                    groups.add(saved);
+                    showTasks();
+                    Toast.makeText(this, "Task added", Toast.LENGTH_SHORT).show();
+                });
             } else {
                 Toast.makeText(this, "Task title cannot be empty", Toast.LENGTH_SHORT).show();
             }
@@ -186,17 +179,20 @@ public class TasksActivity extends AppCompatActivity implements TasksAdapter.OnT
         });
     }
 
+    /**
+     * Shows both lists grouped, or the open tasks matching the search box, ranked and ungrouped.
+     */
+    private void showTasks() {
+        filterTasks(searchView.getQuery().toString());
+        completedAdapter.updateTasks(groups.rows(true));
+        updateCompletedSectionVisibility();
+    }
+
     private void filterTasks(String query) {
         if (query == null || query.trim().isEmpty()) {
-            tasksAdapter.updateTasks(taskList);
+            tasksAdapter.updateTasks(groups.rows(false));
         } else {
-            List<Task> filtered = new ArrayList<>();
-            for (Task t : taskList) {
-                if (t.getTitle().toLowerCase().contains(query.toLowerCase())) {
-                    filtered.add(t);
-                }
-            }
-            tasksAdapter.updateTasks(filtered);
+            tasksAdapter.updateTasks(TaskSearch.filter(taskList, query)); // Same matching and ranking as the main search
         }
     }
 
@@ -226,15 +222,11 @@ public class TasksActivity extends AppCompatActivity implements TasksAdapter.OnT
                 .setMessage("Did you complete your task?")
                 .setIcon(R.drawable.ic_dialog_alert)
                 .setPositiveButton("Yes", (d,w) -> {
-                    for (Task task : selected) {
-                        task.setCompleted(true);
-                        taskList.remove(task);
-                        completedList.add(task);
-                    }
-                    tasksAdapter.updateTasks(taskList);
-                    completedAdapter.updateTasks(completedList);
-                    updateCompletedSectionVisibility();
-                    saveTasks();
+                    repository.complete(selected);
+                    removeAll(taskList, selected);
+                    completedList.addAll(selected);
+                    for (Task task : selected) groups.complete(task);
+                    showTasks();
                     clearSelectionAndUpdateUI();
                 })
                 .setNegativeButton("No", null)
@@ -242,14 +234,24 @@ public class TasksActivity extends AppCompatActivity implements TasksAdapter.OnT
     }
 
     private void deleteTasks(List<Task> selected) {
-        taskList.removeAll(selected);
-        completedList.removeAll(selected);
-        tasksAdapter.updateTasks(taskList);
-        completedAdapter.updateTasks(completedList);
-        saveTasks();
+        repository.delete(selected);
+        removeAll(taskList, selected);
+        removeAll(completedList, selected);
+        for (Task task : selected) groups.remove(task);
+        showTasks();
         Toast.makeText(this, selected.size() + " task(s) deleted", Toast.LENGTH_SHORT).show();
     }
 
+    /**
+     * Removes tasks by id in one pass: O(n + k) instead of List.removeAll's O(n * k).
+     */
+    private static void removeAll(List<Task> list, List<Task> remove) {
+        if (remove.isEmpty()) return;
+        Set<Integer> ids = new HashSet<>(remove.size() * 2);
+        for (Task task : remove) ids.add(task.getId());
+        list.removeIf(task -> ids.contains(task.getId()));
+    }
+
     private void clearSelectionAndUpdateUI() {
         selectionActive = false;
         toolbar.setTitle("Tasks");
@@ -260,13 +262,11 @@ public class TasksActivity extends AppCompatActivity implements TasksAdapter.OnT
 
     @Override
     public void onTaskCompleted(Task task) {
-        task.setCompleted(true);
+        repository.complete(Collections.singletonList(task));
         taskList.remove(task);
         completedList.add(task);
-        tasksAdapter.updateTasks(taskList);
-        completedAdapter.updateTasks(completedList);
-        updateCompletedSectionVisibility();
-        saveTasks();
+        groups.complete(task);
+        showTasks();
     }
 
     @Override
@@ -321,7 +321,35 @@ public class TasksActivity extends AppCompatActivity implements TasksAdapter.OnT
     public void onDeleteTasks(List<Task> selectedTasks) {}
 
     @Override
-    public void onGroupTasks(List<Task> selectedTasks) {}
+    public void onGroupTasks(List<Task> selectedTasks) {
+        if (selectedTasks.isEmpty()) return;
+        EditText input = new EditText(this);
+        input.setHint("Group name (empty to ungroup)");
+        String current = selectedTasks.get(0).getGroup();
+        if (current != null) input.setText(current);
+
+        new AlertDialog.Builder(this)
+                .setTitle("Group Tasks")
+                .setMessage(groups.names().isEmpty() ? null : "Groups: " + TextUtils.join(", ", groups.names()))
+                .setView(input)
+                .setPositiveButton("Save", (d, w) -> {
+                    String group = TaskGroups.normalize(input.getText().toString());
+                    for (Task task : selectedTasks) groups.move(task, group);
+                    repository.setGroup(selectedTasks, group);
+                    clearSelectionAndUpdateUI();
+                    showTasks();
+                    Toast.makeText(this, selectedTasks.size() + " task(s) moved", Toast.LENGTH_SHORT).show();
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    @Override
+    public void onGroupToggled(String group) {
+        if (selectionActive) clearSelectionAndUpdateUI();
+        groups.toggleCollapsed(group);
+        showTasks();
+    }
 
     @Override
     public boolean onNavigationItemSelected(@NonNull MenuItem item) {
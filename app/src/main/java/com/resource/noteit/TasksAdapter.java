@@ -4,6 +4,7 @@ package com.resource.noteit;
 import android.app.AlertDialog;                       // For showing alert dialogs to the user
 import android.content.Context;                        // Context provides access to app-specific resources
 import android.graphics.Color;                         // To set colors programmatically
+import android.text.TextUtils;                         // Null-safe title comparison for diffing
 import android.view.LayoutInflater;                    // To create views from XML layouts
 import android.view.View;                              // Represents the UI components on screen
 import android.view.ViewGroup;                         // Container for other views, used in RecyclerView
@@ -11,9 +12,13 @@ import android.widget.CheckBox;                        // UI component for selec
 import android.widget.TextView;                        // UI component to display text
 import androidx.annotation.NonNull;                    // For null-safety annotations
 import androidx.core.content.ContextCompat;           // For accessing resources with compatibility
+import androidx.recyclerview.widget.AsyncListDiffer;  // Diffs task lists off the main thread
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;     // RecyclerView for efficient scrolling lists
 import java.util.ArrayList;                            // List implementation with dynamic size
+import java.util.LinkedHashMap;                        // Selected tasks by id, in selection order
 import java.util.List;                                 // Interface for ordered collections
+import java.util.Map;
 
 /**
  * TasksAdapter class: 📝
@@ -21,8 +26,13 @@ import java.util.List;                                 // Interface for ordered
  * It supports multi-selection of tasks, marking tasks completed, and notifying the parent activity via listener callbacks.
  *
  * It handles user interactions such as selecting, deselecting, completing tasks and manages UI updates accordingly.
+ * Grouped lists also contain TaskGroups.Header rows: tapping one collapses or expands its group.
+ * New lists are diffed off the main thread by an AsyncListDiffer, and selection changes rebind only
+ * the checkbox and background of the rows they affect. Tasks are mutable and shared with the
+ * activity, so each one is shown through an immutable TaskRow snapshot taken when its list is
+ * submitted; the diff then compares what was shown with what is new, not a task with itself.
  */
-public class TasksAdapter extends RecyclerView.Adapter<TasksAdapter.TaskViewHolder> {
+public class TasksAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
 
     /**
      * OnTaskActionListener interface: 🔔
@@ -32,17 +42,83 @@ public class TasksAdapter extends RecyclerView.Adapter<TasksAdapter.TaskViewHold
         void onTaskCompleted(Task task);                      // Called when a task is marked completed
         void onTaskSelectionChanged(int selectedCount);      // Called when the number of selected tasks changes
         void onDeleteTasks(List<Task> selectedTasks);        // Called to delete selected tasks (not used here)
-        void onGroupTasks(List<Task> selectedTasks);         // Called to group selected tasks (not used here)
+        void onGroupTasks(List<Task> selectedTasks);         // Called to move selected tasks to a group
+        void onGroupToggled(String group);                   // Called when a group header is tapped
     }
 
+    // Row types: task rows and group header rows 🗂️
+    private static final int TYPE_TASK = 0;
+    private static final int TYPE_HEADER = 1;
+
     // Context to access resources, layouts etc. 🎨
     private Context context;
 
-    // List of all tasks currently displayed 🔥
-    private List<Task> tasks;
+    // Payloads for partial binds: selection touches the checkbox and background, completion also the title
+    private static final Object PAYLOAD_SELECTION = new Object();
+    private static final Object PAYLOAD_COMPLETION = new Object();
+
+    /**
+     * Immutable snapshot of a task as one submitted list shows it. 📸
+     */
+    static final class TaskRow {
+        final Task task;           // Live task, handed to the listener for actions
+        final int id;
+        final String title;
+        final boolean completed;
+        final String group;
+
+        TaskRow(Task task) {
+            this.task = task;
+            this.id = task.getId();
+            this.title = task.getTitle();
+            this.completed = task.isCompleted();
+            this.group = task.getGroup();
+        }
+
+        boolean sameText(TaskRow other) {
+            return TextUtils.equals(title, other.title) && TextUtils.equals(group, other.group);
+        }
+    }
+
+    /**
+     * Rows are the same task when their ids match, and the same header when their group ids match.
+     * A task whose completion alone changed is rebound with PAYLOAD_COMPLETION instead of a full bind;
+     * a header is rebound when its counts or collapsed state changed.
+     */
+    private static final DiffUtil.ItemCallback<Object> DIFF_CALLBACK = new DiffUtil.ItemCallback<Object>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Object oldItem, @NonNull Object newItem) {
+            if (oldItem instanceof TaskRow && newItem instanceof TaskRow) {
+                return ((TaskRow) oldItem).id == ((TaskRow) newItem).id;
+            }
+            if (oldItem instanceof TaskGroups.Header && newItem instanceof TaskGroups.Header) {
+                return ((TaskGroups.Header) oldItem).id == ((TaskGroups.Header) newItem).id;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Object oldItem, @NonNull Object newItem) {
+            if (oldItem instanceof TaskGroups.Header) {
+                return ((TaskGroups.Header) oldItem).sameContents((TaskGroups.Header) newItem);
+            }
+            TaskRow oldRow = (TaskRow) oldItem;
+            TaskRow newRow = (TaskRow) newItem;
+            return oldRow.completed == newRow.completed && oldRow.sameText(newRow);
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull Object oldItem, @NonNull Object newItem) {
+            if (!(oldItem instanceof TaskRow)) return null;   // Headers are rebound in full
+            return ((TaskRow) oldItem).sameText((TaskRow) newItem) ? PAYLOAD_COMPLETION : null; // null: full bind
+        }
+    };
+
+    // Rows currently displayed (TaskRows and TaskGroups.Headers), diffed against the previous list on a background thread 🔥
+    private final AsyncListDiffer<Object> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
 
-    // List of currently selected tasks for multi-selection 🎯
-    private List<Task> selectedTasks = new ArrayList<>();
+    // Currently selected tasks keyed by id, for O(1) membership checks in multi-selection 🎯
+    private final Map<Integer, Task> selectedTasks = new LinkedHashMap<>();
 
     // Flag to indicate if multi-selection mode is active 🔄
     private boolean multiSelect = false;
@@ -59,28 +135,43 @@ public class TasksAdapter extends RecyclerView.Adapter<TasksAdapter.TaskViewHold
      */
     public TasksAdapter(Context context, List<Task> tasks, OnTaskActionListener listener) {
         this.context = context;           // Store the Context for later use
-        this.tasks = tasks;               // Initialize with the provided task list
         this.listener = listener;         // Assign listener for event callbacks
+        setHasStableIds(true);            // Task ids never change once listed, so rows keep their views
+        differ.submitList(snapshot(tasks)); // Initialize with snapshots of the provided task list
     }
 
     /**
      * updateTasks: 🔄
-     * Replaces current task list with a new list and resets selection state.
-     * Notifies RecyclerView to refresh all items.
+     * Replaces current rows (Tasks, plus TaskGroups.Headers for a grouped list) and resets selection state.
+     * The lists are diffed on a background thread; only inserted, removed, moved or changed rows
+     * are rebound, and rows whose completion alone changed get a PAYLOAD_COMPLETION partial bind.
      */
-    public void updateTasks(List<Task> newTasks) {
-        this.tasks = new ArrayList<>(newTasks);  // Create new list copy to avoid external modification
-        selectedTasks.clear();                    // Clear any selected tasks
-        multiSelect = false;                      // Disable multi-selection mode
-        notifyDataSetChanged();                   // Refresh entire RecyclerView
+    public void updateTasks(List<?> newTasks) {
+        if (multiSelect || !selectedTasks.isEmpty()) {
+            selectedTasks.clear();                // Clear any selected tasks
+            multiSelect = false;                  // Disable multi-selection mode
+            notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION); // Checkbox + background only
+        }
+        differ.submitList(snapshot(newTasks)); // New list of snapshots: the differ needs a new instance each time
+    }
+
+    /**
+     * Copies a list of Tasks and Headers, replacing each Task by a TaskRow of its current state.
+     */
+    private static List<Object> snapshot(List<?> rows) {
+        List<Object> snapshot = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            snapshot.add(row instanceof Task ? new TaskRow((Task) row) : row);
+        }
+        return snapshot;
     }
 
     /**
      * getSelectedTasks: 📋
-     * Returns a copy of the currently selected tasks list.
+     * Returns a copy of the currently selected tasks, in the order they were selected.
      */
     public List<Task> getSelectedTasks() {
-        return new ArrayList<>(selectedTasks);   // Return a new list to avoid external modifications
+        return new ArrayList<>(selectedTasks.values());   // Return a new list to avoid external modifications
     }
 
     /**
@@ -93,9 +184,13 @@ public class TasksAdapter extends RecyclerView.Adapter<TasksAdapter.TaskViewHold
         if (isClearing) return;            // Prevent re-entrance if already clearing
 
         isClearing = true;                 // Mark as clearing to avoid recursion
+        boolean changed = multiSelect || !selectedTasks.isEmpty();
         selectedTasks.clear();             // Clear selected tasks list
         multiSelect = false;               // Turn off multi-select mode
-        notifyDataSetChanged();            // Refresh UI to remove selection highlights
+        if (changed) {
+            // Leaving multi-select hides the checkbox of completed rows, so every row gets the payload
+            notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
+        }
 
         if (listener != null) {
             listener.onTaskSelectionChanged(0);  // Notify listener no tasks are selected
@@ -105,48 +200,50 @@ public class TasksAdapter extends RecyclerView.Adapter<TasksAdapter.TaskViewHold
     }
 
     /**
-     * onCreateViewHolder: 🏗️
-     * Inflates the individual task item layout and creates a ViewHolder for it.
+     * getItemViewType: 🗂️
+     * Header rows and task rows use different layouts.
      */
-    @NonNull
     @Override
-    public TaskViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        // Inflate the XML layout for a single task item
-        View view = LayoutInflater.from(context).inflate(R.layout.item_task, parent, false);
-        return new TaskViewHolder(view);   // Return a new ViewHolder instance with this view
+    public int getItemViewType(int position) {
+        return differ.getCurrentList().get(position) instanceof TaskGroups.Header ? TYPE_HEADER : TYPE_TASK;
     }
 
     /**
-     * onBindViewHolder: 🔗
-     * Binds task data and listeners to the ViewHolder UI elements based on position.
-     * Handles UI state for completed tasks, checkbox visibility, and selection highlighting.
+     * onCreateViewHolder: 🏗️
+     * Inflates the individual task item (or group header) layout and creates a ViewHolder for it.
+     * Listeners are set once here and look the row up by the holder's current position,
+     * so partial binds never have to touch them.
      */
+    @NonNull
     @Override
-    public void onBindViewHolder(@NonNull TaskViewHolder holder, int position) {
-        Task task = tasks.get(position);               // Get task at this position
-
-        holder.title.setText(task.getTitle());         // Set task title text
-
-        // If task is completed, prepend a check mark ✅ emoji for visual cue
-        if (task.isCompleted()) {
-            holder.title.setText("✅ " + task.getTitle());
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        if (viewType == TYPE_HEADER) {
+            View view = LayoutInflater.from(context).inflate(R.layout.item_task_group, parent, false);
+            GroupViewHolder holder = new GroupViewHolder(view);
+            // Tapping a header collapses or expands its group
+            holder.itemView.setOnClickListener(v -> {
+                int position = holder.getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION && listener != null) {
+                    listener.onGroupToggled(((TaskGroups.Header) differ.getCurrentList().get(position)).name);
+                }
+            });
+            return holder;
         }
 
-        // Completed tasks hide the checkbox unless multi-select is active
-        if (task.isCompleted() && !multiSelect) {
-            holder.checkbox.setVisibility(View.GONE);  // Hide checkbox for completed task
-        } else {
-            holder.checkbox.setVisibility(View.VISIBLE); // Show checkbox
-            // Set checkbox checked state based on whether task is selected
-            holder.checkbox.setChecked(selectedTasks.contains(task));
-        }
+        // Inflate the XML layout for a single task item
+        View view = LayoutInflater.from(context).inflate(R.layout.item_task, parent, false);
+        TaskViewHolder holder = new TaskViewHolder(view);
 
         // Checkbox click listener handles selection or completion logic
         holder.checkbox.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) return;
+            TaskRow row = getRow(position);
+            Task task = row.task;
             if (multiSelect) {
                 // If multi-select mode, toggle selection on checkbox click
-                toggleSelection(task);
-            } else if (!task.isCompleted()) {
+                toggleSelection(task, position);
+            } else if (!row.completed) {
                 // If not multi-select and task not completed, confirm completion with user
                 new AlertDialog.Builder(context)
                         .setTitle("Complete Task")                   // Dialog title
@@ -164,9 +261,12 @@ public class TasksAdapter extends RecyclerView.Adapter<TasksAdapter.TaskViewHold
 
         // Long click on item enables multi-selection mode and selects the task
         holder.itemView.setOnLongClickListener(v -> {
-            if (!multiSelect) {
+            int position = holder.getBindingAdapterPosition();
+            if (!multiSelect && position != RecyclerView.NO_POSITION) {
                 multiSelect = true;        // Enable multi-selection mode
-                toggleSelection(task);     // Select this task
+                // Completed rows show their checkbox while multi-selecting
+                notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
+                toggleSelection(getRow(position).task, position); // Select this task
                 return true;               // Consume the event
             }
             return false;                  // Otherwise do not consume
@@ -174,13 +274,80 @@ public class TasksAdapter extends RecyclerView.Adapter<TasksAdapter.TaskViewHold
 
         // Regular click toggles selection only if multi-select mode is active
         holder.itemView.setOnClickListener(v -> {
-            if (multiSelect) {
-                toggleSelection(task);
+            int position = holder.getBindingAdapterPosition();
+            if (multiSelect && position != RecyclerView.NO_POSITION) {
+                toggleSelection(getRow(position).task, position);
             }
         });
+        return holder;                     // Return the ViewHolder with its listeners in place
+    }
+
+    /**
+     * onBindViewHolder: 🔗
+     * Full bind: title, checkbox and selection highlight of the task at this position.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        if (holder instanceof GroupViewHolder) {
+            bindHeader((GroupViewHolder) holder, (TaskGroups.Header) differ.getCurrentList().get(position));
+            return;
+        }
+        TaskRow row = getRow(position);                // Snapshot of the task at this position
+        bindTitle((TaskViewHolder) holder, row);
+        bindState((TaskViewHolder) holder, row);
+    }
+
+    /**
+     * Partial bind: a selection payload only refreshes the checkbox and background; a completion
+     * payload also refreshes the ✅ of the title. Headers have nothing to refresh for either.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder viewHolder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            super.onBindViewHolder(viewHolder, position, payloads);   // Full bind
+            return;
+        }
+        if (!(viewHolder instanceof TaskViewHolder)) return;
+        TaskViewHolder holder = (TaskViewHolder) viewHolder;
+        TaskRow row = getRow(position);
+        if (payloads.contains(PAYLOAD_COMPLETION)) {
+            bindTitle(holder, row);
+        }
+        bindState(holder, row);
+    }
+
+    /**
+     * Shows a group's name, counts and whether it is collapsed.
+     */
+    private void bindHeader(GroupViewHolder holder, TaskGroups.Header header) {
+        holder.name.setText((header.collapsed ? "▸ 📁 " : "▾ 📁 ") + header.name);
+        holder.counts.setText(header.open + " open · " + header.completed + " done");
+    }
+
+    /**
+     * Sets the title text; completed tasks get a check mark ✅ emoji for visual cue.
+     */
+    private void bindTitle(TaskViewHolder holder, TaskRow row) {
+        holder.title.setText(row.completed ? "✅ " + row.title : row.title);
+    }
+
+    /**
+     * Sets the checkbox and the selection highlight, the only views selection and completion change.
+     */
+    private void bindState(TaskViewHolder holder, TaskRow row) {
+        boolean selected = selectedTasks.containsKey(row.id); // One O(1) lookup per bind
+
+        // Completed tasks hide the checkbox unless multi-select is active
+        if (row.completed && !multiSelect) {
+            holder.checkbox.setVisibility(View.GONE);  // Hide checkbox for completed task
+        } else {
+            holder.checkbox.setVisibility(View.VISIBLE); // Show checkbox
+            // Set checkbox checked state based on whether task is selected
+            holder.checkbox.setChecked(selected);
+        }
 
         // Highlight the selected tasks with a gray background
-        if (selectedTasks.contains(task)) {
+        if (selected) {
             holder.itemView.setBackgroundColor(ContextCompat.getColor(context, android.R.color.darker_gray));
         } else {
             holder.itemView.setBackgroundColor(Color.TRANSPARENT);  // Default transparent background
@@ -189,30 +356,42 @@ public class TasksAdapter extends RecyclerView.Adapter<TasksAdapter.TaskViewHold
 
     /**
      * toggleSelection: 🔀
-     * Adds or removes the given task from selectedTasks list.
-     * Updates UI and notifies listener about the selection count.
+     * Adds or removes the given task from the selectedTasks map (keyed by id).
+     * Rebinds only that row's checkbox and background, then notifies listener about the selection count.
      */
-    private void toggleSelection(Task task) {
-        if (selectedTasks.contains(task)) {
-            selectedTasks.remove(task);      // Deselect if already selected
-        } else {
-            selectedTasks.add(task);         // Select if not selected
+    private void toggleSelection(Task task, int position) {
+        if (selectedTasks.remove(task.getId()) == null) {
+            selectedTasks.put(task.getId(), task); // Select if it was not selected
         }
 
-        notifyDataSetChanged();              // Refresh UI to show selection state
+        notifyItemChanged(position, PAYLOAD_SELECTION); // Refresh only this row's selection state
 
         if (listener != null) {
             listener.onTaskSelectionChanged(selectedTasks.size());  // Inform listener about selection count
         }
     }
 
+    private TaskRow getRow(int position) {
+        return (TaskRow) differ.getCurrentList().get(position);   // The list the RecyclerView currently shows
+    }
+
+    /**
+     * getItemId: 🆔
+     * Stable row id: the task's database id, or the negative group id of a header.
+     */
+    @Override
+    public long getItemId(int position) {
+        Object row = differ.getCurrentList().get(position);
+        return row instanceof TaskGroups.Header ? ((TaskGroups.Header) row).id : ((TaskRow) row).id;
+    }
+
     /**
      * getItemCount: 🔢
-     * Returns the total number of tasks currently managed by the adapter.
+     * Returns the total number of rows (tasks and headers) currently managed by the adapter.
      */
     @Override
     public int getItemCount() {
-        return tasks.size();                 // Size of task list
+        return differ.getCurrentList().size(); // Size of the shown task list
     }
 
     /**
@@ -229,5 +408,20 @@ public class TasksAdapter extends RecyclerView.Adapter<TasksAdapter.TaskViewHold
             checkbox = itemView.findViewById(R.id.taskCheckBox); // Find CheckBox by ID
         }
     }
+
+    /**
+     * GroupViewHolder class: 📁
+     * Holds the views of a group header row.
+     */
+    static class GroupViewHolder extends RecyclerView.ViewHolder {
+        TextView name;      // Group name with its collapse arrow
+        TextView counts;    // Open and completed counts
+
+        GroupViewHolder(@NonNull View itemView) {
+            super(itemView);
+            name = itemView.findViewById(R.id.groupName);
+            counts = itemView.findViewById(R.id.groupCounts);
+        }
+    }
 }
 
@@ -0,0 +1,132 @@
+package com.resource.noteit;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+
+/**
+ * UnifiedSearch 🔍📒✅
+ *
+ * One search over notes and tasks, answered as a single ranked list:
+ * - 🧵 the task search is handed to the reader pool while the note search runs on the calling
+ *   thread, so both stores are searched at the same time
+ * - 🏁 TaskSearch scores tasks like NoteIndex scores notes, so the two ranked lists are merged
+ *   by score in one pass (notes first on a tie)
+ * - 🖍️ the matched ranges of every hit's title and preview are computed here, on the search
+ *   thread, and kept on the hit; binding a row only applies spans
+ * - 🔁 note results are narrowed from the previous query by NoteIndex when possible
+ *
+ * While the NoteIndex is still loading, notes come from the SQLite fallback in its order and
+ * are listed before tasks.
+ */
+public class UnifiedSearch {
+
+    private static final String TAG = "UnifiedSearch";
+
+    /**
+     * Runs the SQLite note search used until the index is ready.
+     */
+    interface Fallback {
+        List<NoteRow> search(String query);
+    }
+
+    /**
+     * One search answer. The hits and hasMatch always describe the same query, so a screen can
+     * never pair the hits of one query with the match state of another.
+     */
+    public static final class Result {
+        public final String query;         // Query these hits answer
+        public final List<SearchHit> hits; // Notes and tasks, best first
+        public final boolean hasMatch;     // True if hits is not empty
+
+        Result(String query, List<SearchHit> hits) {
+            this.query = query;
+            this.hits = hits;
+            this.hasMatch = !hits.isEmpty();
+        }
+    }
+
+    private final NoteIndex index;
+    private final Fallback fallback;
+    private final TaskSearch tasks;
+    private final ExecutorService executor;
+
+    // 🔁 Note searches run one at a time, so each may narrow the one before it
+    private final Object noteLock = new Object();
+    private NoteIndex.Result lastNotes; // Guarded by noteLock
+
+    /**
+     * @param index    In-memory note index
+     * @param fallback Note search used while the index is loading
+     * @param tasks    Task search
+     * @param executor Thread pool the task search runs on
+     */
+    UnifiedSearch(NoteIndex index, Fallback fallback, TaskSearch tasks, ExecutorService executor) {
+        this.index = index;
+        this.fallback = fallback;
+        this.tasks = tasks;
+        this.executor = executor;
+    }
+
+    /**
+     * Searches notes and tasks. Blocks; call it off the main thread.
+     *
+     * @param query Text typed by the user
+     * @return Merged hits, best first
+     */
+    Result search(String query) {
+        FutureTask<List<SearchHit>> taskSearch = new FutureTask<>(() -> tasks.search(query));
+        try {
+            executor.execute(taskSearch);
+        } catch (RejectedExecutionException e) {
+            // Run below on this thread instead
+        }
+
+        NoteIndex.Result notes;
+        synchronized (noteLock) {
+            if (index.isReady()) {
+                notes = index.search(query, lastNotes);
+                lastNotes = notes;
+            } else {
+                notes = NoteIndex.Result.of(query, fallback.search(query));
+            }
+        }
+
+        // 🤝 If no pool thread picked the task search up yet, run it here instead of waiting for one
+        taskSearch.run();
+        List<SearchHit> taskHits;
+        try {
+            taskHits = taskSearch.get();
+        } catch (ExecutionException e) {
+            Log.w(TAG, "Task search failed", e.getCause());
+            taskHits = Collections.emptyList();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            taskHits = Collections.emptyList();
+        }
+        return new Result(query, merge(query, notes, taskHits));
+    }
+
+    /**
+     * Turns the ranked notes into hits and merges them with the ranked task hits by score.
+     */
+    static List<SearchHit> merge(String query, NoteIndex.Result notes, List<SearchHit> taskHits) {
+        String[] words = notes.words != null ? notes.words : NoteIndex.tokenize(query).toArray(new String[0]);
+        List<SearchHit> hits = new ArrayList<>(notes.rows.size() + taskHits.size());
+        int t = 0;
+        for (int i = 0; i < notes.rows.size(); i++) {
+            int score = notes.rowScores != null ? notes.rowScores[i] : Integer.MAX_VALUE;
+            while (t < taskHits.size() && taskHits.get(t).score > score) hits.add(taskHits.get(t++));
+            hits.add(SearchHit.note(notes.rows.get(i), score, words, notes.fuzzy));
+        }
+        while (t < taskHits.size()) hits.add(taskHits.get(t++));
+        return hits;
+    }
+}
@@ -2,9 +2,12 @@ package com.resource.noteit;
 
 // 🌟 Import statements used for various Android components and utilities
 
+import android.content.Context;                  // Used to launch this activity from adapters
 import android.content.Intent;                   // For starting new activities or navigating between screens
 import android.content.SharedPreferences;       // To store and retrieve simple key-value pairs persistently
 import android.os.Bundle;                        // Represents the state of an activity; used in lifecycle methods
+import android.text.Editable;                    // Text passed to TextWatcher callbacks
+import android.text.TextWatcher;                 // Reports every edit so it can be journaled
 import android.view.MenuItem;                    // Represents individual items in a menu, such as toolbar buttons
 import android.widget.Button;                    // UI widget for clickable buttons
 import android.widget.EditText;                  // UI widget to get user input as text
@@ -12,24 +15,33 @@ import android.widget.RelativeLayout;            // A type of ViewGroup for layo
 import android.widget.Toast;                     // Small popup messages to notify users
 import androidx.appcompat.app.AppCompatActivity; // Base class for activities with ActionBar support
 import androidx.appcompat.widget.Toolbar;         // Widget to add a customizable Toolbar (ActionBar) to the activity
+import androidx.lifecycle.ViewModelProvider;     // Retains the autosave session across recreation
 
-import java.text.SimpleDateFormat;               // Utility to format dates to string representation
-import java.util.Date;                           // Represents date and time
-import java.util.Locale;                         // Provides locale information for localization
+import java.util.UUID;                           // Unique journal file name per editor
 
 /*
  * UploadActivity 📝
  * This activity allows users to upload or edit notes with a title and description.
- * It also manages saving data to the local database and sets up UI elements like toolbar and background.
+ * It also manages saving data to the local database (through NoteRepository, off the main thread)
+ * and sets up UI elements like toolbar and background.
+ * Every edit is autosaved: NoteJournal appends it to a crash-safe journal file in the background and
+ * periodically compacts it into the notes row, so typing never waits on SQLite.
  * This activity uses an AppCompatActivity for modern Android support and a Toolbar for navigation.
  */
 public class UploadActivity extends AppCompatActivity {
 
     Button saveButton;             // Button to save the note data
     EditText uploadTitle, uploadDesc;  // Input fields for note title and description
-    NoteDatabase db;               // Instance of local database to store notes
+    NoteRepository repository;     // Repository that writes notes off the main thread
     boolean isEdit = false;        // Flag to check if current operation is editing an existing note
     int noteId;                   // Stores the id of the note to be edited (if any)
+    boolean noteLoaded = false;    // True once the edited note's text has been put into the fields
+
+    NoteEditorViewModel viewModel; // Holds the autosave journal session across recreation
+    String journalName;            // Journal file of this editor, kept in saved state
+
+    private static final String KEY_NOTE_LOADED = "note_loaded"; // Saved-state key for noteLoaded
+    private static final String KEY_JOURNAL = "journal_name";    // Saved-state key for journalName
 
     /*
      * onCreate method 🎬
@@ -45,7 +57,12 @@ public class UploadActivity extends AppCompatActivity {
         uploadTitle = findViewById(R.id.uploadTopic);             // Find EditText for title input
         uploadDesc = findViewById(R.id.uploadDesc);               // Find EditText for description input
         saveButton = findViewById(R.id.saveButton);               // Find Button for save action
-        db = NoteDatabase.getInstance(this);                       // Get database instance for note operations
+        repository = NoteRepository.getInstance(this);             // Get repository for note operations
+        viewModel = new ViewModelProvider(this).get(NoteEditorViewModel.class);
+        journalName = savedInstanceState != null ? savedInstanceState.getString(KEY_JOURNAL) : null;
+        if (journalName == null) {
+            journalName = UUID.randomUUID().toString();            // New editor session
+        }
 
         RelativeLayout layout3 = findViewById(R.id.rel_upload);   // Get root RelativeLayout to set background
 
@@ -65,9 +82,12 @@ public class UploadActivity extends AppCompatActivity {
         // Check if this activity was opened for editing an existing note
         if (getIntent().hasExtra("edit")) {
             isEdit = true;                                         // Mark as edit mode
-            uploadTitle.setText(getIntent().getStringExtra("title")); // Set title field with existing note title
-            uploadDesc.setText(getIntent().getStringExtra("desc"));  // Set description field with existing note desc
             noteId = getIntent().getIntExtra("id", -1);            // Get note ID for update
+            // EditTexts restore their own text after recreation, so only load if that text is not there yet
+            noteLoaded = savedInstanceState != null && savedInstanceState.getBoolean(KEY_NOTE_LOADED);
+            if (!noteLoaded && viewModel.session == null) {
+                loadNote();                                        // Load title and description by id
+            }
         }
 
         // Another background setting based on different SharedPreferences (if selected_bg is saved)
@@ -82,11 +102,128 @@ public class UploadActivity extends AppCompatActivity {
         saveButton.setOnClickListener(view -> saveData());
     }
 
+    /*
+     * onPostCreate method 📓
+     * Runs after the EditTexts restored their text, so journaling starts from what is on screen.
+     * After a rotation the retained session simply continues; a note being loaded starts its own
+     * session once it arrives.
+     */
+    @Override
+    protected void onPostCreate(Bundle savedInstanceState) {
+        super.onPostCreate(savedInstanceState);
+        if (viewModel.session != null) {
+            watchEdits();                                          // Same session, new views
+        } else if (!isEdit || noteLoaded) {
+            startJournal();                                        // New note, or text restored after process death
+        }
+    }
+
+    /*
+     * openNote method 📂
+     * Opens an existing note for editing. Only the note id travels in the Intent;
+     * UploadActivity loads the full note itself, so large bodies never hit the Binder size limit.
+     */
+    static void openNote(Context context, int noteId) {
+        Intent i = new Intent(context, UploadActivity.class);  // Create intent to open UploadActivity
+        i.putExtra("edit", true);                               // Pass flag to indicate edit mode
+        i.putExtra("id", noteId);                               // Pass only the note ID
+        context.startActivity(i);                               // Start the edit activity
+    }
+
+    /*
+     * loadNote method 📥
+     * Loads the note being edited off the main thread and fills the input fields.
+     * Saving is disabled until the note has arrived so a half-loaded note is never written back.
+     */
+    private void loadNote() {
+        saveButton.setEnabled(false);                              // Wait for the note before allowing save
+        repository.loadNote(noteId, note -> {
+            if (isFinishing() || isDestroyed()) return;            // Activity went away while loading
+            if (note == null) {                                    // Note was deleted in the meantime
+                Toast.makeText(this, "This note no longer exists", Toast.LENGTH_SHORT).show();
+                finish();
+                return;
+            }
+            uploadTitle.setText(note.dataTitle);                   // Set title field with existing note title
+            uploadDesc.setText(note.getBody());                    // Full description, even if stored out of row
+            noteLoaded = true;
+            saveButton.setEnabled(true);
+            startJournal();                                        // Autosave from the loaded text on
+        }, error -> {
+            if (isFinishing() || isDestroyed()) return;
+            Toast.makeText(this, "Could not open this note", Toast.LENGTH_SHORT).show();
+            finish();                                              // Never edit (and save back) a half-read body
+        });
+    }
+
+    /*
+     * startJournal method 📓
+     * Opens an autosave session for the text currently in the fields and starts recording edits.
+     */
+    private void startJournal() {
+        viewModel.session = NoteJournal.start(getFilesDir(), repository, journalName, isEdit ? noteId : 0,
+                uploadTitle.getText().toString(), uploadDesc.getText().toString());
+        watchEdits();
+    }
+
+    /*
+     * watchEdits method ⌨️
+     * Forwards every title change and body splice to the journal session; nothing here touches the database.
+     */
+    private void watchEdits() {
+        uploadTitle.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                if (viewModel.session != null) viewModel.session.recordTitle(s.toString());
+            }
+        });
+        uploadDesc.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+                if (viewModel.session != null) {
+                    viewModel.session.recordEdit(start, before, s.subSequence(start, start + count));
+                }
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+            }
+        });
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        if (viewModel.session != null) {
+            viewModel.session.checkpoint();                        // Store the latest text while in the background
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putBoolean(KEY_NOTE_LOADED, noteLoaded);          // Remember whether the fields hold the note
+        outState.putString(KEY_JOURNAL, journalName);              // Lets a restored editor find its recovered note
+    }
+
     /*
      * saveData method 💾
      * This method extracts user input from EditTexts,
-     * validates the data, formats the current date and time,
+     * validates the data, stamps the current time,
      * and inserts or updates the note in the database accordingly.
+     * With an autosave session, closing the session performs that final write (and drops the journal).
      * Finally, it closes the activity to return to the previous screen.
      */
     public void saveData() {
@@ -99,21 +236,24 @@ public class UploadActivity extends AppCompatActivity {
             return;                                               // Exit method early if validation fails
         }
 
-        // Format current date and time as "dd MMM yyyy, hh:mm a" (e.g. 09 Jun 2025, 05:30 PM)
-        String currentDateTime = new SimpleDateFormat("dd MMM yyyy, hh:mm a", Locale.getDefault())
-                .format(new Date());
+        if (viewModel.session != null) {
+            viewModel.session.close();                            // Final compaction into the notes row
+            viewModel.session = null;
+            finish();
+            return;
+        }
+
+        long now = System.currentTimeMillis();                    // Timestamp in epoch millis; formatted at display time
 
-        // If editing, create a DataClass instance with ID and update the existing note
+        // If editing, update title, description and modified time of the existing note (createdAt is kept)
         if (isEdit) {
-            DataClass note = new DataClass(title, desc, currentDateTime); // Create note object with updated info
-            note.setId(noteId);                                          // Set the existing note's ID
-            db.noteDao().update(note);                                   // Update note in database
+            repository.updateContent(noteId, title, desc, now);          // Update note on the writer thread
         } else {
-            // Otherwise, insert a new note into the database
-            db.noteDao().insert(new DataClass(title, desc, currentDateTime));
+            // Otherwise, insert a new note into the database on the writer thread
+            repository.insert(new DataClass(title, desc, now), null);
         }
 
-        finish();                                                     // Close activity and return to previous
+        finish();                                                     // Close activity; the write finishes in the background
     }
 
     /*
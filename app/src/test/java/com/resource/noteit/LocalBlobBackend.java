@@ -0,0 +1,126 @@
+package com.resource.noteit;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.UUID;
+
+/**
+ * LocalBlobBackend 🧪🗄️
+ *
+ * Stand-in storage server on the local filesystem, speaking the same chunked, resumable protocol
+ * as a cloud bucket: an upload session is a partial file, the server's confirmed offset is its
+ * length, and each chunk is appended and flushed before progress is reported. Completed blobs
+ * are renamed into blobs/. Everything streams through a fixed-size buffer.
+ *
+ * failAfterChunks simulates a connection drop, so resuming can be exercised in tests.
+ */
+public class LocalBlobBackend implements BlobStorageBackend {
+
+    // 🧩 Bytes per chunk, the same granularity as Firebase Storage resumable uploads
+    static final int CHUNK_BYTES = 256 * 1024;
+
+    private final File blobsDir;
+    private final File sessionsDir;
+
+    // 🔌 Chunks accepted before the next upload call fails (negative = never fail)
+    private volatile int failAfterChunks = -1;
+
+    // 📊 Bytes received over all uploads (shows that resumed uploads do not resend)
+    private long bytesReceived;
+
+    /**
+     * @param serverDir Directory playing the role of the server's storage
+     */
+    public LocalBlobBackend(File serverDir) {
+        this.blobsDir = new File(serverDir, "blobs");
+        this.sessionsDir = new File(serverDir, "sessions");
+    }
+
+    /**
+     * Makes the next upload fail after the given number of chunks.
+     */
+    public void failAfterChunks(int chunks) {
+        failAfterChunks = chunks;
+    }
+
+    public synchronized long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    @Override
+    public boolean exists(String hash, long size) {
+        File blob = new File(blobsDir, hash);
+        return blob.isFile() && blob.length() == size;
+    }
+
+    @Override
+    public void upload(String hash, File file, String sessionUri, Progress progress) throws IOException {
+        if (!sessionsDir.isDirectory() && !sessionsDir.mkdirs()) throw new IOException("Cannot create " + sessionsDir);
+        String session = sessionUri != null && new File(sessionsDir, sessionUri).isFile()
+                ? sessionUri : UUID.randomUUID().toString();      // Unknown or expired session: start over
+        File part = new File(sessionsDir, session);
+
+        long offset = part.length();                              // Server-confirmed bytes
+        long total = file.length();
+        byte[] chunk = new byte[CHUNK_BYTES];
+        try (InputStream in = new FileInputStream(file);
+             FileOutputStream out = new FileOutputStream(part, true)) {
+            skipFully(in, offset);
+            while (offset < total) {
+                if (failAfterChunks == 0) {
+                    failAfterChunks = -1;
+                    throw new IOException("Simulated connection drop");
+                }
+                int length = readChunk(in, chunk);
+                out.write(chunk, 0, length);
+                out.getFD().sync();
+                offset += length;
+                synchronized (this) {
+                    bytesReceived += length;
+                }
+                if (failAfterChunks > 0) failAfterChunks--;
+                progress.onProgress(session, offset);
+            }
+        }
+
+        if (!blobsDir.isDirectory() && !blobsDir.mkdirs()) throw new IOException("Cannot create " + blobsDir);
+        File blob = new File(blobsDir, hash);
+        if (!part.renameTo(blob) && !blob.isFile()) throw new IOException("Cannot finish upload of " + hash);
+        part.delete();
+    }
+
+    @Override
+    public void download(String hash, OutputStream out) throws IOException {
+        File blob = new File(blobsDir, hash);
+        if (!blob.isFile()) throw new IOException("No blob " + hash);
+        byte[] buffer = new byte[AttachmentStore.BUFFER_BYTES];
+        try (InputStream in = new FileInputStream(blob)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private static int readChunk(InputStream in, byte[] chunk) throws IOException {
+        int length = 0;
+        while (length < chunk.length) {
+            int read = in.read(chunk, length, chunk.length - length);
+            if (read == -1) break;
+            length += read;
+        }
+        return length;
+    }
+
+    private static void skipFully(InputStream in, long bytes) throws IOException {
+        while (bytes > 0) {
+            long skipped = in.skip(bytes);
+            if (skipped <= 0) throw new IOException("Local file shorter than the uploaded part");
+            bytes -= skipped;
+        }
+    }
+}
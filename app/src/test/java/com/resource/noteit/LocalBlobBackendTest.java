@@ -0,0 +1,162 @@
+package com.resource.noteit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs attachment uploads and downloads against LocalBlobBackend: dedup, resuming an interrupted
+ * upload without resending bytes, and hash verification of downloads.
+ */
+public class LocalBlobBackendTest {
+
+    // 🧩 Five full chunks and a partial one
+    private static final int SIZE = 5 * LocalBlobBackend.CHUNK_BYTES + 1234;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private LocalBlobBackend server;
+    private AttachmentStore store;
+    private byte[] content;
+
+    // 📍 Last progress reported by an upload
+    private String lastSession;
+    private long lastBytesSent;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalBlobBackend(folder.newFolder("server"));
+        store = new AttachmentStore(folder.newFolder("device"));
+        content = new byte[SIZE];
+        new Random(42).nextBytes(content);
+    }
+
+    @Test
+    public void sameContent_isStoredAndUploadedOnce() throws IOException {
+        String first = store.put(new ByteArrayInputStream(content)).hash;
+        String second = store.put(new ByteArrayInputStream(content)).hash;
+        assertEquals(first, second);
+        assertEquals(1, store.listHashes().size());
+
+        assertTrue(AttachmentManager.sendIfMissing(server, store, first, null, this::record));
+
+        // 📱 A second device attaching the same file sends nothing
+        AttachmentStore otherDevice = new AttachmentStore(folder.newFolder("other"));
+        otherDevice.put(new ByteArrayInputStream(content));
+        assertFalse(AttachmentManager.sendIfMissing(server, otherDevice, first, null, this::record));
+        assertEquals(SIZE, server.getBytesReceived());
+    }
+
+    @Test
+    public void interruptedUpload_resumesWithoutResendingBytes() throws IOException {
+        String hash = store.put(new ByteArrayInputStream(content)).hash;
+
+        server.failAfterChunks(2);
+        try {
+            AttachmentManager.sendIfMissing(server, store, hash, null, this::record);
+            fail("The simulated connection drop should stop the upload");
+        } catch (IOException expected) {
+            // 🔌 Dropped after two confirmed chunks
+        }
+        assertEquals(2L * LocalBlobBackend.CHUNK_BYTES, lastBytesSent);
+        assertFalse(server.exists(hash, SIZE));
+
+        assertTrue(AttachmentManager.sendIfMissing(server, store, hash, lastSession, this::record));
+        assertEquals(SIZE, lastBytesSent);
+        assertEquals(SIZE, server.getBytesReceived());          // No byte was sent twice
+        assertTrue(server.exists(hash, SIZE));
+        assertArrayEquals(content, download(server, hash));
+    }
+
+    @Test
+    public void blobOfWrongSize_isUploadedAgain() throws IOException {
+        String hash = store.put(new ByteArrayInputStream(content)).hash;
+        File planted = new File(new File(folder.getRoot(), "server/blobs"), hash);
+        assertTrue(planted.getParentFile().mkdirs());
+        write(planted, Arrays.copyOf(content, 100));
+
+        assertFalse(server.exists(hash, SIZE));
+        assertTrue(AttachmentManager.sendIfMissing(server, store, hash, null, this::record));
+        assertArrayEquals(content, download(server, hash));
+    }
+
+    @Test
+    public void download_keepsMatchingContent() throws IOException {
+        String hash = store.put(new ByteArrayInputStream(content)).hash;
+        AttachmentManager.sendIfMissing(server, store, hash, null, this::record);
+
+        AttachmentStore otherDevice = new AttachmentStore(folder.newFolder("other"));
+        File file = otherDevice.putVerified(hash, out -> server.download(hash, out));
+        assertArrayEquals(content, read(file));
+        assertTrue(otherDevice.contains(hash));
+    }
+
+    @Test
+    public void download_rejectsTamperedContent() throws IOException {
+        String hash = store.put(new ByteArrayInputStream(content)).hash;
+        AttachmentManager.sendIfMissing(server, store, hash, null, this::record);
+
+        byte[] tampered = content.clone();
+        tampered[SIZE / 2] ^= 1;
+        write(new File(new File(folder.getRoot(), "server/blobs"), hash), tampered);
+
+        AttachmentStore otherDevice = new AttachmentStore(folder.newFolder("other"));
+        try {
+            otherDevice.putVerified(hash, out -> server.download(hash, out));
+            fail("A blob whose content does not match its hash must be rejected");
+        } catch (IOException expected) {
+            // ❌ Hash mismatch
+        }
+        assertFalse(otherDevice.contains(hash));
+        assertTrue(otherDevice.listHashes().isEmpty());
+    }
+
+    private void record(String sessionUri, long bytesSent) {
+        lastSession = sessionUri;
+        lastBytesSent = bytesSent;
+    }
+
+    private static byte[] download(LocalBlobBackend server, String hash) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        server.download(hash, out);
+        return out.toByteArray();
+    }
+
+    private static void write(File file, byte[] bytes) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] read(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+        try (InputStream in = new FileInputStream(file)) {
+            int offset = 0;
+            while (offset < bytes.length) {
+                int read = in.read(bytes, offset, bytes.length - offset);
+                if (read == -1) break;
+                offset += read;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,238 @@
+package com.resource.noteit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Round-trips archives through NoteArchive.export() and importArchive() over in-memory streams.
+ * The notes and tasks live in an in-memory stand-in for the repositories that merges like
+ * NoteRepository.importNotes() (by syncId, newer wins) and TaskRepository.importTasks() (by id).
+ */
+public class NoteArchiveTest {
+
+    // More than one export page of notes, and more than one import batch of tasks
+    private static final int NOTES = NoteArchive.EXPORT_PAGE_SIZE * 2 + 7;
+    private static final int TASKS = NoteArchive.IMPORT_BATCH_NOTES + 3;
+
+    private MemoryStore source;
+    private byte[] archive;
+
+    @Before
+    public void setUp() throws IOException {
+        source = new MemoryStore();
+        for (int i = 0; i < NOTES; i++) {
+            DataClass note = new DataClass("Note " + i, "Body of note " + i + "\n\"quoted\" ✅", 1000 + i);
+            note.syncId = "sync-" + i;
+            source.insertNote(note);
+        }
+        DataClass untitled = new DataClass(null, "", 5000);
+        untitled.syncId = "sync-untitled";
+        source.insertNote(untitled);
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task(i % 2 == 0 ? "Buy milk" : "Task " + i); // Same title on purpose
+            task.setCompleted(i % 3 == 0);
+            task.setGroup(i % 5 == 0 ? "Home" : null);
+            source.insertTask(task);
+        }
+        archive = export(source);
+    }
+
+    @Test
+    public void importIntoEmptyStore_restoresEverything() throws IOException {
+        MemoryStore target = new MemoryStore();
+        NoteArchive.Result result = importInto(target);
+
+        assertEquals(NOTES + 1, result.notes);
+        assertEquals(NOTES + 1, result.notesImported);
+        assertEquals(TASKS, result.tasks);
+        assertSameNotes(source, target);
+        assertSameTasks(source, target);
+    }
+
+    @Test
+    public void importTwice_changesNothing() throws IOException {
+        MemoryStore target = new MemoryStore();
+        importInto(target);
+        NoteArchive.Result again = importInto(target);
+
+        assertEquals(NOTES + 1, again.notes);
+        assertEquals(0, again.notesImported);
+        assertEquals(0, again.tasks);
+        assertSameNotes(source, target);
+        assertSameTasks(source, target);
+    }
+
+    @Test
+    public void importIntoExportingStore_changesNothing() throws IOException {
+        NoteArchive.Result result = importInto(source);
+
+        assertEquals(0, result.notesImported);
+        assertEquals(0, result.tasks);
+        assertEquals(NOTES + 1, source.notes.size());
+        assertEquals(TASKS, source.tasks.size());
+    }
+
+    @Test
+    public void newerLocalNote_isKept() throws IOException {
+        MemoryStore target = new MemoryStore();
+        importInto(target);
+        DataClass edited = target.findBySyncId("sync-3");
+        edited.dataDesc = "Edited after the backup";
+        edited.modifiedAt = 99_999;
+
+        NoteArchive.Result again = importInto(target);
+
+        assertEquals(0, again.notesImported);
+        assertEquals("Edited after the backup", target.findBySyncId("sync-3").dataDesc);
+    }
+
+    @Test
+    public void exportOfImport_isTheSameArchiveContent() throws IOException {
+        MemoryStore target = new MemoryStore();
+        importInto(target);
+        MemoryStore copy = new MemoryStore();
+        new NoteArchive(copy, Runnable::run).importArchive(new ByteArrayInputStream(export(target)), null);
+
+        assertSameNotes(source, copy);
+        assertSameTasks(source, copy);
+    }
+
+    @Test
+    public void otherJson_isRejected() {
+        byte[] notAnArchive = "{\"format\": \"something-else\", \"notes\": []}".getBytes(StandardCharsets.UTF_8);
+        try {
+            new NoteArchive(new MemoryStore(), Runnable::run).importArchive(new ByteArrayInputStream(notAnArchive), null);
+            fail("Expected an IOException");
+        } catch (IOException expected) {
+            assertNotNull(expected.getMessage());
+        }
+    }
+
+    private static byte[] export(MemoryStore store) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NoteArchive.Result result = new NoteArchive(store, Runnable::run).export(out, null);
+        assertEquals(store.notes.size(), result.notes);
+        assertEquals(store.tasks.size(), result.tasks);
+        return out.toByteArray();
+    }
+
+    private NoteArchive.Result importInto(MemoryStore store) throws IOException {
+        return new NoteArchive(store, Runnable::run).importArchive(new ByteArrayInputStream(archive), null);
+    }
+
+    private static void assertSameNotes(MemoryStore expected, MemoryStore actual) {
+        assertEquals(expected.notes.size(), actual.notes.size());
+        for (DataClass note : expected.notes.values()) {
+            DataClass copy = actual.findBySyncId(note.syncId);
+            assertNotNull(note.syncId, copy);
+            assertEquals(note.dataTitle, copy.dataTitle);
+            assertEquals(note.dataDesc, copy.dataDesc);
+            assertEquals(note.createdAt, copy.createdAt);
+            assertEquals(note.modifiedAt, copy.modifiedAt);
+        }
+    }
+
+    private static void assertSameTasks(MemoryStore expected, MemoryStore actual) {
+        assertEquals(expected.tasks.size(), actual.tasks.size());
+        for (Task task : expected.tasks.values()) {
+            Task copy = actual.tasks.get(task.getId());
+            assertNotNull("task " + task.getId(), copy);
+            assertEquals(task.getTitle(), copy.getTitle());
+            assertEquals(task.isCompleted(), copy.isCompleted());
+            assertEquals(task.getGroup(), copy.getGroup());
+        }
+    }
+
+    /**
+     * Notes and tasks keyed by id, standing in for the notes and tasks tables.
+     */
+    private static final class MemoryStore implements NoteArchive.Store {
+        final Map<Integer, DataClass> notes = new TreeMap<>();
+        final Map<Integer, Task> tasks = new TreeMap<>();
+        private int nextNoteId = 1;
+        private int nextTaskId = 1;
+
+        void insertNote(DataClass note) {
+            note.id = nextNoteId++;
+            notes.put(note.id, note);
+        }
+
+        void insertTask(Task task) {
+            if (task.getId() == 0) task.setId(nextTaskId);
+            nextTaskId = Math.max(nextTaskId, task.getId() + 1); // Like AUTOINCREMENT after an explicit id
+            tasks.put(task.getId(), task);
+        }
+
+        DataClass findBySyncId(String syncId) {
+            for (DataClass note : notes.values()) {
+                if (note.syncId.equals(syncId)) return note;
+            }
+            return null;
+        }
+
+        @Override
+        public int getNoteCount() {
+            return notes.size();
+        }
+
+        @Override
+        public List<DataClass> getNotesAfter(int afterId, int limit) {
+            List<DataClass> page = new ArrayList<>();
+            for (DataClass note : notes.values()) {
+                if (note.id > afterId && page.size() < limit) page.add(note);
+            }
+            return page;
+        }
+
+        @Override
+        public int importNotes(List<DataClass> batch) {
+            int imported = 0;
+            for (DataClass note : batch) {
+                DataClass local = findBySyncId(note.syncId);
+                if (local == null) {
+                    insertNote(note);
+                    imported++;
+                } else if (local.modifiedAt < note.modifiedAt) {
+                    local.dataTitle = note.dataTitle;
+                    local.dataDesc = note.dataDesc;
+                    local.modifiedAt = note.modifiedAt;
+                    imported++;
+                }
+            }
+            return imported;
+        }
+
+        @Override
+        public List<Task> getTasksAfter(int afterId, int limit) {
+            List<Task> page = new ArrayList<>();
+            for (Task task : tasks.values()) {
+                if (task.getId() > afterId && page.size() < limit) page.add(task);
+            }
+            return page;
+        }
+
+        @Override
+        public int importTasks(List<Task> batch) {
+            int added = 0;
+            for (Task task : batch) {
+                if (task.getTitle() == null || tasks.containsKey(task.getId())) continue;
+                insertTask(task);
+                added++;
+            }
+            return added;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.resource.noteit;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Footprint and query latency of NoteIndex at 50k synthetic notes (-Pbenchmark.notes=N to change).
+ * Prints getStats() after loading, the median and 95th percentile latency of prefix, multi-word,
+ * typo and keystroke-by-keystroke (narrowed) queries, and of the typo lookup on its own, and fails
+ * if a 95th percentile is above its budget. The budgets are generous so a slow CI machine passes;
+ * a miss means the index lost its asymptotics, not a few percent.
+ *
+ * Skipped unless run with ./gradlew test -Pbenchmark=true.
+ */
+public class NoteIndexBenchmark {
+
+    private static final int NOTES = Integer.getInteger("benchmark.notes", 50_000);
+    private static final int RUNS = 200;
+    private static final int WARMUP_RUNS = 50; // Untimed, so the JIT has compiled the search path
+
+    // ⏱️ 95th percentile budgets, in milliseconds
+    private static final double QUERY_BUDGET_MS = 50;     // One search, exact or with typos
+    private static final double KEYSTROKE_BUDGET_MS = 16; // One narrowed search per typed character: a frame
+    private static final double TYPO_LOOKUP_BUDGET_MS = 20;
+
+    // 🔤 Words are built from syllables, giving a vocabulary of a few thousand distinct terms
+    private static final String[] SYLLABLES = {
+            "ma", "me", "mi", "ko", "ta", "ting", "ge", "nda", "ro", "ce", "ri", "lo", "pa", "ra", "sun", "day",
+            "wor", "kout", "pro", "ject", "plan", "ning", "bud", "get", "tra", "vel", "re", "port", "not", "es"};
+
+    @Before
+    public void onlyWhenAsked() {
+        Assume.assumeTrue("Benchmarks only run with -Pbenchmark=true", Boolean.getBoolean("benchmark"));
+    }
+
+    @Test
+    public void footprintAndLatency() {
+        Random random = new Random(7);
+        NoteIndex index = new NoteIndex();
+
+        long start = System.nanoTime();
+        for (int id = 1; id <= NOTES; id++) {
+            index.put(id, sentence(random, 3) + (id % 10 == 0 ? " meeting" : ""),
+                    sentence(random, 12) + (id % 7 == 0 ? " agenda" : ""), id * 1000L);
+        }
+        index.markReady();
+        long loadMs = (System.nanoTime() - start) / 1_000_000;
+
+        NoteIndex.Stats stats = index.getStats();
+        System.out.println(String.format(Locale.US, "NoteIndex load: %d notes in %d ms", NOTES, loadMs));
+        System.out.println("NoteIndex stats: " + stats);
+        assertEquals(NOTES, stats.notes);
+
+        assertWithin(QUERY_BUDGET_MS, report(index, "prefix \"mee\"", "mee"));
+        assertWithin(QUERY_BUDGET_MS, report(index, "word \"meeting\"", "meeting"));
+        assertWithin(QUERY_BUDGET_MS, report(index, "two words \"meeting agenda\"", "meeting agenda"));
+        assertWithin(QUERY_BUDGET_MS, report(index, "typo \"meetng\"", "meetng"));
+        assertWithin(QUERY_BUDGET_MS, report(index, "typo \"agneda\"", "agneda"));
+        assertWithin(KEYSTROKE_BUDGET_MS * "meeting".length(), reportTyping(index, "meeting"));
+        assertTrue(index.search("meeting agenda", null).hasMatch);
+    }
+
+    /**
+     * Cost of the typo stage alone: trigram candidates re-ranked by edit distance, for
+     * misspellings of growing length (1 typo allowed up to 7 characters, 2 from 8).
+     */
+    @Test
+    public void typoLookupLatency() {
+        Random random = new Random(7);
+        NoteIndex index = new NoteIndex();
+        for (int id = 1; id <= NOTES; id++) {
+            index.put(id, sentence(random, 3) + " meeting", sentence(random, 12) + " agenda reporting", id * 1000L);
+        }
+
+        for (String typo : new String[] {"agneda", "meetng", "repotring", "planningbudgte"}) {
+            for (int run = 0; run < WARMUP_RUNS; run++) index.similarTerms(typo);
+            long[] nanos = new long[RUNS];
+            int terms = 0;
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                terms = index.similarTerms(typo).size();
+                nanos[run] = System.nanoTime() - start;
+            }
+            assertWithin(TYPO_LOOKUP_BUDGET_MS, print("similarTerms \"" + typo + "\"", terms, nanos));
+        }
+        assertTrue(index.similarTerms("meetng").contains("meeting"));
+        assertTrue(index.similarTerms("agneda").contains("agenda"));
+    }
+
+    /**
+     * @return 95th percentile latency in milliseconds
+     */
+    private static double report(NoteIndex index, String label, String query) {
+        for (int run = 0; run < WARMUP_RUNS; run++) index.search(query, null);
+        long[] nanos = new long[RUNS];
+        int rows = 0;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            rows = index.search(query, null).rows.size();
+            nanos[run] = System.nanoTime() - start;
+        }
+        return print(label, rows, nanos);
+    }
+
+    /**
+     * Types a word one character at a time, each query narrowing the previous result.
+     *
+     * @return 95th percentile latency of typing the whole word, in milliseconds
+     */
+    private static double reportTyping(NoteIndex index, String word) {
+        for (int run = 0; run < WARMUP_RUNS; run++) index.search(word, index.search(word.substring(0, 1), null));
+        long[] nanos = new long[RUNS];
+        int rows = 0;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            NoteIndex.Result result = null;
+            for (int length = 1; length <= word.length(); length++) {
+                result = index.search(word.substring(0, length), result);
+            }
+            nanos[run] = System.nanoTime() - start;
+            rows = result.rows.size();
+        }
+        return print("typing \"" + word + "\" (" + word.length() + " queries)", rows, nanos);
+    }
+
+    /**
+     * @return 95th percentile latency in milliseconds
+     */
+    private static double print(String label, int rows, long[] nanos) {
+        Arrays.sort(nanos);
+        double p95 = nanos[nanos.length * 95 / 100] / 1e6;
+        System.out.println(String.format(Locale.US, "NoteIndex %s: %d results, median %.2f ms, p95 %.2f ms",
+                label, rows, nanos[nanos.length / 2] / 1e6, p95));
+        return p95;
+    }
+
+    private static void assertWithin(double budgetMs, double p95Ms) {
+        assertTrue(String.format(Locale.US, "p95 %.2f ms is over the %.0f ms budget", p95Ms, budgetMs), p95Ms <= budgetMs);
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) text.append(' ');
+            int syllables = 1 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) text.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return text.toString();
+    }
+}
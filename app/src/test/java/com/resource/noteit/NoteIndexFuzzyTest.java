@@ -0,0 +1,119 @@
+package com.resource.noteit;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks NoteIndex's typo tolerance: the bounded prefix edit distance, the trigram candidate
+ * lookup, and how typo matches rank against exact ones.
+ */
+public class NoteIndexFuzzyTest {
+
+    @Test
+    public void prefixDistance_countsEachKindOfEdit() {
+        assertEquals(0, NoteIndex.prefixDistance("meeting", "meeting", 2));
+        assertEquals(0, NoteIndex.prefixDistance("mee", "meeting", 2));     // A prefix is free
+        assertEquals(1, NoteIndex.prefixDistance("meetng", "meeting", 2));  // Missing letter
+        assertEquals(1, NoteIndex.prefixDistance("meeeting", "meeting", 2)); // Extra letter
+        assertEquals(1, NoteIndex.prefixDistance("meating", "meeting", 2)); // Wrong letter
+        assertEquals(1, NoteIndex.prefixDistance("agneda", "agenda", 2));   // Swapped neighbours
+        assertEquals(2, NoteIndex.prefixDistance("metng", "meeting", 2));
+    }
+
+    @Test
+    public void prefixDistance_stopsAboveTheBudget() {
+        assertEquals(2, NoteIndex.prefixDistance("xyzzy", "meeting", 1));  // max + 1
+        assertEquals(3, NoteIndex.prefixDistance("mxxxing", "meeting", 2));
+    }
+
+    @Test
+    public void maxEdits_growsWithWordLength() {
+        assertEquals(0, NoteIndex.maxEdits(3));
+        assertEquals(1, NoteIndex.maxEdits(4));
+        assertEquals(1, NoteIndex.maxEdits(7));
+        assertEquals(2, NoteIndex.maxEdits(8));
+    }
+
+    @Test
+    public void similarTerms_findsMisspellingsButNotExactPrefixes() {
+        NoteIndex index = new NoteIndex();
+        index.put(1, "Weekly meeting", "Agenda", 100);
+        index.put(2, "Meetup", "Meat", 200);
+
+        assertEquals(Collections.singletonList("meeting"), index.similarTerms("meetng"));
+        assertEquals(Collections.singletonList("agenda"), index.similarTerms("agneda"));
+        assertEquals(Collections.singletonList("meat"), index.similarTerms("meet")); // meeting, meetup are exact
+        assertTrue(index.similarTerms("mee").isEmpty());                            // Too short for typos
+    }
+
+    @Test
+    public void similarTerms_skipsTermsNoNoteUses() {
+        NoteIndex index = new NoteIndex();
+        index.put(1, "Meeting", "", 100);
+        index.remove(1);
+        assertTrue(index.similarTerms("meetng").isEmpty());
+    }
+
+    @Test
+    public void search_findsMisspelledWords() {
+        NoteIndex index = new NoteIndex();
+        index.put(1, "Weekly meeting", "Agenda for the team", 100);
+        index.put(2, "Groceries", "Milk and eggs", 200);
+
+        assertEquals(ids(1), ids(index.search("meetng", null)));
+        assertEquals(ids(1), ids(index.search("agneda", null)));
+        assertEquals(ids(1), ids(index.search("weekly agneda", null)));
+        assertFalse(index.search("gorceries milkk", null).rows.isEmpty());
+    }
+
+    @Test
+    public void ranking_exactBeforeTypoAndTitleAboveBody() {
+        NoteIndex index = new NoteIndex();
+        index.put(1, "Notes", "meeting", 100);    // Body, exact: 1 * 3
+        index.put(2, "Meeting", "", 100);         // Title, exact: 2 * 3
+        index.put(3, "Meating", "", 400);         // Title, one typo: 2 * 2
+        index.put(4, "Notes", "meating", 400);    // Body, one typo: 1 * 2
+
+        assertEquals(ids(2, 3, 1, 4), ids(index.search("meeting", null)));
+    }
+
+    @Test
+    public void ranking_breaksTiesByModifiedTime() {
+        NoteIndex index = new NoteIndex();
+        index.put(1, "Meeting", "", 100);
+        index.put(2, "Meeting", "", 300);
+        index.put(3, "Meeting", "", 200);
+
+        assertEquals(ids(2, 3, 1), ids(index.search("meeting", null)));
+    }
+
+    @Test
+    public void typos_areOnlyLookedUpForRareWords() {
+        NoteIndex index = new NoteIndex();
+        for (int id = 1; id <= NoteIndex.FUZZY_MIN_MATCHES; id++) index.put(id, "Meat", "", id);
+        index.put(100, "Meet", "", 100);
+
+        assertEquals(NoteIndex.FUZZY_MIN_MATCHES, index.search("meat", null).rows.size());
+        index.remove(1);
+        assertTrue(ids(index.search("meat", null)).contains(100)); // Now below the threshold
+    }
+
+    private static List<Integer> ids(int... ids) {
+        List<Integer> list = new ArrayList<>();
+        for (int id : ids) list.add(id);
+        return list;
+    }
+
+    private static List<Integer> ids(NoteIndex.Result result) {
+        List<Integer> ids = new ArrayList<>();
+        for (NoteRow row : result.rows) ids.add(row.id);
+        return ids;
+    }
+}
@@ -0,0 +1,141 @@
+package com.resource.noteit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks NoteIndex: put / remove, prefix search across words, narrowing a previous result,
+ * and compaction of terms no note uses any more.
+ */
+public class NoteIndexTest {
+
+    private NoteIndex index;
+
+    @Before
+    public void setUp() {
+        index = new NoteIndex();
+        index.put(1, "Weekly meeting", "Agenda for the team", 100);
+        index.put(2, "Groceries", "Milk, eggs and meat", 200);
+        index.put(3, "Meetup notes", "Talks about Android", 300);
+        index.markReady();
+    }
+
+    @Test
+    public void search_matchesEveryWordAsPrefix() {
+        assertIds(index.search("mee", null), 3, 1);           // Equal scores: most recently modified first
+        assertIds(index.search("meet team", null), 1);
+        assertIds(index.search("android", null), 3);
+        assertIds(index.search("me", null), 3, 1, 2);         // "meat" too, in the body only
+    }
+
+    @Test
+    public void search_ranksTitleAboveBody() {
+        index.put(4, "Notes", "Meeting minutes", 400);
+        assertIds(index.search("meeting", null), 1, 4);       // Title hit beats the newer body hit
+    }
+
+    @Test
+    public void search_withoutWords_hasNoMatch() {
+        NoteIndex.Result result = index.search("  !? ", null);
+        assertFalse(result.hasMatch);
+        assertTrue(result.rows.isEmpty());
+    }
+
+    @Test
+    public void put_replacesTheOldVersion() {
+        index.put(2, "Shopping", "Bread", 500);
+        assertIds(index.search("groceries", null));
+        assertIds(index.search("bread", null), 2);
+        assertEquals("Shopping", index.search("bread", null).rows.get(0).dataTitle);
+    }
+
+    @Test
+    public void remove_dropsTheNote() {
+        index.remove(1);
+        assertIds(index.search("meeting", null));
+        assertIds(index.search("mee", null), 3);
+        assertEquals(2, index.getStats().notes);
+    }
+
+    @Test
+    public void narrowing_givesTheSameAnswerAsAFullSearch() {
+        NoteIndex.Result previous = index.search("me", null);
+        NoteIndex.Result narrowed = index.search("mee", previous);
+        assertArrayEquals(ids(index.search("mee", null)), ids(narrowed));
+        narrowed = index.search("meetu", narrowed);
+        assertArrayEquals(ids(index.search("meetu", null)), ids(narrowed));
+    }
+
+    @Test
+    public void narrowing_isSkippedAfterAWrite() {
+        NoteIndex.Result previous = index.search("mee", null);
+        index.put(4, "Meet the parents", "", 400);
+        assertIds(index.search("meet", previous), 4, 3, 1, 2); // "meat" is one typo away
+    }
+
+    @Test
+    public void complete_listsTermsUnderAPrefix() {
+        assertEquals(Arrays.asList("meat", "meeting", "meetup"), index.complete("me", 10));
+        index.remove(2);
+        assertEquals(Arrays.asList("meeting", "meetup"), index.complete("me", 10));
+    }
+
+    @Test
+    public void unusedTerms_areCompactedAway() {
+        NoteIndex big = new NoteIndex();
+        int notes = NoteIndex.COMPACT_MIN_DEAD_TERMS * 2;
+        for (int id = 1; id <= notes; id++) big.put(id, "word" + id, "shared", id);
+        assertEquals(notes + 1, big.getStats().terms);
+
+        // 🔁 Every edit replaces the note's unique term: the old one is left unused
+        for (int id = 1; id <= notes; id++) big.put(id, "edited" + id, "shared", notes + id);
+        NoteIndex.Stats stats = big.getStats();
+        assertEquals(notes + 1, stats.terms);
+        assertTrue("dead terms are compacted once they pile up, left " + stats.deadTerms,
+                stats.deadTerms < NoteIndex.COMPACT_MIN_DEAD_TERMS);
+
+        big.compact();
+        stats = big.getStats();
+        assertEquals(0, stats.deadTerms);
+        assertEquals(notes + 1, stats.terms);
+        assertIds(big.search("word17", null));
+        assertEquals(notes, big.search("edited2048", null).rows.get(0).id); // Exact match ranks first
+        assertEquals(notes, big.search("shared", null).rows.size());
+        assertEquals(Arrays.asList("edited1", "edited10"), big.complete("edited1", 2));
+        assertEquals(notes, big.search("sharde", null).rows.size()); // Typo lookup uses the rebuilt trigrams
+    }
+
+    @Test
+    public void compact_keepsEveryLiveNoteSearchable() {
+        index.remove(2);
+        index.compact();
+        assertIds(index.search("mee", null), 3, 1);
+        assertIds(index.search("groceries", null));
+        assertIds(index.search("agenda", null), 1);
+        assertEquals(0, index.getStats().deadTerms);
+
+        index.put(2, "Groceries again", "Meat", 600);
+        assertIds(index.search("groceries", null), 2);
+    }
+
+    private static void assertIds(NoteIndex.Result result, int... expected) {
+        assertArrayEquals(expected, ids(result));
+    }
+
+    private static int[] ids(NoteIndex.Result result) {
+        List<Integer> ids = new ArrayList<>();
+        for (NoteRow row : result.rows) ids.add(row.id);
+        int[] array = new int[ids.size()];
+        for (int i = 0; i < array.length; i++) array[i] = ids.get(i);
+        return array;
+    }
+}
@@ -0,0 +1,227 @@
+package com.resource.noteit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.resource.noteit.NoteOutbox.OP_DELETE;
+import static com.resource.noteit.NoteOutbox.OP_INSERT;
+import static com.resource.noteit.NoteOutbox.OP_UPDATE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks NoteOutbox.merge() against the coalescing table documented on NoteOutbox, and
+ * enqueue() / abandon() against an in-memory stand-in for the note_outbox table.
+ */
+public class NoteOutboxTest {
+
+    private static final int NONE = 0;
+
+    private OutboxTable table;
+    private NoteOutbox outbox;
+
+    @Before
+    public void setUp() {
+        table = new OutboxTable();
+        outbox = new NoteOutbox(table);
+    }
+
+    @Test
+    public void insertThenUpdate_staysInsert() {
+        assertEquals(OP_INSERT, NoteOutbox.merge(OP_INSERT, OP_UPDATE));
+    }
+
+    @Test
+    public void insertThenDelete_cancelsOut() {
+        assertEquals(NONE, NoteOutbox.merge(OP_INSERT, OP_DELETE));
+    }
+
+    @Test
+    public void updateThenUpdate_staysUpdate() {
+        assertEquals(OP_UPDATE, NoteOutbox.merge(OP_UPDATE, OP_UPDATE));
+    }
+
+    @Test
+    public void updateThenDelete_becomesDelete() {
+        assertEquals(OP_DELETE, NoteOutbox.merge(OP_UPDATE, OP_DELETE));
+    }
+
+    @Test
+    public void deleteThenInsert_becomesUpdate() {
+        assertEquals(OP_UPDATE, NoteOutbox.merge(OP_DELETE, OP_INSERT));
+    }
+
+    @Test
+    public void deleteThenDelete_staysDelete() {
+        assertEquals(OP_DELETE, NoteOutbox.merge(OP_DELETE, OP_DELETE));
+    }
+
+    @Test
+    public void sessionOfWrites_coalescesToOneOperation() {
+        int op = OP_INSERT;
+        for (int i = 0; i < 20; i++) op = NoteOutbox.merge(op, OP_UPDATE);
+        assertEquals(OP_INSERT, op);
+        assertEquals(NONE, NoteOutbox.merge(op, OP_DELETE));
+    }
+
+    @Test
+    public void enqueue_firstWriteCreatesVersionOne() {
+        outbox.enqueue("a", OP_INSERT, 100);
+        NoteOutboxEntry entry = table.getOutboxEntry("a");
+        assertEquals(OP_INSERT, entry.op);
+        assertEquals(1, entry.version);
+        assertEquals(100, entry.enqueuedAt);
+        assertEquals(100, entry.updatedAt);
+    }
+
+    @Test
+    public void enqueue_coalescedWriteBumpsVersionAndKeepsItsPlace() {
+        outbox.enqueue("a", OP_INSERT, 100);
+        outbox.enqueue("a", OP_UPDATE, 200);
+        outbox.enqueue("a", OP_UPDATE, 300);
+        NoteOutboxEntry entry = table.getOutboxEntry("a");
+        assertEquals(OP_INSERT, entry.op);
+        assertEquals(3, entry.version);
+        assertEquals(100, entry.enqueuedAt);                  // Still flushed in first-write order
+        assertEquals(300, entry.updatedAt);
+        assertEquals(1, table.getOutboxSize());
+    }
+
+    @Test
+    public void enqueue_deleteCancelsAPendingInsert() {
+        outbox.enqueue("a", OP_INSERT, 100);
+        outbox.enqueue("a", OP_UPDATE, 200);
+        outbox.enqueue("a", OP_DELETE, 300);
+        assertNull(table.getOutboxEntry("a"));
+    }
+
+    @Test
+    public void enqueue_deleteAfterUpdateRecordsDeletionTime() {
+        outbox.enqueue("a", OP_UPDATE, 100);
+        outbox.enqueue("a", OP_DELETE, 300);
+        NoteOutboxEntry entry = table.getOutboxEntry("a");
+        assertEquals(OP_DELETE, entry.op);
+        assertEquals(2, entry.version);
+        assertEquals(300, entry.updatedAt);
+    }
+
+    @Test
+    public void enqueue_ignoresNotesWithoutSyncId() {
+        outbox.enqueue(null, OP_UPDATE, 100);
+        assertEquals(0, table.getOutboxSize());
+    }
+
+    @Test
+    public void abandon_afterMarkInsertSent_restoresTheInsert() {
+        outbox.enqueue("a", OP_INSERT, 100);
+        NoteOutboxEntry taken = table.getOutboxEntry("a");
+        table.markInsertSent("a");                            // Push in flight
+        outbox.enqueue("a", OP_UPDATE, 200);                  // Edited meanwhile
+        assertEquals(OP_UPDATE, table.getOutboxEntry("a").op);
+
+        outbox.abandon(taken);                                // Push failed
+        NoteOutboxEntry entry = table.getOutboxEntry("a");
+        assertEquals(OP_INSERT, entry.op);
+        assertEquals(2, entry.version);                       // The edit is still pending
+    }
+
+    @Test
+    public void abandon_afterMarkInsertSent_letsADeleteCancelTheInsert() {
+        outbox.enqueue("a", OP_INSERT, 100);
+        NoteOutboxEntry taken = table.getOutboxEntry("a");
+        table.markInsertSent("a");
+        outbox.enqueue("a", OP_DELETE, 200);                  // Deleted while the push was in flight
+        assertEquals(OP_DELETE, table.getOutboxEntry("a").op);
+
+        outbox.abandon(taken);                                // The backend never got the note
+        assertNull(table.getOutboxEntry("a"));
+    }
+
+    @Test
+    public void abandon_leavesAFailedUpdateAsItIs() {
+        outbox.enqueue("a", OP_UPDATE, 100);
+        NoteOutboxEntry taken = table.getOutboxEntry("a");
+        table.markInsertSent("a");
+        outbox.abandon(taken);
+        assertEquals(OP_UPDATE, table.getOutboxEntry("a").op);
+        assertEquals(1, table.getOutboxEntry("a").version);
+    }
+
+    /**
+     * The note_outbox queries of NoteSyncDao over a map. Like Room, it hands out copies, so a
+     * caller only changes the table through put / delete.
+     */
+    private static final class OutboxTable implements NoteSyncDao {
+        private final Map<String, NoteOutboxEntry> rows = new HashMap<>();
+
+        @Override
+        public NoteOutboxEntry getOutboxEntry(String syncId) {
+            return copy(rows.get(syncId));
+        }
+
+        @Override
+        public void putOutboxEntry(NoteOutboxEntry entry) {
+            rows.put(entry.syncId, copy(entry));
+        }
+
+        @Override
+        public void deleteOutboxEntry(String syncId) {
+            rows.remove(syncId);
+        }
+
+        @Override
+        public void markInsertSent(String syncId) {
+            NoteOutboxEntry entry = rows.get(syncId);
+            if (entry != null && entry.op == OP_INSERT) entry.op = OP_UPDATE;
+        }
+
+        @Override
+        public int completeOutboxEntry(String syncId, int version) {
+            NoteOutboxEntry entry = rows.get(syncId);
+            if (entry == null || entry.version != version) return 0;
+            rows.remove(syncId);
+            return 1;
+        }
+
+        @Override
+        public int clearOutbox() {
+            int size = rows.size();
+            rows.clear();
+            return size;
+        }
+
+        @Override
+        public int getOutboxSize() {
+            return rows.size();
+        }
+
+        @Override
+        public List<NoteOutboxEntry> getOutbox(long afterTime, String afterSyncId, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public DataClass getNoteBySyncId(String syncId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getSyncId(int id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<String> getSyncIds(List<Integer> ids) {
+            throw new UnsupportedOperationException();
+        }
+
+        private static NoteOutboxEntry copy(NoteOutboxEntry entry) {
+            return entry == null ? null
+                    : new NoteOutboxEntry(entry.syncId, entry.op, entry.version, entry.enqueuedAt, entry.updatedAt);
+        }
+    }
+}